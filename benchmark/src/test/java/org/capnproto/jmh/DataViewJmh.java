@@ -0,0 +1,137 @@
+package org.capnproto.jmh;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import org.capnproto.ByteArrayDataView;
+import org.capnproto.ByteBufferDataView;
+import org.capnproto.DataView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the primitive access of the DataView implementations over a 64k
+ * segment. To run this test execute maven with -P benchmark or just run the
+ * main of this file in your IDE.
+ */
+// only fork 1 JVM per benchmark
+@Fork(1)
+// 5 times 2 second warmup per benchmark
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+// 5 times 2 second measurment per benchmark
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+// score is duration of one call
+@BenchmarkMode(Mode.AverageTime)
+// in micros
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataViewJmh {
+
+    private static final int SIZE = 64 * 1024;
+
+    private static long sumLongs(DataView view) {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i += 8) {
+            sum += view.getLong(i);
+        }
+        return sum;
+    }
+
+    private static long sumInts(DataView view) {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i += 4) {
+            sum += view.getInt(i);
+        }
+        return sum;
+    }
+
+    private static void putLongs(DataView view) {
+        for (int i = 0; i < SIZE; i += 8) {
+            view.putLong(i, i);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DataProvider {
+
+        private DataView heapBuffer;
+        private DataView directBuffer;
+        private DataView array;
+
+        @Setup
+        public void init() {
+            heapBuffer = ByteBufferDataView.allocate(SIZE);
+            directBuffer = ByteBufferDataView.allocateDirect(SIZE);
+            array = ByteArrayDataView.allocate(SIZE);
+            for (DataView view : new DataView[]{heapBuffer, directBuffer, array}) {
+                view.order(ByteOrder.LITTLE_ENDIAN);
+                putLongs(view);
+            }
+        }
+    }
+
+    @Benchmark
+    public long getLongHeapByteBuffer(DataProvider data) {
+        return sumLongs(data.heapBuffer);
+    }
+
+    @Benchmark
+    public long getLongDirectByteBuffer(DataProvider data) {
+        return sumLongs(data.directBuffer);
+    }
+
+    @Benchmark
+    public long getLongByteArray(DataProvider data) {
+        return sumLongs(data.array);
+    }
+
+    @Benchmark
+    public long getIntHeapByteBuffer(DataProvider data) {
+        return sumInts(data.heapBuffer);
+    }
+
+    @Benchmark
+    public long getIntDirectByteBuffer(DataProvider data) {
+        return sumInts(data.directBuffer);
+    }
+
+    @Benchmark
+    public long getIntByteArray(DataProvider data) {
+        return sumInts(data.array);
+    }
+
+    @Benchmark
+    public void putLongHeapByteBuffer(DataProvider data) {
+        putLongs(data.heapBuffer);
+    }
+
+    @Benchmark
+    public void putLongDirectByteBuffer(DataProvider data) {
+        putLongs(data.directBuffer);
+    }
+
+    @Benchmark
+    public void putLongByteArray(DataProvider data) {
+        putLongs(data.array);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(DataViewJmh.class
+                        .getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.capnproto.jmh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.capnproto.ArrayInputStream;
+import org.capnproto.ArrayOutputStream;
+import org.capnproto.PackedInputStream;
+import org.capnproto.PackedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the packed encoding and decoding of a 64k segment with a mix of sparse words,
+ * zero runs and dense runs. To run this test execute maven with -P benchmark
+ * or just run the main of this file in your IDE.
+ */
+// only fork 1 JVM per benchmark
+@Fork(1)
+// 5 times 2 second warmup per benchmark
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+// 5 times 2 second measurment per benchmark
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+// score is duration of one call
+@BenchmarkMode(Mode.AverageTime)
+// in micros
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PackedJmh {
+
+    private static final int SIZE = 64 * 1024;
+
+    @State(Scope.Benchmark)
+    public static class DataProvider {
+
+        private ByteBuffer segment;
+        private ByteBuffer packed;
+        private int packedSize;
+        private ByteBuffer unpacked;
+
+        @Setup
+        public void init() {
+            Random random = new Random(42);
+            segment = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (segment.hasRemaining()) {
+                int words = Math.min(segment.remaining() / 8, 1 + random.nextInt(16));
+                int kind = random.nextInt(4);
+                for (int i = 0; i < words * 8; i++) {
+                    switch (kind) {
+                        case 0:
+                            // zero run
+                            segment.put((byte) 0);
+                            break;
+                        case 1:
+                            // text or data
+                            segment.put((byte) (1 + random.nextInt(255)));
+                            break;
+                        default:
+                            // small numbers and pointers
+                            segment.put(random.nextBoolean() ? 0 : (byte) random.nextInt(256));
+                    }
+                }
+            }
+            segment.flip();
+            packed = ByteBuffer.allocate(SIZE * 2);
+            unpacked = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                ArrayOutputStream output = new ArrayOutputStream(packed);
+                new PackedOutputStream(output).write(segment.duplicate());
+                packedSize = output.getWriteBuffer().position();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public int pack(DataProvider data) throws IOException {
+        PackedOutputStream output = new PackedOutputStream(new ArrayOutputStream(data.packed.duplicate()));
+        return output.write(data.segment.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Benchmark
+    public int unpack(DataProvider data) throws IOException {
+        ByteBuffer input = data.packed.duplicate();
+        input.limit(data.packedSize).position(0);
+        data.unpacked.clear();
+        return new PackedInputStream(new ArrayInputStream(input)).read(data.unpacked);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PackedJmh.class
+                        .getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
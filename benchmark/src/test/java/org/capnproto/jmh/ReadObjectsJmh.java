@@ -9,7 +9,11 @@ import java.util.concurrent.TimeUnit;
 import org.capnproto.AllocatedArenaBuilder;
 import org.capnproto.ArrayInputStream;
 import org.capnproto.ByteBufferDataView;
+import org.capnproto.Data;
 import org.capnproto.MessageBuilder;
+import org.capnproto.MessageReader;
+import org.capnproto.ReaderOptions;
+import org.capnproto.StructList;
 import org.capnproto.benchmark.CarSalesSchema;
 import org.capnproto.benchmark.DataSchema;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -52,6 +56,10 @@ public class ReadObjectsJmh {
         hole.consume(builder.build(ByteBufferDataView.wrap(bb)));
     }
 
+    private void readTrusted(byte[] bb, Blackhole hole, AllocatedArenaBuilder builder) throws IOException {
+        hole.consume(new MessageReader(builder.build(ByteBufferDataView.wrap(bb)), DataProvider.TRUSTED));
+    }
+
     private void readChannel(byte[] data, Blackhole hole, AllocatedArenaBuilder builder) throws IOException {
         hole.consume(builder.build(Channels.newChannel(new ByteArrayInputStream(data))));
     }
@@ -63,6 +71,8 @@ public class ReadObjectsJmh {
     @State(Scope.Benchmark)
     public static class DataProvider {
 
+        private static final ReaderOptions TRUSTED = new ReaderOptions(Long.MAX_VALUE, 64, true);
+
         private final AllocatedArenaBuilder builder = new AllocatedArenaBuilder();
 
         public AllocatedArenaBuilder getBuilder() {
@@ -71,6 +81,21 @@ public class ReadObjectsJmh {
         private byte[] car;
         private byte[] data;
         private byte[] lot;
+        private MessageReader lotReader;
+        private MessageReader trustedLotReader;
+        private MessageReader dataReader;
+
+        public CarSalesSchema.ParkingLot.Reader getLot() {
+            return lotReader.getRoot(CarSalesSchema.ParkingLot.factory);
+        }
+
+        public CarSalesSchema.ParkingLot.Reader getTrustedLot() {
+            return trustedLotReader.getRoot(CarSalesSchema.ParkingLot.factory);
+        }
+
+        public DataSchema.Message.Reader getData() {
+            return dataReader.getRoot(DataSchema.Message.factory);
+        }
 
         @Setup
         public void init() throws IOException {
@@ -85,6 +110,7 @@ public class ReadObjectsJmh {
                 final DataSchema.Message.Builder initRoot = builder.initRoot(DataSchema.Message.factory);
                 initRoot.initLeft().setValue(new byte[100_000]);
                 this.data = write(builder);
+                this.dataReader = new MessageReader(this.builder.build(ByteBufferDataView.wrap(this.data)));
             }
             {
                 MessageBuilder builder = new MessageBuilder();
@@ -92,6 +118,8 @@ public class ReadObjectsJmh {
                 parkingLot.initCars(1000);
                 parkingLot.getCars().stream().forEach(this::createCar);
                 this.lot = write(builder);
+                this.lotReader = new MessageReader(this.builder.build(ByteBufferDataView.wrap(this.lot)));
+                this.trustedLotReader = new MessageReader(this.builder.build(ByteBufferDataView.wrap(this.lot)), TRUSTED);
             }
         }
 
@@ -133,6 +161,11 @@ public class ReadObjectsJmh {
         read(data.lot, hole, data.getBuilder());
     }
 
+    @Benchmark
+    public void readByteBufferParkingLotWith1000CarsTrusted(Blackhole hole, DataProvider data) throws IOException {
+        readTrusted(data.lot, hole, data.getBuilder());
+    }
+
     @Benchmark
     public void readByteBuffer100kDataReaderArena(Blackhole hole, DataProvider data) throws IOException {
         read(data.data, hole, data.getBuilder());
@@ -168,6 +201,69 @@ public class ReadObjectsJmh {
         readArrayInputStream(data.data, hole, data.getBuilder());
     }
 
+    @Benchmark
+    public void iterateParkingLotWith1000CarsGet(Blackhole hole, DataProvider data) {
+        final StructList.Reader<CarSalesSchema.Car.Reader> cars = data.getLot().getCars();
+        int seats = 0;
+        for (int i = 0; i < cars.size(); i++) {
+            seats += cars.get(i).getSeats();
+        }
+        hole.consume(seats);
+    }
+
+    @Benchmark
+    public void iterateParkingLotWith1000CarsTrusted(Blackhole hole, DataProvider data) {
+        final StructList.Reader<CarSalesSchema.Car.Reader> cars = data.getTrustedLot().getCars();
+        int seats = 0;
+        for (int i = 0; i < cars.size(); i++) {
+            seats += cars.get(i).getSeats();
+        }
+        hole.consume(seats);
+    }
+
+    @Benchmark
+    public void iterateParkingLotWith1000CarsFlyweight(Blackhole hole, DataProvider data) {
+        final int[] seats = new int[1];
+        data.getLot().getCars().forEachFlyweight(car -> seats[0] += car.getSeats());
+        hole.consume(seats[0]);
+    }
+
+    @Benchmark
+    public void iterateParkingLotWith1000CarsCursor(Blackhole hole, DataProvider data) {
+        final StructList.Reader<CarSalesSchema.Car.Reader>.Cursor cursor = data.getLot().getCars().cursor();
+        int seats = 0;
+        for (int i = 0; i < cursor.size(); i++) {
+            seats += cursor.moveTo(i).getSeats();
+        }
+        hole.consume(seats);
+    }
+
+    @Benchmark
+    public void iterateParkingLotWith1000CarsText(Blackhole hole, DataProvider data) {
+        final StructList.Reader<CarSalesSchema.Car.Reader> cars = data.getLot().getCars();
+        int size = 0;
+        for (int i = 0; i < cars.size(); i++) {
+            final CarSalesSchema.Car.Reader car = cars.get(i);
+            size += car.getMake().size() + car.getModel().size();
+            car.recycle();
+        }
+        hole.consume(size);
+    }
+
+    @Benchmark
+    public void access100kDataAsByteBuffer(Blackhole hole, DataProvider data) {
+        final Data.Reader value = data.getData().getLeft().getValue();
+        hole.consume(value.asByteBuffer());
+        value.recycle();
+    }
+
+    @Benchmark
+    public void access100kDataAsReadOnlyByteBuffer(Blackhole hole, DataProvider data) {
+        final Data.Reader value = data.getData().getLeft().getValue();
+        hole.consume(value.asReadOnlyByteBuffer());
+        value.recycle();
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(ReadObjectsJmh.class
@@ -851,6 +851,20 @@ private:
      return createDo(indent,titleCase,type,createCondition(titleCase,is,has));
   }
 
+  // moves the object of a pointer field in and out of the struct without copying it
+  kj::String createOrphanMethods(int indent, kj::StringPtr titleCase, uint offset, const DiscriminantChecks& unionDiscrim) {
+     return kj::strTree(
+        spaces(indent), "  public final org.capnproto.Orphan disown", titleCase, "() {\n",
+        unionDiscrim.check,
+        spaces(indent), "    return _disownPointerField(", offset, ");\n",
+        spaces(indent), "  }\n",
+        spaces(indent), "  public final void adopt", titleCase, "(org.capnproto.Orphan value) {\n",
+        unionDiscrim.set,
+        spaces(indent), "    _adoptPointerField(", offset, ", value);\n",
+        spaces(indent), "  }\n"
+     ).flatten();
+  }
+
   kj::String createCondition (kj::StringPtr titleCase, bool is, bool has){
       if (is&&has)
          return kj::strTree("is",titleCase,"() && has",titleCase,"()").flatten();
@@ -923,7 +937,7 @@ private:
                kj::mv(unionDiscrim.builderIsDef),
               spaces(indent), "  public final ", titleCase, ".Builder get", titleCase, "() {\n",
               spaces(indent), "    return ", scope, titleCase,
-              ".Factory.BUILDER_RECYCLER.get().getOrCreate().init(segment, data, pointers, dataSize, pointerCount);\n",
+              ".Factory.BUILDER_RECYCLER.get(segment).getOrCreate().init(segment, data, pointers, dataSize, pointerCount);\n",
               spaces(indent), "  }\n",
               createDoIfRequired(indent,titleCase,kj::strTree(scope,titleCase,".Builder").flatten(),isExists,hasExists),
               spaces(indent), "  public final ", titleCase, ".Builder init", titleCase, "() {\n",
@@ -945,7 +959,7 @@ private:
                 KJ_UNREACHABLE;
               },
               "  return ", scope, titleCase,
-              ".Factory.BUILDER_RECYCLER.get().getOrCreate().init(segment, data, pointers, dataSize, pointerCount);\n",
+              ".Factory.BUILDER_RECYCLER.get(segment).getOrCreate().init(segment, data, pointers, dataSize, pointerCount);\n",
               spaces(indent), "  }\n",
                "\n"),
          createToStringGroup(indent,titleCase,hasGet,hasExists||isExists)
@@ -1170,6 +1184,7 @@ private:
             unionDiscrim.set,
             spaces(indent), "    return _initPointerField(", factoryArg, ", ", offset, ", size);\n",
             spaces(indent), "  }\n",
+            createOrphanMethods(indent, titleCase, offset, unionDiscrim),
 
             (field.getType().getBrandParameter() == nullptr ? kj::strTree() :
              kj::strTree(spaces(indent), "  public <", readerType, "> Builder set", titleCase,
@@ -1252,7 +1267,8 @@ private:
           unionDiscrim.set,
           spaces(indent), "    return ",
           "_initPointerField(", factoryArg, ",",  offset, ", 0);\n",
-          spaces(indent), "  }\n"),
+          spaces(indent), "  }\n",
+          createOrphanMethods(indent, titleCase, offset, unionDiscrim)),
          createToStringGroup(indent,titleCase,hasGet,hasExists||isExists)
       };
 
@@ -1263,7 +1279,7 @@ private:
         "Schemas.b_", kj::hex(typeId), ".getBuffer(), ", defaultOffset, ", ", defaultSize);
 
       kj::String blobKind =  typeBody.which() == schema::Type::TEXT ? kj::str("Text") : kj::str("Data");
-      kj::String setterInputType = typeBody.which() == schema::Type::TEXT ? kj::str("String") : kj::str("byte []");
+      kj::String setterInputType = typeBody.which() == schema::Type::TEXT ? kj::str("CharSequence") : kj::str("byte []");
       kj::String factory = kj::str("org.capnproto.", kj::str(blobKind), ".factory");
 
          hasExists=true;
@@ -1305,14 +1321,18 @@ private:
           spaces(indent), "  }\n",
           spaces(indent), "  public final Builder set", titleCase, "(", setterInputType, " value) {\n",
           unionDiscrim.set,
-          spaces(indent), "    _setPointerField(", factory, ", ", offset, ", new ", readerType, "(value));\n",
+          (typeBody.which() == schema::Type::TEXT ?
+            // the characters are encoded directly into the segment
+            kj::strTree(spaces(indent), "    _setTextField(", offset, ", value);\n") :
+            kj::strTree(spaces(indent), "    _setPointerField(", factory, ", ", offset, ", new ", readerType, "(value));\n")),
           spaces(indent), "    return this; // chain building blob\n",
           spaces(indent), "  }\n",
 
           spaces(indent), "  public final ", builderType, " init", titleCase, "(int size) {\n",
           unionDiscrim.set,
           spaces(indent), "    return _initPointerField(", factory, ", ", offset, ", size);\n",
-          spaces(indent), "  }\n"),
+          spaces(indent), "  }\n",
+          createOrphanMethods(indent, titleCase, offset, unionDiscrim)),
          createToStringValue(indent,titleCase,hasGet,hasExists||isExists)
       };
     } else if (kind == FieldKind::LIST) {
@@ -1339,6 +1359,48 @@ private:
       // the Generic call needs a factory. We can't provide it in toString
       bool hasDo =!isGeneric;
       hasGet=!isGeneric;
+
+      // lists of structs can be iterated with a single flyweight element
+      kj::StringTree readerFlyweight;
+      kj::StringTree builderFlyweight;
+      auto listElementType = field.getType().asList().getElementType();
+      if (!isGeneric && listElementType.isStruct()) {
+        readerFlyweight = kj::strTree(
+            spaces(indent), "  public final void forEach", titleCase, "Flyweight(java.util.function.Consumer<? super ",
+            typeName(listElementType, kj::str("Reader")), "> action) {\n",
+            spaces(indent), "    get", titleCase, "().forEachFlyweight(action);\n",
+            spaces(indent), "  }\n");
+        builderFlyweight = kj::strTree(
+            spaces(indent), "  public final void forEach", titleCase, "Flyweight(java.util.function.Consumer<? super ",
+            typeName(listElementType, kj::str("Builder")), "> action) {\n",
+            spaces(indent), "    get", titleCase, "().forEachFlyweight(action);\n",
+            spaces(indent), "  }\n");
+      }
+
+      // lists of numbers can be initialized from an array in one bulk copy
+      kj::StringTree initFromArray;
+      switch (listElementType.which()) {
+        case schema::Type::BOOL:
+        case schema::Type::INT8:
+        case schema::Type::INT16:
+        case schema::Type::INT32:
+        case schema::Type::INT64:
+        case schema::Type::UINT8:
+        case schema::Type::UINT16:
+        case schema::Type::UINT32:
+        case schema::Type::UINT64:
+        case schema::Type::FLOAT32:
+        case schema::Type::FLOAT64:
+          initFromArray = kj::strTree(
+              spaces(indent), "  public final ", builderType, " init", titleCase, "(", typeName(listElementType), "[] values) {\n",
+              spaces(indent), "    final ", builderType, " list = init", titleCase, "(values.length);\n",
+              spaces(indent), "    list.setAll(values);\n",
+              spaces(indent), "    return list;\n",
+              spaces(indent), "  }\n");
+          break;
+        default:
+          break;
+      }
       return FieldText {
 // list reader
         kj::strTree(
@@ -1368,7 +1430,8 @@ private:
                " get", titleCase, "() {\n",
                spaces(indent), "    return _getPointerField(", listFactory, ", ", offset, ", ", defaultParams, ");\n",
                spaces(indent), "  }\n",
-               createDoIfRequired(indent,titleCase,readerType,isExists,hasExists)
+               createDoIfRequired(indent,titleCase,readerType,isExists,hasExists),
+               kj::mv(readerFlyweight)
              )
             ),
             "\n"),
@@ -1401,7 +1464,8 @@ private:
                " get", titleCase, "() {\n",
                spaces(indent), "    return _getPointerField(", listFactory, ", ", offset, ", ", defaultParams, ");\n",
                spaces(indent), "  }\n",
-               createDoIfRequired(indent,titleCase,builderType,isExists,hasExists)
+               createDoIfRequired(indent,titleCase,builderType,isExists,hasExists),
+               kj::mv(builderFlyweight)
                )
               ),
 
@@ -1450,8 +1514,11 @@ private:
                spaces(indent), "  public final ", builderType, " init", titleCase, "(int size) {\n",
                unionDiscrim.set,
                spaces(indent), "    return _initPointerField(", listFactory, ", ", offset, ", size);\n",
-               spaces(indent), "  }\n")
-              )
+               spaces(indent), "  }\n",
+               kj::mv(initFromArray))
+              ),
+
+            createOrphanMethods(indent, titleCase, offset, unionDiscrim)
           ),
          createToStringGroup(indent,titleCase,hasGet,hasDo)
       };
@@ -1560,25 +1627,17 @@ private:
         spaces(indent), "    }\n",
               // add cache if not generic
               ((factoryTypeParams.size()==0)?kj::strTree(
-        spaces(indent), "    public final static ThreadLocal<org.capnproto.StructReaderCache<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.StructReaderCache<Reader>>() {\n",
-        spaces(indent), "       @Override\n",
-        spaces(indent), "       protected org.capnproto.StructReaderCache<Reader> initialValue() {\n",
-        spaces(indent), "          return new org.capnproto.StructReaderCache<>(Reader::new);\n",
-        spaces(indent), "       }\n",
-        spaces(indent), "    };\n\n",
-        spaces(indent), "    public final static ThreadLocal<org.capnproto.StructBuilderCache<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.StructBuilderCache<Builder>>() {\n",
-        spaces(indent), "       @Override\n",
-        spaces(indent), "       protected org.capnproto.StructBuilderCache<Builder> initialValue() {\n",
-        spaces(indent), "          return new org.capnproto.StructBuilderCache<>(Builder::new);\n",
-        spaces(indent), "       }\n",
-        spaces(indent), "    };\n\n"
+        spaces(indent), "    public final static org.capnproto.RecyclerProvider<org.capnproto.StructReaderCache<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(\n",
+        spaces(indent), "          (capacity, shared) -> new org.capnproto.StructReaderCache<>(Reader::new, capacity, shared));\n\n",
+        spaces(indent), "    public final static org.capnproto.RecyclerProvider<org.capnproto.StructBuilderCache<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(\n",
+        spaces(indent), "          (capacity, shared) -> new org.capnproto.StructBuilderCache<>(Builder::new, capacity, shared));\n\n"
               ).flatten():kj::str("")),
 
         spaces(indent),        "    public final Reader", readerTypeParams, " constructReader(org.capnproto.SegmentDataContainer segment, int data,",
         "int pointers, int dataSize, short pointerCount, int nestingLimit) {\n",
                 ((factoryTypeParams.size()==0)?
                     // use cache
-        kj::strTree(spaces(indent), "      return READER_RECYCLER.get().getOrCreate().init(segment,data,pointers,dataSize,pointerCount,nestingLimit);\n").flatten():
+        kj::strTree(spaces(indent), "      return READER_RECYCLER.get(segment).getOrCreate().init(segment,data,pointers,dataSize,pointerCount,nestingLimit);\n").flatten():
                     // always create new object
                     kj::strTree(spaces(indent), "      return new Reader",readerTypeParams, "(",
         KJ_MAP(p, typeParamVec) {
@@ -1589,7 +1648,7 @@ private:
         spaces(indent), "    public final Builder", builderTypeParams, " constructBuilder(org.capnproto.GenericSegmentBuilder segment, int data, int pointers, int dataSize, short pointerCount) {\n",
                 ((factoryTypeParams.size()==0)?
                     // use cache
-        kj::strTree(spaces(indent), "      return BUILDER_RECYCLER.get().getOrCreate().init(segment,data,pointers,dataSize,pointerCount);\n").flatten():
+        kj::strTree(spaces(indent), "      return BUILDER_RECYCLER.get(segment).getOrCreate().init(segment,data,pointers,dataSize,pointerCount);\n").flatten():
                     // always create new object
         kj::strTree(spaces(indent), "      return new Builder", builderTypeParams, "(",        KJ_MAP(p, typeParamVec) {
           return kj::strTree(p, "_Factory, ");
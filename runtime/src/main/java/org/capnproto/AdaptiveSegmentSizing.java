@@ -0,0 +1,187 @@
+package org.capnproto;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.capnproto.DefaultAllocator.ByteBufferAllocationStyle;
+
+/**
+ * Learns the size of the first segment per root type.
+ * <p>
+ * The final {@link MessageBuilder#getSerializedSize()} of each message is
+ * recorded in a histogram of its root {@link StructFactory}. New messages of
+ * the same root type get a first segment, that is large enough for the given
+ * percentile of the recorded sizes. So most messages fit in one segment and
+ * need no far pointers, without allocating the worst case for every message.
+ * <p>
+ * The histogram decays: every {@code halfLife} recorded messages all counts
+ * are halved, so the sizing follows changes of the message sizes.
+ * <p>
+ * An instance is thread safe and is usually shared by all MessageBuilders of
+ * an application.
+ *
+ * <pre>
+ * MessageBuilder message = sizing.newMessageBuilder(Car.factory);
+ * message.initRoot(Car.factory) ...
+ * message.write(channel);
+ * sizing.record(Car.factory, message);
+ * </pre>
+ */
+public final class AdaptiveSegmentSizing {
+
+    public static final double DEFAULT_PERCENTILE = 0.95;
+    public static final int DEFAULT_HALF_LIFE = 1_024;
+    // sizes up to 2^31 bytes, each power of two split into 4 buckets
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 32 * SUB_BUCKETS;
+
+    private final ConcurrentMap<StructFactory<?, ?>, SizeHistogram> histograms = new ConcurrentHashMap<>();
+    private final double percentile;
+    private final int halfLife;
+    private final ByteBufferAllocationStyle allocationStyle;
+
+    /**
+     * Creates a sizing for the {@link #DEFAULT_PERCENTILE}.
+     */
+    public AdaptiveSegmentSizing() {
+        this(DEFAULT_PERCENTILE, DEFAULT_HALF_LIFE, ByteBufferAllocationStyle.REGULAR);
+    }
+
+    /**
+     * Creates a sizing.
+     *
+     * @param percentile      the part of the messages, that should fit into
+     *                        the first segment. Between 0 and 1.
+     * @param halfLife        the number of recorded messages after which the
+     *                        existing counts are halved.
+     * @param allocationStyle the kind of memory of the allocated segments.
+     */
+    public AdaptiveSegmentSizing(double percentile, int halfLife, ByteBufferAllocationStyle allocationStyle) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]: " + percentile);
+        }
+        if (halfLife <= 0) {
+            throw new IllegalArgumentException("halfLife must be positive: " + halfLife);
+        }
+        this.percentile = percentile;
+        this.halfLife = halfLife;
+        this.allocationStyle = allocationStyle;
+    }
+
+    /**
+     * Retrieve the currently suggested size of the first segment.
+     *
+     * @param root the factory of the root struct.
+     *
+     * @return the size in bytes, a multiple of the word size.
+     */
+    public int getFirstSegmentBytes(StructFactory<?, ?> root) {
+        final SizeHistogram histogram = histograms.get(root);
+        if (histogram == null) {
+            return BuilderArena.SUGGESTED_FIRST_SEGMENT_WORDS * Constants.BYTES_PER_WORD;
+        }
+        return histogram.target;
+    }
+
+    /**
+     * Creates an Allocator for one message with the given root type. The first
+     * segment has the learned size, further segments grow heuristically.
+     *
+     * @param root the factory of the root struct.
+     *
+     * @return a new Allocator.
+     */
+    public Allocator newAllocator(StructFactory<?, ?> root) {
+        final DefaultAllocator allocator = new DefaultAllocator(BuilderArena.AllocationStrategy.GROW_HEURISTICALLY, allocationStyle);
+        allocator.setNextAllocationSizeBytes(getFirstSegmentBytes(root));
+        return allocator;
+    }
+
+    /**
+     * Creates a MessageBuilder for a message with the given root type.
+     *
+     * @param root the factory of the root struct.
+     *
+     * @return a new MessageBuilder.
+     */
+    public MessageBuilder newMessageBuilder(StructFactory<?, ?> root) {
+        return new MessageBuilder(newAllocator(root));
+    }
+
+    /**
+     * Records the size of a completed message.
+     *
+     * @param root    the factory of the root struct.
+     * @param message the message.
+     */
+    public void record(StructFactory<?, ?> root, MessageBuilder message) {
+        record(root, message.getSerializedSize());
+    }
+
+    /**
+     * Records the size of a completed message.
+     *
+     * @param root            the factory of the root struct.
+     * @param serializedBytes the size of the message.
+     */
+    public void record(StructFactory<?, ?> root, long serializedBytes) {
+        histograms.computeIfAbsent(root, k -> new SizeHistogram()).record(serializedBytes);
+    }
+
+    // the bucket of a size. Buckets are log linear: 4 per power of two.
+    static int bucket(long bytes) {
+        if (bytes < SUB_BUCKETS) {
+            return (int) Math.max(bytes, 0);
+        }
+        final long clamped = Math.min(bytes, Integer.MAX_VALUE);
+        final int exponent = 63 - Long.numberOfLeadingZeros(clamped);
+        final int sub = (int) (clamped >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // the largest size in the bucket
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private final class SizeHistogram {
+
+        private final double[] counts = new double[BUCKETS];
+        private double total;
+        private int sinceDecay;
+        private volatile int target = BuilderArena.SUGGESTED_FIRST_SEGMENT_WORDS * Constants.BYTES_PER_WORD;
+
+        synchronized void record(long bytes) {
+            counts[bucket(bytes)]++;
+            total++;
+            if (++sinceDecay >= halfLife) {
+                sinceDecay = 0;
+                total /= 2;
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] /= 2;
+                }
+            }
+            target = computeTarget();
+        }
+
+        private int computeTarget() {
+            final double wanted = total * percentile;
+            double sum = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                sum += counts[i];
+                if (sum >= wanted) {
+                    final long bytes = bucketUpperBound(i);
+                    // the message size includes the frame header, so this is on the safe side
+                    final long words = Math.max(1, (bytes + Constants.BYTES_PER_WORD - 1) / Constants.BYTES_PER_WORD);
+                    return (int) Math.min(words * Constants.BYTES_PER_WORD, Integer.MAX_VALUE & ~(Constants.BYTES_PER_WORD - 1));
+                }
+            }
+            return target;
+        }
+    }
+}
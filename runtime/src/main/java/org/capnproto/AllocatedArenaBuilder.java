@@ -39,6 +39,16 @@ public class AllocatedArenaBuilder {
         this(AllocatedArenaBuilder::makeDataView);
     }
 
+    /**
+     * Creates a builder that reads the segments into heap byte arrays, see
+     * {@link ByteArrayDataView}.
+     *
+     * @return the new builder.
+     */
+    public static AllocatedArenaBuilder byteArrayBacked() {
+        return new AllocatedArenaBuilder(ByteArrayDataView::allocateLittleEndian);
+    }
+
     private SegmentCountValidator segmentCountValidator = AllocatedArenaBuilder::segmentCountValidator;
     private SegmentReader reader = this::createInternalDataViews;
     private Function<List<DataView>, AllocatedArena> arenaFactory = SimpleReaderArena::new;
@@ -164,7 +174,6 @@ public class AllocatedArenaBuilder {
         int totalWords = segment0Size;
         segmentCountValidator.validate(segmentCount);
         // in words
-        List<Integer> moreSizes = new ArrayList<>();
         segmentSizeHeader.rewindWriterPosition();
         final int segmentSizeHeaderSize = 4 * (segmentCount & ~1);
         segmentSizeHeader.limit(segmentSizeHeaderSize);
@@ -173,9 +182,7 @@ public class AllocatedArenaBuilder {
             throw new IOException("Incomplete data: EOF after " + read + Constants.BYTES_PER_WORD);
         }
         for (int segmentHeaderIndex = 0; segmentHeaderIndex < segmentCount - 1; ++segmentHeaderIndex) {
-            int size = segmentSizeHeader.getInt(segmentHeaderIndex * 4);
-            moreSizes.add(size);
-            totalWords += size;
+            totalWords += segmentSizeHeader.getInt(segmentHeaderIndex * 4);
         }
 
         DataView allSegments = dataViewFactory.apply(totalWords * Constants.BYTES_PER_WORD);
@@ -190,11 +197,13 @@ public class AllocatedArenaBuilder {
         transferList.add(slice);
         int offset = segment0Size;
         for (int ii = 1; ii < segmentCount; ++ii) {
+            // the sizes are still in the header
+            final int size = segmentSizeHeader.getInt((ii - 1) * 4);
             allSegments.readerPosition(offset * Constants.BYTES_PER_WORD);
             final DataView slice1 = allSegments.slice();
-            slice1.limit(moreSizes.get(ii - 1) * Constants.BYTES_PER_WORD);
+            slice1.limit(size * Constants.BYTES_PER_WORD);
             transferList.add(slice1);
-            offset += moreSizes.get(ii - 1);
+            offset += size;
         }
         return transferList;
     }
@@ -246,6 +255,65 @@ public class AllocatedArenaBuilder {
         return result;
     }
 
+    /**
+     * Creates an AllocatedArena by unpacking a packed message, that is
+     * completely in memory. The segments are unpacked directly into a DataView
+     * of the ByteBufferFactory, without the intermediate buffer of a
+     * {@link PackedInputStream}. The given DataView will be LittleEndian and
+     * positioned after the packed message on return.
+     *
+     * @param packed the packed message.
+     *
+     * @return an AllocatedArena or null if packed was empty.
+     *
+     * @throws IOException If the SegmentCountValidator does or the message is
+     *                     truncated.
+     */
+    public AllocatedArena buildPacked(DataView packed) throws IOException {
+        if (packed.remainingReadableBytes() == 0) {
+            return null;
+        }
+        packed.order(ByteOrder.LITTLE_ENDIAN);
+        final int end = packed.limit();
+        int index = PackedInputStream.unpack(packed, packed.readerPosition(), end, firstWord, 0, Constants.BYTES_PER_WORD);
+
+        final int segmentCount = 1 + firstWord.getInt(0);
+        segmentCountValidator.validate(segmentCount);
+        if (segmentCount <= 0 || segmentCount > Constants.MAX_SEGMENTS) {
+            throw new IOException("Invalid segment count " + segmentCount);
+        }
+        final int segmentSizeHeaderSize = INT_SIZE * (segmentCount & ~1);
+        segmentSizeHeader.rewindWriterPosition();
+        segmentSizeHeader.limit(segmentSizeHeaderSize);
+        index = PackedInputStream.unpack(packed, index, end, segmentSizeHeader, 0, segmentSizeHeaderSize);
+
+        long totalWords = firstWord.getInt(INT_SIZE) & 0xffffffffL;
+        for (int ii = 1; ii < segmentCount; ++ii) {
+            totalWords += segmentSizeHeader.getInt((ii - 1) * INT_SIZE) & 0xffffffffL;
+        }
+        if (totalWords * Constants.BYTES_PER_WORD > Integer.MAX_VALUE) {
+            throw new IOException("Message of " + totalWords + " words is too large");
+        }
+        final int totalBytes = (int) totalWords * Constants.BYTES_PER_WORD;
+        final DataView allSegments = dataViewFactory.apply(totalBytes);
+        index = PackedInputStream.unpack(packed, index, end, allSegments, 0, totalBytes);
+        packed.readerPosition(index);
+
+        transferList.clear();
+        int offset = 0;
+        for (int ii = 0; ii < segmentCount; ++ii) {
+            final int size = (ii == 0 ? firstWord.getInt(INT_SIZE) : segmentSizeHeader.getInt((ii - 1) * INT_SIZE)) * Constants.BYTES_PER_WORD;
+            allSegments.readerPosition(offset);
+            final DataView slice = allSegments.slice();
+            slice.limit(size);
+            transferList.add(slice);
+            offset += size;
+        }
+        final AllocatedArena result = arenaFactory.apply(transferList);
+        transferList.clear();
+        return result;
+    }
+
     /**
      * Reads as many bytes as possible into the
      *
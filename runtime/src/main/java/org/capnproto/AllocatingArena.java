@@ -58,4 +58,11 @@ public interface AllocatingArena extends Arena {
      * @return the segments.
      */
     List<? extends GenericSegmentBuilder> getSegments();
+
+    /**
+     * Returns all segments to their allocator. The arena is empty afterwards.
+     * The default implementation does nothing.
+     */
+    default void release() {
+    }
 }
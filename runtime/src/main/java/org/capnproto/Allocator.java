@@ -10,4 +10,16 @@ public interface Allocator {
      * set to zero.
      */
     public DataView allocateSegment(int minimumSize);
+
+    /**
+     * Returns a segment, that was allocated by this Allocator and is no longer
+     * used by its message. Only the first `usedBytes` bytes of the segment
+     * might be non zero. The default implementation leaves the segment to the
+     * garbage collector.
+     *
+     * @param segment   the segment.
+     * @param usedBytes the number of bytes written by the message.
+     */
+    public default void releaseSegment(DataView segment, int usedBytes) {
+    }
 }
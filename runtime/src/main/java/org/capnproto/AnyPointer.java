@@ -97,6 +97,24 @@ public final class AnyPointer {
             WireHelpers.zeroObject(this.segment, this.pointer);
             this.segment.getBuffer().putLong(this.pointer * Constants.BYTES_PER_WORD, 0L);
         }
+
+        /**
+         * Detaches the object from this pointer, which is null afterwards.
+         *
+         * @return the detached object.
+         */
+        public final Orphan disown() {
+            return Orphan.disown(this.segment, this.pointer);
+        }
+
+        /**
+         * Attaches the object of the orphan to this pointer.
+         *
+         * @param orphan the orphan.
+         */
+        public final void adopt(Orphan orphan) {
+            orphan.adoptInto(this.segment, this.pointer);
+        }
     }
 
 }
@@ -31,4 +31,14 @@ public interface Arena {
     public SegmentDataContainer tryGetSegment(int segmentId);
 
     public void checkReadLimit(int numBytes);
+
+    /**
+     * Retrieve the pools of this message, used by
+     * {@link RecyclingStrategy#MESSAGE}.
+     *
+     * @return the pools, or null if the arena has none.
+     */
+    default RecyclerScope getRecyclerScope() {
+        return null;
+    }
 }
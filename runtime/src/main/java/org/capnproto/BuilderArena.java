@@ -37,6 +37,12 @@ public final class BuilderArena implements AllocatingArena {
 
     public final ArrayList<GenericSegmentBuilder> segments;
     private final Allocator allocator;
+    // the first segment, if it was not allocated by the allocator
+    private GenericSegmentBuilder externalFirstSegment;
+    // cleared segments of previous messages, used before the allocator is asked
+    private final ArrayList<GenericSegmentBuilder> spareSegments = new ArrayList<>();
+    private final LazyRecyclerScope recyclerScope = new LazyRecyclerScope();
+    private int nextSpare;
 
     /**
      * Constructs a BuilderArena with a default Allocator, that acts according
@@ -75,6 +81,7 @@ public final class BuilderArena implements AllocatingArena {
         newSegment.buffer.order(ByteOrder.LITTLE_ENDIAN);
         newSegment.id = 0;
         this.segments.add(newSegment);
+        this.externalFirstSegment = newSegment;
 
         this.allocator = allocator;
     }
@@ -93,6 +100,11 @@ public final class BuilderArena implements AllocatingArena {
     public final void checkReadLimit(int numBytes) {
     }
 
+    @Override
+    public RecyclerScope getRecyclerScope() {
+        return recyclerScope.get();
+    }
+
     public static class AllocateResult {
 
         public final GenericSegmentBuilder segment;
@@ -117,6 +129,19 @@ public final class BuilderArena implements AllocatingArena {
                 return new AllocateResult(this.segments.get(len - 1), result);
             }
         }
+        while (nextSpare < this.spareSegments.size()) {
+            GenericSegmentBuilder spare = this.spareSegments.get(nextSpare++);
+            int result = spare.allocate(amount);
+            if (result != SegmentBuilder.FAILED_ALLOCATION) {
+                spare.setId(len);
+                this.segments.add(spare);
+                return new AllocateResult(spare, result);
+            }
+            // too small for this message
+            if (spare != externalFirstSegment) {
+                this.allocator.releaseSegment(spare.getBuffer(), 0);
+            }
+        }
         SegmentBuilder newSegment = new SegmentBuilder(this.allocator.allocateSegment(amount * Constants.BYTES_PER_WORD), this);
 
         newSegment.getBuffer().order(ByteOrder.LITTLE_ENDIAN);
@@ -126,6 +151,43 @@ public final class BuilderArena implements AllocatingArena {
         return new AllocateResult(newSegment, newSegment.allocate(amount));
     }
 
+    /**
+     * Zeroes the used part of all segments and keeps them for the next
+     * message. New segments are only allocated if the next message needs more
+     * space than the previous messages. The arena is empty afterwards.
+     */
+    public void reset() {
+        // the spare segments not used by the last message go behind the used ones
+        for (int ii = nextSpare; ii < spareSegments.size(); ++ii) {
+            segments.add(spareSegments.get(ii));
+        }
+        spareSegments.clear();
+        for (int ii = 0; ii < segments.size(); ++ii) {
+            GenericSegmentBuilder segment = segments.get(ii);
+            segment.clear();
+            spareSegments.add(segment);
+        }
+        segments.clear();
+        nextSpare = 0;
+    }
+
+    /**
+     * Returns all segments, that were allocated by the {@link Allocator}, to
+     * the allocator. A first segment given to the constructor is kept and
+     * cleared instead. The arena can be used to build a new message
+     * afterwards.
+     */
+    @Override
+    public void release() {
+        reset();
+        for (int ii = spareSegments.size() - 1; ii >= 0; --ii) {
+            if (spareSegments.get(ii) != externalFirstSegment) {
+                // reset already zeroed the segment
+                allocator.releaseSegment(spareSegments.remove(ii).getBuffer(), 0);
+            }
+        }
+    }
+
     @Override
     public final DataView[] getSegmentsForOutput() {
         DataView[] result = new DataView[this.segments.size()];
@@ -0,0 +1,707 @@
+package org.capnproto;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A DataView wrapping a heap byte array.
+ * <p>
+ * The index based methods read and write the array directly with
+ * {@code sun.misc.Unsafe}, after a single bounds check against the limit. This
+ * avoids the position, limit and order bookkeeping of a heap {@link ByteBuffer}
+ * on the hot path of the struct and list accessors. Unsafe is looked up
+ * reflectively and checked once. If it is not available or does not work as
+ * expected, the values are assembled byte by byte.
+ */
+public class ByteArrayDataView implements DataView {
+
+    private static final boolean NATIVE_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    // bound to the Unsafe instance, static final so that the JIT inlines them
+    private static final MethodHandle GET_SHORT;
+    private static final MethodHandle GET_INT;
+    private static final MethodHandle GET_LONG;
+    private static final MethodHandle PUT_SHORT;
+    private static final MethodHandle PUT_INT;
+    private static final MethodHandle PUT_LONG;
+    private static final MethodHandle COPY_MEMORY;
+    private static final boolean UNSAFE;
+    private static final long ARRAY_BASE_OFFSET;
+    private static final long SHORT_ARRAY_BASE_OFFSET;
+    private static final long INT_ARRAY_BASE_OFFSET;
+    private static final long LONG_ARRAY_BASE_OFFSET;
+    private static final long FLOAT_ARRAY_BASE_OFFSET;
+    private static final long DOUBLE_ARRAY_BASE_OFFSET;
+
+    static {
+        MethodHandle getShort = null;
+        MethodHandle getInt = null;
+        MethodHandle getLong = null;
+        MethodHandle putShort = null;
+        MethodHandle putInt = null;
+        MethodHandle putLong = null;
+        MethodHandle copyMemory = null;
+        final long[] baseOffsets = new long[6];
+        boolean available;
+        try {
+            final Class<?> type = Class.forName("sun.misc.Unsafe");
+            final Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            final Object unsafe = field.get(null);
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            getShort = lookup.findVirtual(type, "getShort", MethodType.methodType(short.class, Object.class, long.class)).bindTo(unsafe);
+            getInt = lookup.findVirtual(type, "getInt", MethodType.methodType(int.class, Object.class, long.class)).bindTo(unsafe);
+            getLong = lookup.findVirtual(type, "getLong", MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+            putShort = lookup.findVirtual(type, "putShort", MethodType.methodType(void.class, Object.class, long.class, short.class)).bindTo(unsafe);
+            putInt = lookup.findVirtual(type, "putInt", MethodType.methodType(void.class, Object.class, long.class, int.class)).bindTo(unsafe);
+            putLong = lookup.findVirtual(type, "putLong", MethodType.methodType(void.class, Object.class, long.class, long.class)).bindTo(unsafe);
+            copyMemory = lookup.findVirtual(type, "copyMemory", MethodType.methodType(void.class, Object.class, long.class, Object.class, long.class, long.class)).bindTo(unsafe);
+            final MethodHandle arrayBaseOffset = lookup.findVirtual(type, "arrayBaseOffset", MethodType.methodType(int.class, Class.class)).bindTo(unsafe);
+            final Class<?>[] arrayTypes = {byte[].class, short[].class, int[].class, long[].class, float[].class, double[].class};
+            for (int i = 0; i < arrayTypes.length; i++) {
+                baseOffsets[i] = (int) arrayBaseOffset.invokeExact(arrayTypes[i]);
+            }
+            // check that the accesses behave as expected, before relying on them
+            final byte[] probe = new byte[8];
+            putLong.invokeExact((Object) probe, baseOffsets[0], 0x0102030405060708L);
+            available = probe[0] == (NATIVE_BIG_ENDIAN ? 1 : 8)
+                    && (long) getLong.invokeExact((Object) probe, baseOffsets[0]) == 0x0102030405060708L;
+        } catch (Throwable e) {
+            // we fall back to byte wise access
+            available = false;
+        }
+        GET_SHORT = getShort;
+        GET_INT = getInt;
+        GET_LONG = getLong;
+        PUT_SHORT = putShort;
+        PUT_INT = putInt;
+        PUT_LONG = putLong;
+        COPY_MEMORY = copyMemory;
+        UNSAFE = available;
+        ARRAY_BASE_OFFSET = baseOffsets[0];
+        SHORT_ARRAY_BASE_OFFSET = baseOffsets[1];
+        INT_ARRAY_BASE_OFFSET = baseOffsets[2];
+        LONG_ARRAY_BASE_OFFSET = baseOffsets[3];
+        FLOAT_ARRAY_BASE_OFFSET = baseOffsets[4];
+        DOUBLE_ARRAY_BASE_OFFSET = baseOffsets[5];
+    }
+
+    public static ByteArrayDataView allocate(int i) {
+        return new ByteArrayDataView(new byte[i]);
+    }
+
+    public static ByteArrayDataView wrap(byte[] bytes) {
+        return new ByteArrayDataView(bytes);
+    }
+
+    /**
+     * Creates a little endian DataView of the given size. This can be used as
+     * factory for the {@link AllocatedArenaBuilder}.
+     *
+     * @param bytes the size in bytes.
+     *
+     * @return the new DataView.
+     */
+    public static DataView allocateLittleEndian(int bytes) {
+        ByteArrayDataView result = allocate(bytes);
+        result.order(ByteOrder.LITTLE_ENDIAN);
+        return result;
+    }
+
+    private static RuntimeException unsafeFailure(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+
+    private static short unsafeGetShort(Object array, long address) {
+        try {
+            return (short) GET_SHORT.invokeExact(array, address);
+        } catch (Throwable e) {
+            throw unsafeFailure(e);
+        }
+    }
+
+    private static int unsafeGetInt(Object array, long address) {
+        try {
+            return (int) GET_INT.invokeExact(array, address);
+        } catch (Throwable e) {
+            throw unsafeFailure(e);
+        }
+    }
+
+    private static long unsafeGetLong(Object array, long address) {
+        try {
+            return (long) GET_LONG.invokeExact(array, address);
+        } catch (Throwable e) {
+            throw unsafeFailure(e);
+        }
+    }
+
+    private static void unsafePutShort(Object array, long address, short value) {
+        try {
+            PUT_SHORT.invokeExact(array, address, value);
+        } catch (Throwable e) {
+            throw unsafeFailure(e);
+        }
+    }
+
+    private static void unsafePutInt(Object array, long address, int value) {
+        try {
+            PUT_INT.invokeExact(array, address, value);
+        } catch (Throwable e) {
+            throw unsafeFailure(e);
+        }
+    }
+
+    private static void unsafePutLong(Object array, long address, long value) {
+        try {
+            PUT_LONG.invokeExact(array, address, value);
+        } catch (Throwable e) {
+            throw unsafeFailure(e);
+        }
+    }
+
+    private static void unsafeCopyMemory(Object src, long srcAddress, Object dst, long dstAddress, long bytes) {
+        try {
+            COPY_MEMORY.invokeExact(src, srcAddress, dst, dstAddress, bytes);
+        } catch (Throwable e) {
+            throw unsafeFailure(e);
+        }
+    }
+
+    private final byte[] array;
+    // the array index of index 0 of this view
+    private final int base;
+    // the Unsafe address of index 0 of this view
+    private final long address;
+    private final int capacity;
+    private int position;
+    private int limit;
+    private ByteOrder order = ByteOrder.BIG_ENDIAN;
+    private boolean bigEndian = true;
+
+    public ByteArrayDataView(byte[] array) {
+        this(requireNonNull(array, "Parameter array can not be null."), 0, array.length);
+    }
+
+    private ByteArrayDataView(byte[] array, int base, int capacity) {
+        this.array = array;
+        this.base = base;
+        this.address = ARRAY_BASE_OFFSET + base;
+        this.capacity = capacity;
+        this.limit = capacity;
+    }
+
+    /**
+     * Retrieve the wrapped array. The data of this view starts at
+     * {@link #arrayOffset()}.
+     *
+     * @return the array.
+     */
+    public byte[] array() {
+        return array;
+    }
+
+    /**
+     * Retrieve the index in the wrapped array of index 0 of this view.
+     *
+     * @return the offset.
+     */
+    public int arrayOffset() {
+        return base;
+    }
+
+    private int checkIndex(int index, int size) {
+        if (index < 0 || size > limit - index) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + size + " limit " + limit);
+        }
+        return index;
+    }
+
+    private int nextGetIndex(int size) {
+        if (limit - position < size) {
+            throw new BufferUnderflowException();
+        }
+        int result = base + position;
+        position += size;
+        return result;
+    }
+
+    private int nextPutIndex(int size) {
+        if (limit - position < size) {
+            throw new BufferOverflowException();
+        }
+        int result = base + position;
+        position += size;
+        return result;
+    }
+
+    private short readShort(int index) {
+        if (UNSAFE) {
+            short value = unsafeGetShort(array, address + index);
+            return bigEndian == NATIVE_BIG_ENDIAN ? value : Short.reverseBytes(value);
+        }
+        int i = base + index;
+        if (bigEndian) {
+            return (short) ((array[i] << 8) | (array[i + 1] & 0xff));
+        }
+        return (short) ((array[i] & 0xff) | (array[i + 1] << 8));
+    }
+
+    private int readInt(int index) {
+        if (UNSAFE) {
+            int value = unsafeGetInt(array, address + index);
+            return bigEndian == NATIVE_BIG_ENDIAN ? value : Integer.reverseBytes(value);
+        }
+        int value = 0;
+        for (int i = base + index, end = i + 4; i < end; i++) {
+            value = (value << 8) | (array[i] & 0xff);
+        }
+        return bigEndian ? value : Integer.reverseBytes(value);
+    }
+
+    private long readLong(int index) {
+        if (UNSAFE) {
+            long value = unsafeGetLong(array, address + index);
+            return bigEndian == NATIVE_BIG_ENDIAN ? value : Long.reverseBytes(value);
+        }
+        long value = 0;
+        for (int i = base + index, end = i + 8; i < end; i++) {
+            value = (value << 8) | (array[i] & 0xff);
+        }
+        return bigEndian ? value : Long.reverseBytes(value);
+    }
+
+    private void writeShort(int index, short value) {
+        if (UNSAFE) {
+            unsafePutShort(array, address + index, bigEndian == NATIVE_BIG_ENDIAN ? value : Short.reverseBytes(value));
+            return;
+        }
+        int i = base + index;
+        if (bigEndian) {
+            array[i] = (byte) (value >> 8);
+            array[i + 1] = (byte) value;
+        } else {
+            array[i] = (byte) value;
+            array[i + 1] = (byte) (value >> 8);
+        }
+    }
+
+    private void writeInt(int index, int value) {
+        if (UNSAFE) {
+            unsafePutInt(array, address + index, bigEndian == NATIVE_BIG_ENDIAN ? value : Integer.reverseBytes(value));
+            return;
+        }
+        int v = bigEndian ? value : Integer.reverseBytes(value);
+        for (int i = base + index + 3; i >= base + index; i--) {
+            array[i] = (byte) v;
+            v >>= 8;
+        }
+    }
+
+    private void writeLong(int index, long value) {
+        if (UNSAFE) {
+            unsafePutLong(array, address + index, bigEndian == NATIVE_BIG_ENDIAN ? value : Long.reverseBytes(value));
+            return;
+        }
+        long v = bigEndian ? value : Long.reverseBytes(value);
+        for (int i = base + index + 7; i >= base + index; i--) {
+            array[i] = (byte) v;
+            v >>= 8;
+        }
+    }
+
+    @Override
+    public byte get(int index) {
+        return array[base + checkIndex(index, 1)];
+    }
+
+    @Override
+    public short getShort(int index) {
+        return readShort(checkIndex(index, 2));
+    }
+
+    @Override
+    public int getInt(int index) {
+        return readInt(checkIndex(index, 4));
+    }
+
+    @Override
+    public long getLong(int index) {
+        return readLong(checkIndex(index, 8));
+    }
+
+    @Override
+    public float getFloat(int index) {
+        return Float.intBitsToFloat(readInt(checkIndex(index, 4)));
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(readLong(checkIndex(index, 8)));
+    }
+
+    @Override
+    public void put(int index, byte value) {
+        array[base + checkIndex(index, 1)] = value;
+    }
+
+    @Override
+    public void putShort(int index, short value) {
+        writeShort(checkIndex(index, 2), value);
+    }
+
+    @Override
+    public void putInt(int index, int value) {
+        writeInt(checkIndex(index, 4), value);
+    }
+
+    @Override
+    public void putLong(int index, long value) {
+        writeLong(checkIndex(index, 8), value);
+    }
+
+    @Override
+    public void putFloat(int index, float value) {
+        writeInt(checkIndex(index, 4), Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public void putDouble(int index, double value) {
+        writeLong(checkIndex(index, 8), Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void put(byte[] bytes, int offset, int length) {
+        System.arraycopy(bytes, offset, array, nextPutIndex(length), length);
+    }
+
+    @Override
+    public void get(int index, byte[] dst, int offset, int length) {
+        System.arraycopy(array, base + checkIndex(index, length), dst, offset, length);
+    }
+
+    /**
+     * Checks the range of the view and of the array of a bulk copy.
+     *
+     * @return true if the values can be copied as they are.
+     */
+    private boolean checkBulk(int index, int elementBytes, int dstLength, int offset, int length) {
+        if (offset < 0 || length < 0 || length > dstLength - offset) {
+            throw new IndexOutOfBoundsException("offset " + offset + " length " + length + " array length " + dstLength);
+        }
+        if (index < 0 || (long) length * elementBytes > limit - index) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + (long) length * elementBytes + " limit " + limit);
+        }
+        return UNSAFE && bigEndian == NATIVE_BIG_ENDIAN;
+    }
+
+    @Override
+    public void getShorts(int index, short[] dst, int offset, int length) {
+        if (checkBulk(index, 2, dst.length, offset, length)) {
+            unsafeCopyMemory(array, address + index, dst, SHORT_ARRAY_BASE_OFFSET + 2L * offset, 2L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = readShort(index + 2 * i);
+            }
+        }
+    }
+
+    @Override
+    public void getInts(int index, int[] dst, int offset, int length) {
+        if (checkBulk(index, 4, dst.length, offset, length)) {
+            unsafeCopyMemory(array, address + index, dst, INT_ARRAY_BASE_OFFSET + 4L * offset, 4L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = readInt(index + 4 * i);
+            }
+        }
+    }
+
+    @Override
+    public void getLongs(int index, long[] dst, int offset, int length) {
+        if (checkBulk(index, 8, dst.length, offset, length)) {
+            unsafeCopyMemory(array, address + index, dst, LONG_ARRAY_BASE_OFFSET + 8L * offset, 8L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = readLong(index + 8 * i);
+            }
+        }
+    }
+
+    @Override
+    public void getFloats(int index, float[] dst, int offset, int length) {
+        if (checkBulk(index, 4, dst.length, offset, length)) {
+            unsafeCopyMemory(array, address + index, dst, FLOAT_ARRAY_BASE_OFFSET + 4L * offset, 4L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = Float.intBitsToFloat(readInt(index + 4 * i));
+            }
+        }
+    }
+
+    @Override
+    public void getDoubles(int index, double[] dst, int offset, int length) {
+        if (checkBulk(index, 8, dst.length, offset, length)) {
+            unsafeCopyMemory(array, address + index, dst, DOUBLE_ARRAY_BASE_OFFSET + 8L * offset, 8L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = Double.longBitsToDouble(readLong(index + 8 * i));
+            }
+        }
+    }
+
+    @Override
+    public void put(int index, byte[] src, int offset, int length) {
+        System.arraycopy(src, offset, array, base + checkIndex(index, length), length);
+    }
+
+    @Override
+    public void putShorts(int index, short[] src, int offset, int length) {
+        if (checkBulk(index, 2, src.length, offset, length)) {
+            unsafeCopyMemory(src, SHORT_ARRAY_BASE_OFFSET + 2L * offset, array, address + index, 2L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                writeShort(index + 2 * i, src[offset + i]);
+            }
+        }
+    }
+
+    @Override
+    public void putInts(int index, int[] src, int offset, int length) {
+        if (checkBulk(index, 4, src.length, offset, length)) {
+            unsafeCopyMemory(src, INT_ARRAY_BASE_OFFSET + 4L * offset, array, address + index, 4L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                writeInt(index + 4 * i, src[offset + i]);
+            }
+        }
+    }
+
+    @Override
+    public void putLongs(int index, long[] src, int offset, int length) {
+        if (checkBulk(index, 8, src.length, offset, length)) {
+            unsafeCopyMemory(src, LONG_ARRAY_BASE_OFFSET + 8L * offset, array, address + index, 8L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                writeLong(index + 8 * i, src[offset + i]);
+            }
+        }
+    }
+
+    @Override
+    public void putFloats(int index, float[] src, int offset, int length) {
+        if (checkBulk(index, 4, src.length, offset, length)) {
+            unsafeCopyMemory(src, FLOAT_ARRAY_BASE_OFFSET + 4L * offset, array, address + index, 4L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                writeInt(index + 4 * i, Float.floatToRawIntBits(src[offset + i]));
+            }
+        }
+    }
+
+    @Override
+    public void putDoubles(int index, double[] src, int offset, int length) {
+        if (checkBulk(index, 8, src.length, offset, length)) {
+            unsafeCopyMemory(src, DOUBLE_ARRAY_BASE_OFFSET + 8L * offset, array, address + index, 8L * length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                writeLong(index + 8 * i, Double.doubleToRawLongBits(src[offset + i]));
+            }
+        }
+    }
+
+    @Override
+    public void writeTo(DataView dst, int dstOffset, int srcOffset, int length) {
+        int srcIndex = base + checkIndex(srcOffset, length);
+        if (dst instanceof ByteArrayDataView) {
+            ByteArrayDataView arrayDst = (ByteArrayDataView) dst;
+            System.arraycopy(array, srcIndex, arrayDst.array, arrayDst.base + arrayDst.checkIndex(dstOffset, length), length);
+        } else if (dst instanceof ByteBufferDataView) {
+            ByteBuffer tmpDst = ((ByteBufferDataView) dst).getBuffer().duplicate();
+            tmpDst.limit(dstOffset + length);
+            tmpDst.position(dstOffset);
+            tmpDst.put(array, srcIndex, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst.put(i + dstOffset, array[srcIndex + i]);
+            }
+        }
+    }
+
+    @Override
+    public void zero(int index, int length) {
+        int from = base + checkIndex(index, length);
+        Arrays.fill(array, from, from + length, (byte) 0);
+    }
+
+    @Override
+    public void put(PositionBasedDataView src) {
+        if (src instanceof ByteArrayDataView) {
+            ByteArrayDataView arraySrc = (ByteArrayDataView) src;
+            int length = arraySrc.remainingReadableBytes();
+            System.arraycopy(arraySrc.array, arraySrc.nextGetIndex(length), array, nextPutIndex(length), length);
+        } else if (src instanceof ByteBufferDataView) {
+            put(((ByteBufferDataView) src).getBuffer());
+        } else {
+            while (src.hasRemainingReadableBytes() && hasRemainingWriteableBytes()) {
+                array[nextPutIndex(1)] = src.getByte();
+            }
+        }
+    }
+
+    @Override
+    public void put(ByteBuffer src) {
+        int length = src.remaining();
+        src.get(array, nextPutIndex(length), length);
+    }
+
+    @Override
+    public void put(byte[] src) {
+        put(src, 0, src.length);
+    }
+
+    @Override
+    public void get(byte[] dst) {
+        System.arraycopy(array, nextGetIndex(dst.length), dst, 0, dst.length);
+    }
+
+    @Override
+    public byte getByte() {
+        return array[nextGetIndex(1)];
+    }
+
+    @Override
+    public int getInt() {
+        return readInt(nextGetIndex(4) - base);
+    }
+
+    @Override
+    public void rewindReaderPosition() {
+        position = 0;
+    }
+
+    @Override
+    public int remainingReadableBytes() {
+        return limit - position;
+    }
+
+    @Override
+    public boolean hasRemainingReadableBytes() {
+        return position < limit;
+    }
+
+    @Override
+    public boolean hasRemainingWriteableBytes() {
+        // no writer index
+        return hasRemainingReadableBytes();
+    }
+
+    @Override
+    public void limit(int limit) {
+        if (limit < 0 || limit > capacity) {
+            throw new IllegalArgumentException("limit " + limit + " capacity " + capacity);
+        }
+        if (position > limit) {
+            position = limit;
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel outputChannel) throws IOException {
+        int written = outputChannel.write(ByteBuffer.wrap(array, base + position, limit - position));
+        if (written > 0) {
+            position += written;
+        }
+    }
+
+    @Override
+    public int readFrom(ReadableByteChannel source) throws IOException {
+        int read = source.read(ByteBuffer.wrap(array, base + position, limit - position));
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int readerPosition() {
+        return position;
+    }
+
+    @Override
+    public void readerPosition(int pos) {
+        if (pos < 0 || pos > limit) {
+            throw new IllegalArgumentException("position " + pos + " limit " + limit);
+        }
+        position = pos;
+    }
+
+    @Override
+    public void writerPosition(int position) {
+        // no writer index
+        readerPosition(position);
+    }
+
+    @Override
+    public void rewindWriterPosition() {
+        // no writer index
+        rewindReaderPosition();
+    }
+
+    @Override
+    public final int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void order(ByteOrder order) {
+        this.order = requireNonNull(order, "Parameter order can not be null.");
+        this.bigEndian = order == ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public DataView copy(int offset, int size) {
+        ByteArrayDataView result = new ByteArrayDataView(Arrays.copyOfRange(array, base + checkIndex(offset, size), base + offset + size));
+        result.order(order);
+        return result;
+    }
+
+    @Override
+    public ByteArrayDataView slice() {
+        ByteArrayDataView result = new ByteArrayDataView(array, base + position, limit - position);
+        result.order(order);
+        return result;
+    }
+
+    @Override
+    public DataView duplicate() {
+        ByteArrayDataView result = new ByteArrayDataView(array, base, capacity);
+        result.limit = limit;
+        result.position = position;
+        result.order(order);
+        return result;
+    }
+}
@@ -5,6 +5,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -65,6 +66,54 @@ public class ByteBufferDataView implements DataView {
         return buffer.get(i);
     }
 
+    @Override
+    public void get(int index, byte[] dst, int offset, int length) {
+        if (index < 0 || length < 0 || length > buffer.limit() - index) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + length + " limit " + buffer.limit());
+        }
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + index, dst, offset, length);
+        } else {
+            // our position must not be touched by concurrent readers
+            final ByteBuffer tmp = buffer.duplicate();
+            tmp.position(index);
+            tmp.get(dst, offset, length);
+        }
+    }
+
+    // a view of the buffer from index on, that can be moved without touching ours
+    private ByteBuffer bulkView(int index) {
+        final ByteBuffer tmp = buffer.duplicate();
+        tmp.order(buffer.order());
+        tmp.position(index);
+        return tmp;
+    }
+
+    @Override
+    public void getShorts(int index, short[] dst, int offset, int length) {
+        bulkView(index).asShortBuffer().get(dst, offset, length);
+    }
+
+    @Override
+    public void getInts(int index, int[] dst, int offset, int length) {
+        bulkView(index).asIntBuffer().get(dst, offset, length);
+    }
+
+    @Override
+    public void getLongs(int index, long[] dst, int offset, int length) {
+        bulkView(index).asLongBuffer().get(dst, offset, length);
+    }
+
+    @Override
+    public void getFloats(int index, float[] dst, int offset, int length) {
+        bulkView(index).asFloatBuffer().get(dst, offset, length);
+    }
+
+    @Override
+    public void getDoubles(int index, double[] dst, int offset, int length) {
+        bulkView(index).asDoubleBuffer().get(dst, offset, length);
+    }
+
     @Override
     public short getShort(int i) {
         return buffer.getShort(i);
@@ -85,6 +134,43 @@ public class ByteBufferDataView implements DataView {
         return buffer.getDouble(i);
     }
 
+    @Override
+    public void put(int index, byte[] src, int offset, int length) {
+        if (buffer.hasArray()) {
+            if (index < 0 || length < 0 || length > buffer.limit() - index) {
+                throw new IndexOutOfBoundsException("index " + index + " size " + length + " limit " + buffer.limit());
+            }
+            System.arraycopy(src, offset, buffer.array(), buffer.arrayOffset() + index, length);
+        } else {
+            bulkView(index).put(src, offset, length);
+        }
+    }
+
+    @Override
+    public void putShorts(int index, short[] src, int offset, int length) {
+        bulkView(index).asShortBuffer().put(src, offset, length);
+    }
+
+    @Override
+    public void putInts(int index, int[] src, int offset, int length) {
+        bulkView(index).asIntBuffer().put(src, offset, length);
+    }
+
+    @Override
+    public void putLongs(int index, long[] src, int offset, int length) {
+        bulkView(index).asLongBuffer().put(src, offset, length);
+    }
+
+    @Override
+    public void putFloats(int index, float[] src, int offset, int length) {
+        bulkView(index).asFloatBuffer().put(src, offset, length);
+    }
+
+    @Override
+    public void putDoubles(int index, double[] src, int offset, int length) {
+        bulkView(index).asDoubleBuffer().put(src, offset, length);
+    }
+
     @Override
     public void put(int position, byte b) {
         buffer.put(position, b);
@@ -139,25 +225,21 @@ public class ByteBufferDataView implements DataView {
 
     @Override
     public void writeTo(DataView dst, int dstOffset, int srcOffset, int length) {
+        // the source is never moved, so concurrent readers of this view are not disturbed
+        final ByteBuffer tmpSrc = buffer.duplicate();
+        tmpSrc.limit(srcOffset + length);
+        tmpSrc.position(srcOffset);
         if (dst instanceof ByteBufferDataView) {
-
-            // we temporary limit our buffer. we have to reset that later
-            int srcLimit = buffer.limit();
-            buffer.position(srcOffset);
-            buffer.limit(srcOffset + length);
-
-            ByteBuffer tmpDst = getDstByteBuffer(dst);
-            // the dst limit is used to define the copy length
-            int limit = tmpDst.limit();
+            ByteBuffer tmpDst = ((ByteBufferDataView) dst).buffer.duplicate();
             tmpDst.limit(dstOffset + length);
-
             tmpDst.position(dstOffset);
-            tmpDst.put(buffer);
-            buffer.limit(srcLimit);
-            // we reset the limit if possible
-            if (limit > dstOffset + length) {
-                tmpDst.limit(limit);
+            tmpDst.put(tmpSrc);
+        } else if (dst instanceof ByteArrayDataView) {
+            ByteArrayDataView arrayDst = (ByteArrayDataView) dst;
+            if (dstOffset < 0 || length > arrayDst.limit() - dstOffset) {
+                throw new IndexOutOfBoundsException("index " + dstOffset + " size " + length + " limit " + arrayDst.limit());
             }
+            tmpSrc.get(arrayDst.array(), arrayDst.arrayOffset() + dstOffset, length);
         } else {
             for (int i = 0; i < length; i++) {
                 dst.put(i + dstOffset, buffer.get(i + srcOffset));
@@ -175,32 +257,17 @@ public class ByteBufferDataView implements DataView {
             newBuffer = ByteBuffer.allocate(size);
         }
         // copy data
-        int position = buffer.position();
-        int limit = buffer.limit();
-        buffer.position(offset);
-        buffer.limit(offset + size);
-        newBuffer.put(buffer);
-
-        // reset the buffers
-        buffer.position(position);
-        buffer.limit(limit);
+        final ByteBuffer tmp = buffer.duplicate();
+        tmp.limit(offset + size);
+        tmp.position(offset);
+        newBuffer.put(tmp);
+
         newBuffer.rewind();
         final ByteBufferDataView byteBufferDataView = new ByteBufferDataView(newBuffer);
         newBuffer.order(buffer.order());
         return byteBufferDataView;
     }
 
-    private ByteBuffer getDstByteBuffer(DataView dst) {
-        ByteBuffer tmpDst = ((ByteBufferDataView) dst).buffer;
-        if (tmpDst == buffer) {
-            // if the data is to be written into the same ByteBuffer, we have to duplicate it.
-            final ByteBuffer duplicate = tmpDst.duplicate();
-            duplicate.order(tmpDst.order());
-            return duplicate;
-        }
-        return tmpDst;
-    }
-
     @Override
     public int readerPosition() {
         return buffer.position();
@@ -282,6 +349,27 @@ public class ByteBufferDataView implements DataView {
         rewindReaderPosition();
     }
 
+    @Override
+    public void zero(int index, int length) {
+        if (index < 0 || length < 0 || length > buffer.limit() - index) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + length + " limit " + buffer.limit());
+        }
+        if (buffer.hasArray()) {
+            final int from = buffer.arrayOffset() + index;
+            Arrays.fill(buffer.array(), from, from + length, (byte) 0);
+        } else {
+            // bulk copies of the ERAZER without touching our position
+            final ByteBuffer tmp = buffer.duplicate();
+            tmp.position(index);
+            int remaining = length;
+            while (remaining > 0) {
+                final int chunk = Math.min(remaining, ERAZER.length);
+                tmp.put(ERAZER, 0, chunk);
+                remaining -= chunk;
+            }
+        }
+    }
+
     @Override
     public DataView duplicate() {
         final ByteBufferDataView result = new ByteBufferDataView(buffer.duplicate());
@@ -20,35 +20,64 @@
 // THE SOFTWARE.
 package org.capnproto;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import static java.util.Objects.requireNonNull;
 
 public final class Data {
 
     private static final DataView EMPTY = ByteBufferDataView.allocate(0);
 
+    /**
+     * Creates a read only ByteBuffer for the range, that shares the memory of
+     * the view. Only views of an unknown type are copied.
+     *
+     * @param buffer the data.
+     * @param offset the start of the range in bytes.
+     * @param size   the size of the range in bytes.
+     *
+     * @return the read only buffer with position 0 and limit size.
+     */
+    static ByteBuffer readOnlySlice(DataView buffer, int offset, int size) {
+        if (offset < 0 || size < 0 || size > buffer.limit() - offset) {
+            throw new IndexOutOfBoundsException("index " + offset + " size " + size + " limit " + buffer.limit());
+        }
+        if (buffer instanceof ByteBufferDataView) {
+            final ByteBuffer tmp = ((ByteBufferDataView) buffer).getBuffer().duplicate();
+            tmp.limit(offset + size);
+            tmp.position(offset);
+            return tmp.slice().asReadOnlyBuffer();
+        }
+        if (buffer instanceof ByteArrayDataView) {
+            final ByteArrayDataView view = (ByteArrayDataView) buffer;
+            return ByteBuffer.wrap(view.array(), view.arrayOffset() + offset, size).slice().asReadOnlyBuffer();
+        }
+        final byte[] bytes = new byte[size];
+        buffer.get(offset, bytes, 0, size);
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
     public static final class Factory implements FromPointerReaderBlobDefault<Reader>,
             PointerFactory<Builder, Reader>,
             FromPointerBuilderBlobDefault<Builder>,
             SetPointerBuilder<Builder, Reader> {
 
-        private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-            @Override
-            protected org.capnproto.Recycler<Reader> initialValue() {
-                return new org.capnproto.Recycler<>(Reader::new);
-            }
-        };
+        private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
 
         @Override
         public final Reader fromPointerReaderBlobDefault(SegmentDataContainer segment, int pointer, DataView defaultBuffer,
                 int defaultOffset, int defaultSize) {
             return WireHelpers.readDataPointer(segment,
-                    pointer, READER_RECYCLER.get(),
+                    pointer, READER_RECYCLER.get(segment),
                     r -> r.init(defaultBuffer, defaultOffset, defaultSize));
         }
 
         @Override
         public final Reader fromPointerReader(SegmentDataContainer segment, int pointer, int nestingLimit) {
-            return WireHelpers.readDataPointer(segment, pointer, READER_RECYCLER.get(), Reader::init);
+            return WireHelpers.readDataPointer(segment, pointer, READER_RECYCLER.get(segment), Reader::init);
         }
 
         @Override
@@ -176,11 +205,63 @@ public final class Data {
         public byte[] toArray() {
             checkRecycled();
             byte[] result = new byte[size];
-            buffer.readerPosition(offset);
-            buffer.get(result);
+            buffer.get(offset, result, 0, size);
             return result;
         }
 
+        /**
+         * Creates a read only ByteBuffer, that shares the memory of the
+         * message. The buffer stays valid after this reader is recycled, as
+         * long as the message memory is not reused.
+         *
+         * @return the data, from position 0 to limit {@link #size()}.
+         */
+        public ByteBuffer asReadOnlyByteBuffer() {
+            checkRecycled();
+            return readOnlySlice(buffer, offset, size);
+        }
+
+        /**
+         * Creates an InputStream, that reads directly from the memory of the
+         * message.
+         *
+         * @return the stream.
+         */
+        public InputStream asInputStream() {
+            checkRecycled();
+            return new DataViewInputStream(buffer, offset, size);
+        }
+
+        /**
+         * Writes the data to the channel without copying it.
+         *
+         * @param channel the target channel.
+         *
+         * @throws IOException if the channel fails.
+         */
+        public void writeTo(WritableByteChannel channel) throws IOException {
+            requireNonNull(channel, "Parameter channel can not be null.");
+            final ByteBuffer data = asReadOnlyByteBuffer();
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        /**
+         * Copies the data in bulk into the target view.
+         *
+         * @param dst       the target.
+         * @param dstOffset the position in the target in bytes.
+         */
+        public void transferTo(DataView dst, int dstOffset) {
+            requireNonNull(dst, "Parameter dst can not be null.");
+            checkRecycled();
+            if (dstOffset < 0 || size > dst.limit() - dstOffset) {
+                throw new IndexOutOfBoundsException("index " + dstOffset + " size " + size + " limit " + dst.limit());
+            }
+            buffer.writeTo(dst, dstOffset, offset, size);
+        }
+
         @Override
         public String toString() {
             checkRecycled();
@@ -218,6 +299,77 @@ public final class Data {
 
     }
 
+    /**
+     * An InputStream over a range of a DataView. It reads with absolute
+     * positions, so it does not change the view.
+     */
+    private static final class DataViewInputStream extends InputStream {
+
+        private final DataView buffer;
+        private final int end;
+        private int position;
+        private int mark;
+
+        DataViewInputStream(DataView buffer, int offset, int size) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.mark = offset;
+            this.end = offset + size;
+        }
+
+        @Override
+        public int read() {
+            if (position >= end) {
+                return -1;
+            }
+            return buffer.get(position++) & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException("offset " + off + " length " + len + " array " + b.length);
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            final int n = Math.min(len, end - position);
+            buffer.get(position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            final int skipped = (int) Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return end - position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+            mark = position;
+        }
+
+        @Override
+        public void reset() {
+            position = mark;
+        }
+    }
+
     public static final class Builder {
 
         private final DataView buffer;
@@ -252,8 +404,7 @@ public final class Data {
          */
         public byte[] toArray() {
             byte[] result = new byte[size];
-            buffer.readerPosition(offset);
-            buffer.get(result);
+            buffer.get(offset, result, 0, size);
             return result;
         }
 
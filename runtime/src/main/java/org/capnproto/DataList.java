@@ -34,18 +34,10 @@ public final class DataList {
         Factory() {
             super(ElementSize.POINTER);
         }
-        private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-            @Override
-            protected org.capnproto.Recycler<Reader> initialValue() {
-                return new org.capnproto.Recycler<>(Reader::new);
-            }
-        };
-        private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-            @Override
-            protected org.capnproto.Recycler initialValue() {
-                return new org.capnproto.Recycler<>(Builder::new);
-            }
-        };
+        private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+        private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
         @Override
         public final Reader constructReader(SegmentDataContainer segment,
@@ -53,7 +45,7 @@ public final class DataList {
                 int elementCount, int step,
                 int structDataSize, short structPointerCount,
                 int nestingLimit) {
-            final Reader reader = READER_RECYCLER.get().getOrCreate();
+            final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
             reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
             return reader;
         }
@@ -63,7 +55,7 @@ public final class DataList {
                 int ptr,
                 int elementCount, int step,
                 int structDataSize, short structPointerCount) {
-            Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+            Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
             builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
             return builder;
         }
@@ -75,11 +67,22 @@ public final class DataList {
         private boolean recycled;
         private Recycler<Reader> recycler;
 
+        @Override
         public Stream<Data.Reader> stream() {
             checkRecycled();
-            return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                    Spliterator.SIZED & Spliterator.IMMUTABLE
-            ), false);
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        /**
+         * Creates an index based spliterator, that can be split for parallel
+         * processing. It is also used by {@link #parallelStream()}.
+         *
+         * @return the spliterator.
+         */
+        @Override
+        public Spliterator<Data.Reader> spliterator() {
+            checkRecycled();
+            return new ListSpliterator<>(this, (list, index) -> list._getPointerElement(Data.factory, index));
         }
 
         public Data.Reader get(int index) {
@@ -259,9 +262,32 @@ public final class DataList {
             _setPointerElement(Data.factory, index, value);
         }
 
+        /**
+         * Detaches the data at the index, the element is null afterwards.
+         *
+         * @param index the index.
+         *
+         * @return the detached data.
+         */
+        public final Orphan disown(int index) {
+            checkRecycled();
+            return _disownPointerElement(index);
+        }
+
+        /**
+         * Attaches the data of the orphan at the index.
+         *
+         * @param index  the index.
+         * @param orphan the orphan.
+         */
+        public final void adopt(int index, Orphan orphan) {
+            checkRecycled();
+            _adoptPointerElement(index, orphan);
+        }
+
         public final Reader asReader() {
             checkRecycled();
-            final Reader reader = DataList.Factory.READER_RECYCLER.get().getOrCreate();
+            final Reader reader = DataList.Factory.READER_RECYCLER.get(segment).getOrCreate();
             reader.init(this.segment, this.ptr, this.elementCount, this.step,
                     this.structDataSize, this.structPointerCount,
                     java.lang.Integer.MAX_VALUE);
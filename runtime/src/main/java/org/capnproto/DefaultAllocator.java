@@ -7,11 +7,15 @@ import org.capnproto.BuilderArena.AllocationStrategy;
 public class DefaultAllocator implements Allocator {
 
     // (minimum) number of bytes in the next allocation
-    private int nextSize = BuilderArena.SUGGESTED_FIRST_SEGMENT_WORDS;
+    private int nextSize = BuilderArena.SUGGESTED_FIRST_SEGMENT_WORDS * Constants.BYTES_PER_WORD;
 
     public enum ByteBufferAllocationStyle {
         REGULAR,
-        DIRECT
+        DIRECT,
+        /**
+         * Segments are backed by heap byte arrays, see {@link ByteArrayDataView}.
+         */
+        BYTE_ARRAY
     }
     public ByteBufferAllocationStyle allocationStyle = ByteBufferAllocationStyle.REGULAR;
 
@@ -42,13 +46,16 @@ public class DefaultAllocator implements Allocator {
     @Override
     public DataView allocateSegment(int minimumSize) {
         int size = Math.max(minimumSize, this.nextSize);
-        ByteBuffer result = null;
+        DataView result = null;
         switch (allocationStyle) {
             case REGULAR:
-                result = ByteBuffer.allocate(size);
+                result = new ByteBufferDataView(ByteBuffer.allocate(size));
                 break;
             case DIRECT:
-                result = ByteBuffer.allocateDirect(size);
+                result = new ByteBufferDataView(ByteBuffer.allocateDirect(size));
+                break;
+            case BYTE_ARRAY:
+                result = ByteArrayDataView.allocate(size);
         }
 
         switch (this.allocationStrategy) {
@@ -59,7 +66,6 @@ public class DefaultAllocator implements Allocator {
                 break;
         }
 
-        this.nextSize += size;
-        return new ByteBufferDataView(result);
+        return result;
     }
 }
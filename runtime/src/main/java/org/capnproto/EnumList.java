@@ -147,9 +147,20 @@ public class EnumList {
         @Override
         public Stream<T> stream() {
             checkRecycled();
-            return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                    Spliterator.SIZED & Spliterator.IMMUTABLE
-            ), false);
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        /**
+         * Creates an index based spliterator, that can be split for parallel
+         * processing. It is also used by {@link #parallelStream()}.
+         *
+         * @return the spliterator.
+         */
+        @Override
+        public Spliterator<T> spliterator() {
+            checkRecycled();
+            final T[] elementValues = values;
+            return new ListSpliterator<>(this, (list, index) -> clampOrdinal(elementValues, list._getShortElement(index)));
         }
 
         public final class Iterator implements java.util.Iterator<T> {
@@ -0,0 +1,242 @@
+package org.capnproto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An incremental decoder of framed messages for non-blocking channels.
+ * <p>
+ * Unlike {@link AllocatedArenaBuilder#build(ReadableByteChannel)}, the decoder
+ * never waits for data. It reads whatever is available, keeps its state and
+ * continues with the next call. The message body is read directly into the
+ * DataView, that is sliced into the segments afterwards, so the data is not
+ * copied again.
+ *
+ * <pre>
+ * AllocatedArena arena;
+ * while ((arena = decoder.read(channel)) != null) {
+ *     handle(new MessageReader(arena));
+ * }
+ * if (decoder.isEndOfStream()) {
+ *     channel.close();
+ * }
+ * </pre>
+ * <p>
+ * An instance is not thread safe. Use one decoder per channel.
+ */
+public final class FrameDecoder {
+
+    private static final int INT_SIZE = 4;
+
+    private enum State {
+        FIRST_WORD,
+        SEGMENT_SIZES,
+        BODY
+    }
+
+    private final Function<Integer, DataView> dataViewFactory;
+    private final AllocatedArenaBuilder.SegmentCountValidator segmentCountValidator;
+    private final Function<List<DataView>, AllocatedArena> arenaFactory;
+    // The single instance is reused to transfer segment data to the ArenaFactory.
+    private final List<DataView> transferList = new ArrayList<>();
+    private final DataView firstWord;
+    private final DataView segmentSizeHeader;
+
+    private State state = State.FIRST_WORD;
+    private int segmentCount;
+    private DataView body;
+    private boolean endOfStream;
+
+    /**
+     * Creates a decoder with the default settings of
+     * {@link AllocatedArenaBuilder}.
+     */
+    public FrameDecoder() {
+        this(new AllocatedArenaBuilder());
+    }
+
+    /**
+     * Creates a decoder that uses the DataView factory, the segment count
+     * validator and the arena factory of the given builder.
+     *
+     * @param builder the builder with the settings.
+     */
+    public FrameDecoder(AllocatedArenaBuilder builder) {
+        requireNonNull(builder, "Parameter builder can not be null.");
+        this.dataViewFactory = builder.getByteBufferFactory();
+        this.segmentCountValidator = builder.getSegmentCountValidator();
+        this.arenaFactory = builder.getArenaFactory();
+        this.firstWord = ByteBufferDataView.allocate(Constants.BYTES_PER_WORD);
+        this.firstWord.order(ByteOrder.LITTLE_ENDIAN);
+        this.segmentSizeHeader = ByteBufferDataView.allocate(Constants.MAX_SEGMENTS * INT_SIZE);
+        this.segmentSizeHeader.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads the available data from the channel until a frame is complete or
+     * the channel has no more data.
+     *
+     * @param channel the channel, usually in non-blocking mode.
+     *
+     * @return the arena of the completed frame, or null if more data is
+     *         needed.
+     *
+     * @throws IOException if reading fails, the frame is invalid or the
+     *                     stream ends within a frame.
+     */
+    public AllocatedArena read(ReadableByteChannel channel) throws IOException {
+        while (true) {
+            final DataView target = currentTarget();
+            while (target.hasRemainingWriteableBytes()) {
+                final int read = target.readFrom(channel);
+                if (read < 0) {
+                    return endOfStream();
+                }
+                if (read == 0) {
+                    return null;
+                }
+            }
+            final AllocatedArena result = advance();
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Consumes the bytes of the buffer until a frame is complete or the buffer
+     * is empty.
+     *
+     * @param src the received data. The position is moved behind the consumed
+     *            bytes.
+     *
+     * @return the arena of the completed frame, or null if more data is
+     *         needed.
+     *
+     * @throws IOException if the frame is invalid.
+     */
+    public AllocatedArena decode(ByteBuffer src) throws IOException {
+        // an empty target, e.g. the sizes of a single segment message, needs no data
+        while (src.hasRemaining() || !currentTarget().hasRemainingWriteableBytes()) {
+            final DataView target = currentTarget();
+            final int count = Math.min(src.remaining(), target.remainingReadableBytes());
+            final int srcLimit = src.limit();
+            src.limit(src.position() + count);
+            target.put(src);
+            src.limit(srcLimit);
+            if (!target.hasRemainingWriteableBytes()) {
+                final AllocatedArena result = advance();
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells if the channel given to {@link #read(ReadableByteChannel)} reached
+     * its end between two frames.
+     *
+     * @return true if the stream ended.
+     */
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    /**
+     * Tells if a frame was started, but is not complete yet.
+     *
+     * @return true if a frame is incomplete.
+     */
+    public boolean isInFrame() {
+        return state != State.FIRST_WORD || firstWord.readerPosition() > 0;
+    }
+
+    private DataView currentTarget() {
+        switch (state) {
+            case FIRST_WORD:
+                return firstWord;
+            case SEGMENT_SIZES:
+                return segmentSizeHeader;
+            default:
+                return body;
+        }
+    }
+
+    private AllocatedArena endOfStream() throws IOException {
+        if (isInFrame()) {
+            throw new IOException("Incomplete data: EOF within a frame");
+        }
+        endOfStream = true;
+        return null;
+    }
+
+    /**
+     * Moves to the next state after the current target is full.
+     *
+     * @return the arena, if the frame is complete.
+     */
+    private AllocatedArena advance() throws IOException {
+        switch (state) {
+            case FIRST_WORD:
+                segmentCount = 1 + firstWord.getInt(0);
+                segmentCountValidator.validate(segmentCount);
+                if (segmentCount <= 0 || segmentCount > Constants.MAX_SEGMENTS) {
+                    throw new IOException("Invalid segment count " + segmentCount);
+                }
+                segmentSizeHeader.rewindWriterPosition();
+                segmentSizeHeader.limit(INT_SIZE * (segmentCount & ~1));
+                state = State.SEGMENT_SIZES;
+                return null;
+            case SEGMENT_SIZES:
+                long totalWords = segmentSize(0);
+                for (int ii = 1; ii < segmentCount; ++ii) {
+                    totalWords += segmentSize(ii);
+                }
+                if (totalWords * Constants.BYTES_PER_WORD > Integer.MAX_VALUE) {
+                    throw new IOException("Message of " + totalWords + " words is too large");
+                }
+                body = dataViewFactory.apply((int) totalWords * Constants.BYTES_PER_WORD);
+                body.order(ByteOrder.LITTLE_ENDIAN);
+                state = State.BODY;
+                return null;
+            default:
+                return complete();
+        }
+    }
+
+    // the size of the segment in words
+    private long segmentSize(int segment) {
+        if (segment == 0) {
+            return firstWord.getInt(INT_SIZE) & 0xffffffffL;
+        }
+        return segmentSizeHeader.getInt((segment - 1) * INT_SIZE) & 0xffffffffL;
+    }
+
+    private AllocatedArena complete() {
+        final DataView allSegments = body;
+        body = null;
+        transferList.clear();
+        int offset = 0;
+        for (int ii = 0; ii < segmentCount; ++ii) {
+            final int size = (int) segmentSize(ii) * Constants.BYTES_PER_WORD;
+            allSegments.readerPosition(offset);
+            final DataView slice = allSegments.slice();
+            slice.limit(size);
+            transferList.add(slice);
+            offset += size;
+        }
+        final AllocatedArena result = arenaFactory.apply(transferList);
+        transferList.clear();
+        firstWord.rewindWriterPosition();
+        state = State.FIRST_WORD;
+        return result;
+    }
+}
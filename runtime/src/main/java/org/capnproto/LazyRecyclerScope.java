@@ -0,0 +1,24 @@
+package org.capnproto;
+
+/**
+ * The {@link RecyclerScope} of an arena, created on first use. Arenas that
+ * are never read with {@link RecyclingStrategy#MESSAGE} don't create one.
+ */
+final class LazyRecyclerScope {
+
+    private volatile RecyclerScope scope;
+
+    RecyclerScope get() {
+        RecyclerScope result = scope;
+        if (result == null) {
+            synchronized (this) {
+                result = scope;
+                if (result == null) {
+                    result = new RecyclerScope();
+                    scope = result;
+                }
+            }
+        }
+        return result;
+    }
+}
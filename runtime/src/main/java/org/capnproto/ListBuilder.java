@@ -125,6 +125,121 @@ public class ListBuilder {
         this.segment.getBuffer().putDouble(this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE), value);
     }
 
+    private void checkElementRange(int index, int length) {
+        if (index < 0 || length < 0 || length > this.elementCount - index) {
+            throw new IndexOutOfBoundsException("index " + index + " length " + length + " size " + this.elementCount);
+        }
+    }
+
+    // the byte offset of the element
+    private int elementOffset(int index) {
+        return this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE);
+    }
+
+    /**
+     * Sets the elements starting at index to the values of the array. Densely
+     * packed elements are written in one bulk operation.
+     *
+     * @param index  the index of the first element.
+     * @param src    the source array.
+     * @param offset the start in the source array.
+     * @param length the number of elements.
+     */
+    protected final void _setBooleanElements(int index, boolean[] src, int offset, int length) {
+        checkElementRange(index, length);
+        for (int i = 0; i < length; i++) {
+            _setBooleanElement(index + i, src[offset + i]);
+        }
+    }
+
+    protected final void _setByteElements(int index, byte[] src, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 8) {
+            this.segment.getBuffer().put(elementOffset(index), src, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            _setByteElement(index + i, src[offset + i]);
+        }
+    }
+
+    protected final void _setShortElements(int index, short[] src, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 16) {
+            this.segment.getBuffer().putShorts(elementOffset(index), src, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            _setShortElement(index + i, src[offset + i]);
+        }
+    }
+
+    protected final void _setIntElements(int index, int[] src, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 32) {
+            this.segment.getBuffer().putInts(elementOffset(index), src, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            _setIntElement(index + i, src[offset + i]);
+        }
+    }
+
+    protected final void _setLongElements(int index, long[] src, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 64) {
+            this.segment.getBuffer().putLongs(elementOffset(index), src, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            _setLongElement(index + i, src[offset + i]);
+        }
+    }
+
+    protected final void _setFloatElements(int index, float[] src, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 32) {
+            this.segment.getBuffer().putFloats(elementOffset(index), src, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            _setFloatElement(index + i, src[offset + i]);
+        }
+    }
+
+    protected final void _setDoubleElements(int index, double[] src, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 64) {
+            this.segment.getBuffer().putDoubles(elementOffset(index), src, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            _setDoubleElement(index + i, src[offset + i]);
+        }
+    }
+
+    /**
+     * Copies encoded elements into the list. The bytes are copied as they are,
+     * so the source must contain little endian values of the element size.
+     *
+     * @param index        the index of the first element.
+     * @param src          the source.
+     * @param srcIndex     the position of the first byte in the source.
+     * @param length       the number of elements.
+     * @param elementBytes the size of one element in the source.
+     */
+    protected final void _setRawElements(int index, DataView src, int srcIndex, int length, int elementBytes) {
+        checkElementRange(index, length);
+        final DataView buffer = this.segment.getBuffer();
+        if (this.step == elementBytes * Constants.BITS_PER_BYTE) {
+            src.writeTo(buffer, elementOffset(index), srcIndex, length * elementBytes);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            src.writeTo(buffer, elementOffset(index + i), srcIndex + i * elementBytes, elementBytes);
+        }
+    }
+
     protected final <T> T _getStructElement(StructBuilder.Factory<T> factory, int index) {
         long indexBit = (long) index * this.step;
         int structData = this.ptr + (int) (indexBit / Constants.BITS_PER_BYTE);
@@ -137,6 +252,25 @@ public class ListBuilder {
                 this.structPointerCount);
     }
 
+    /**
+     * Points an existing builder to the struct element at the index, instead
+     * of constructing a new one.
+     *
+     * @param builder the builder to move.
+     * @param index   the index of the element.
+     */
+    protected final void _moveStructElement(StructBuilder builder, int index) {
+        long indexBit = (long) index * this.step;
+        int structData = this.ptr + (int) (indexBit / Constants.BITS_PER_BYTE);
+        int structPointers = (structData + (this.structDataSize / 8)) / 8;
+
+        builder._init(this.segment,
+                structData,
+                structPointers,
+                this.structDataSize,
+                this.structPointerCount);
+    }
+
     protected final <T> T _getPointerElement(FromPointerBuilder<T> factory, int index) {
         return factory.fromPointerBuilder(
                 this.segment,
@@ -150,6 +284,29 @@ public class ListBuilder {
                 elementCount);
     }
 
+    /**
+     * Sets a text element. The characters are encoded as UTF-8 directly into
+     * the segment.
+     *
+     * @param index the index of the element.
+     * @param value the text.
+     */
+    protected final void _setTextElement(int index, CharSequence value) {
+        WireHelpers.setTextPointer(
+                (this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE)) / Constants.BYTES_PER_WORD,
+                this.segment, value);
+    }
+
+    protected final Orphan _disownPointerElement(int index) {
+        return Orphan.disown(this.segment,
+                (this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE)) / Constants.BYTES_PER_WORD);
+    }
+
+    protected final void _adoptPointerElement(int index, Orphan orphan) {
+        orphan.adoptInto(this.segment,
+                (this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE)) / Constants.BYTES_PER_WORD);
+    }
+
     protected final <Builder, Reader> void _setPointerElement(SetPointerBuilder<Builder, Reader> factory, int index, Reader value) {
         factory.setPointerBuilder(this.segment,
                 (this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE)) / Constants.BYTES_PER_WORD,
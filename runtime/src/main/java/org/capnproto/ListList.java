@@ -129,10 +129,21 @@ public final class ListList {
             throw new UnsupportedOperationException("Unsupported");
         }
 
+        @Override
         public Stream<T> stream() {
-            return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                    Spliterator.SIZED & Spliterator.IMMUTABLE
-            ), false);
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        /**
+         * Creates an index based spliterator, that can be split for parallel
+         * processing. It is also used by {@link #parallelStream()}.
+         *
+         * @return the spliterator.
+         */
+        @Override
+        public Spliterator<T> spliterator() {
+            final FromPointerReader<T> elementFactory = factory;
+            return new ListSpliterator<>(this, (list, index) -> list._getPointerElement(elementFactory, index));
         }
 
         public final class Iterator implements java.util.Iterator<T> {
@@ -187,6 +198,27 @@ public final class ListList {
             return _getPointerElement(this.factory, index);
         }
 
+        /**
+         * Detaches the list at the index, the element is null afterwards.
+         *
+         * @param index the index.
+         *
+         * @return the detached list.
+         */
+        public final Orphan disown(int index) {
+            return _disownPointerElement(index);
+        }
+
+        /**
+         * Attaches the list of the orphan at the index.
+         *
+         * @param index  the index.
+         * @param orphan the orphan.
+         */
+        public final void adopt(int index, Orphan orphan) {
+            _adoptPointerElement(index, orphan);
+        }
+
         // TODO: rework generics so that we don't need this factory parameter
         public final <U extends ListReader> Reader<U> asReader(ListFactory<T, U> factory) {
             final Reader reader = new Reader();
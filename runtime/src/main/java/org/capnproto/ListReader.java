@@ -72,6 +72,24 @@ public class ListReader {
         return this.elementCount;
     }
 
+    /**
+     * Creates a plain copy of this list, that is not affected when this reader
+     * is recycled or reused.
+     *
+     * @return the copy.
+     */
+    final ListReader _copy() {
+        final ListReader result = new ListReader();
+        result.segment = this.segment;
+        result.ptr = this.ptr;
+        result.elementCount = this.elementCount;
+        result.step = this.step;
+        result.structDataSize = this.structDataSize;
+        result.structPointerCount = this.structPointerCount;
+        result.nestingLimit = this.nestingLimit;
+        return result;
+    }
+
     protected boolean _getBooleanElement(int index) {
         long bindex = (long) index * this.step;
         byte b = this.segment.getBuffer().get(this.ptr + (int) (bindex / Constants.BITS_PER_BYTE));
@@ -102,6 +120,99 @@ public class ListReader {
         return this.segment.getBuffer().getDouble(this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE));
     }
 
+    private void checkElementRange(int index, int length) {
+        if (index < 0 || length < 0 || length > this.elementCount - index) {
+            throw new IndexOutOfBoundsException("index " + index + " length " + length + " size " + this.elementCount);
+        }
+    }
+
+    // the byte offset of the element
+    private int elementOffset(int index) {
+        return this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE);
+    }
+
+    /**
+     * Copies the elements starting at index into the array. Densely packed
+     * elements are copied in one bulk operation.
+     *
+     * @param index  the index of the first element.
+     * @param dst    the target array.
+     * @param offset the start in the target array.
+     * @param length the number of elements.
+     */
+    protected final void _getBooleanElements(int index, boolean[] dst, int offset, int length) {
+        checkElementRange(index, length);
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = _getBooleanElement(index + i);
+        }
+    }
+
+    protected final void _getByteElements(int index, byte[] dst, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 8) {
+            this.segment.getBuffer().get(elementOffset(index), dst, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = _getByteElement(index + i);
+        }
+    }
+
+    protected final void _getShortElements(int index, short[] dst, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 16) {
+            this.segment.getBuffer().getShorts(elementOffset(index), dst, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = _getShortElement(index + i);
+        }
+    }
+
+    protected final void _getIntElements(int index, int[] dst, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 32) {
+            this.segment.getBuffer().getInts(elementOffset(index), dst, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = _getIntElement(index + i);
+        }
+    }
+
+    protected final void _getLongElements(int index, long[] dst, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 64) {
+            this.segment.getBuffer().getLongs(elementOffset(index), dst, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = _getLongElement(index + i);
+        }
+    }
+
+    protected final void _getFloatElements(int index, float[] dst, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 32) {
+            this.segment.getBuffer().getFloats(elementOffset(index), dst, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = _getFloatElement(index + i);
+        }
+    }
+
+    protected final void _getDoubleElements(int index, double[] dst, int offset, int length) {
+        checkElementRange(index, length);
+        if (this.step == 64) {
+            this.segment.getBuffer().getDoubles(elementOffset(index), dst, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = _getDoubleElement(index + i);
+        }
+    }
+
     protected <T> T _getStructElement(StructReader.Factory<T> factory, int index) {
         // TODO check nesting limit
 
@@ -113,6 +224,22 @@ public class ListReader {
                 this.structPointerCount, this.nestingLimit - 1);
     }
 
+    /**
+     * Points an existing reader to the struct element at the index, instead of
+     * constructing a new one.
+     *
+     * @param reader the reader to move.
+     * @param index  the index of the element.
+     */
+    protected final void _moveStructElement(StructReader reader, int index) {
+        long indexBit = (long) index * this.step;
+        int structData = this.ptr + (int) (indexBit / Constants.BITS_PER_BYTE);
+        int structPointers = structData + (this.structDataSize / Constants.BITS_PER_BYTE);
+
+        reader._init(this.segment, structData, structPointers / 8, this.structDataSize,
+                this.structPointerCount, this.nestingLimit - 1);
+    }
+
     protected <T> T _getPointerElement(FromPointerReader<T> factory, int index) {
         return factory.fromPointerReader(this.segment,
                 (this.ptr + (int) ((long) index * this.step / Constants.BITS_PER_BYTE)) / Constants.BYTES_PER_WORD,
@@ -0,0 +1,86 @@
+package org.capnproto;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * An index based spliterator over the elements of a list.
+ * <p>
+ * The elements are read from a private copy of the list reader, so the
+ * spliterator stays valid after the list is recycled. Splitting halves the
+ * index range and gives the prefix a copy of its own. All reads use absolute
+ * indexes, so the splits can be processed by different threads.
+ *
+ * @param <T> the type of the elements.
+ */
+final class ListSpliterator<T> implements Spliterator<T> {
+
+    static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.IMMUTABLE;
+
+    /**
+     * Reads one element of a list.
+     *
+     * @param <T> the type of the element.
+     */
+    @FunctionalInterface
+    interface ElementReader<T> {
+
+        T get(ListReader list, int index);
+    }
+
+    private final ListReader list;
+    private final ElementReader<T> elementReader;
+    private int index;
+    private final int fence;
+
+    ListSpliterator(ListReader list, ElementReader<T> elementReader) {
+        this(list, elementReader, 0, list.elementCount);
+    }
+
+    private ListSpliterator(ListReader list, ElementReader<T> elementReader, int index, int fence) {
+        this.list = list._copy();
+        this.elementReader = elementReader;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(elementReader.get(list, index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        final int end = fence;
+        for (int i = index; i < end; i++) {
+            action.accept(elementReader.get(list, i));
+        }
+        index = end;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        final int mid = (index + fence) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        final ListSpliterator<T> prefix = new ListSpliterator<>(list, elementReader, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
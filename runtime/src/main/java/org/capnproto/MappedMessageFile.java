@@ -0,0 +1,239 @@
+package org.capnproto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Provides read access to a file of framed messages, as written by
+ * {@link MessageBuilder#write(java.nio.channels.WritableByteChannel)}, without
+ * copying the message data.
+ * <p>
+ * The file is memory mapped read only. The segments of each message are
+ * sliced out of the mapping by {@link AllocatedArenaBuilder#build(DataView)},
+ * so the returned {@link MessageReader}s read directly from the page cache.
+ * As a single mapping is limited to 2 GB, larger files are covered by a chain
+ * of mappings. Every mapping starts at a message boundary, so a message never
+ * spans two mappings. A single message larger than the maximum mapping size
+ * can not be read.
+ * <p>
+ * The frame headers are scanned once on creation to build the message index.
+ * The messages can then be accessed randomly by index or sequentially by
+ * iteration.
+ * <p>
+ * An instance is not thread safe, as it reuses the
+ * {@link AllocatedArenaBuilder}. The returned readers are only valid until the
+ * file is closed.
+ */
+public final class MappedMessageFile implements Closeable, Iterable<MessageReader> {
+
+    private static final int INT_SIZE = 4;
+    private static final int MAX_MAPPING_SIZE = Integer.MAX_VALUE & ~(Constants.BYTES_PER_WORD - 1);
+
+    /**
+     * Maps the file at the given path.
+     *
+     * @param path the file.
+     *
+     * @return the mapped file.
+     *
+     * @throws IOException if the file can not be read or contains an invalid
+     *                     or truncated frame.
+     */
+    public static MappedMessageFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedMessageFile(channel, new AllocatedArenaBuilder(), MAX_MAPPING_SIZE, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private final FileChannel channel;
+    private final AllocatedArenaBuilder builder;
+    private final boolean closeChannel;
+    private final List<DataView> mappings = new ArrayList<>();
+    // the mapping index and the offset in the mapping of each message
+    private int[] messageMapping = new int[16];
+    private int[] messageOffset = new int[16];
+    private int messageCount;
+
+    /**
+     * Maps the given channel from position 0 to its current size. The channel
+     * is not closed by {@link #close()}.
+     *
+     * @param channel the channel of the file.
+     * @param builder the builder used to slice the messages.
+     *
+     * @throws IOException if the file can not be read or contains an invalid
+     *                     or truncated frame.
+     */
+    public MappedMessageFile(FileChannel channel, AllocatedArenaBuilder builder) throws IOException {
+        this(channel, builder, MAX_MAPPING_SIZE, false);
+    }
+
+    MappedMessageFile(FileChannel channel, AllocatedArenaBuilder builder, int maxMappingSize, boolean closeChannel) throws IOException {
+        this.channel = requireNonNull(channel, "Parameter channel can not be null.");
+        this.builder = requireNonNull(builder, "Parameter builder can not be null.");
+        this.closeChannel = closeChannel;
+        mapAll(maxMappingSize);
+    }
+
+    private void mapAll(int maxMappingSize) throws IOException {
+        final long fileSize = channel.size();
+        long mappingStart = 0;
+        while (mappingStart < fileSize) {
+            final long mappingSize = Math.min(maxMappingSize, fileSize - mappingStart);
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mappingStart, mappingSize);
+            final DataView mapping = new ByteBufferDataView(buffer);
+            mapping.order(ByteOrder.LITTLE_ENDIAN);
+            final int scanned = scan(mapping, mappings.size());
+            if (scanned == 0) {
+                if (mappingStart + mappingSize == fileSize) {
+                    throw new IOException("Incomplete data: EOF in message at " + mappingStart);
+                }
+                throw new IOException("Message at " + mappingStart + " is larger than " + maxMappingSize + " bytes");
+            }
+            mappings.add(mapping);
+            mappingStart += scanned;
+        }
+    }
+
+    /**
+     * Indexes all messages that are completely contained in the mapping.
+     *
+     * @return the number of bytes of the indexed messages.
+     */
+    private int scan(DataView mapping, int mappingIndex) throws IOException {
+        final int size = mapping.limit();
+        int offset = 0;
+        while (size - offset >= Constants.BYTES_PER_WORD) {
+            final int segmentCount = 1 + mapping.getInt(offset);
+            builder.getSegmentCountValidator().validate(segmentCount);
+            if (segmentCount <= 0 || segmentCount > Constants.MAX_SEGMENTS) {
+                throw new IOException("Invalid segment count " + segmentCount + " in message at mapping offset " + offset);
+            }
+            final long headerSize = Constants.BYTES_PER_WORD + INT_SIZE * (segmentCount & ~1);
+            if (size - offset < headerSize) {
+                break;
+            }
+            long totalWords = 0;
+            for (int i = 0; i < segmentCount; i++) {
+                totalWords += mapping.getInt(offset + INT_SIZE + i * INT_SIZE) & 0xffffffffL;
+            }
+            final long frameSize = headerSize + totalWords * Constants.BYTES_PER_WORD;
+            if (size - offset < frameSize) {
+                break;
+            }
+            addMessage(mappingIndex, offset);
+            offset += (int) frameSize;
+        }
+        return offset;
+    }
+
+    private void addMessage(int mappingIndex, int offset) {
+        if (messageCount == messageOffset.length) {
+            messageMapping = Arrays.copyOf(messageMapping, messageCount * 2);
+            messageOffset = Arrays.copyOf(messageOffset, messageCount * 2);
+        }
+        messageMapping[messageCount] = mappingIndex;
+        messageOffset[messageCount] = offset;
+        messageCount++;
+    }
+
+    /**
+     * Retrieve the number of messages in the file.
+     *
+     * @return the number of messages.
+     */
+    public int size() {
+        return messageCount;
+    }
+
+    /**
+     * Retrieve the number of mappings used for the file.
+     *
+     * @return the number of mappings.
+     */
+    public int getMappingCount() {
+        return mappings.size();
+    }
+
+    /**
+     * Creates a reader for the message with the given index. The segments of
+     * the reader are slices of the mapped file.
+     *
+     * @param index the index of the message in the file.
+     *
+     * @return the reader.
+     *
+     * @throws IOException if the {@link AllocatedArenaBuilder} rejects the
+     *                     message.
+     */
+    public MessageReader getMessage(int index) throws IOException {
+        if (index < 0 || index >= messageCount) {
+            throw new IndexOutOfBoundsException("Message " + index + " of " + messageCount);
+        }
+        final DataView frame = mappings.get(messageMapping[index]).duplicate();
+        frame.readerPosition(messageOffset[index]);
+        return new MessageReader(builder.build(frame));
+    }
+
+    /**
+     * Iterates the messages in file order. {@link IOException}s are rethrown
+     * as {@link UncheckedIOException}.
+     *
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<MessageReader> iterator() {
+        return new Iterator<MessageReader>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < messageCount;
+            }
+
+            @Override
+            public MessageReader next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return getMessage(next++);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Releases the mappings and closes the channel if it was opened by
+     * {@link #open(Path)}. The mapped memory itself is released by the garbage
+     * collector.
+     *
+     * @throws IOException if closing the channel fails.
+     */
+    @Override
+    public void close() throws IOException {
+        mappings.clear();
+        messageCount = 0;
+        if (closeChannel) {
+            channel.close();
+        }
+    }
+}
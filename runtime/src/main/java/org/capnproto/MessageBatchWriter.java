@@ -0,0 +1,391 @@
+package org.capnproto;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Collects the framed output of many messages in one buffer and writes it to
+ * the channel in large chunks.
+ * <p>
+ * The buffer is flushed, when after a message
+ * <ul>
+ * <li>the buffered bytes reach the byte threshold,</li>
+ * <li>the buffered messages reach the message threshold or</li>
+ * <li>the first buffered message is older than the max linger time.</li>
+ * </ul>
+ * A message that does not fit into the remaining buffer flushes the buffer
+ * while it is written. There is no background thread: the linger time is
+ * checked on each {@link #write(MessageBuilder)} and by
+ * {@link #flushIfLingering()}, which can be called by a timer or selector
+ * loop.
+ * <p>
+ * The messages are either written as is, or packed with a
+ * {@link PackedOutputStream}. Statistics of each flush are given to an
+ * optional listener and summed up.
+ * <p>
+ * An instance is not thread safe.
+ */
+public final class MessageBatchWriter implements Closeable, Flushable {
+
+    public static final int DEFAULT_FLUSH_BYTES = 64 * 1_024;
+    public static final int DEFAULT_FLUSH_MESSAGES = Integer.MAX_VALUE;
+    public static final long DEFAULT_MAX_LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // the packed encoding needs at least 10 bytes of buffer
+    private static final int MINIMUM_FLUSH_BYTES = 64;
+
+    /**
+     * The reason of a flush.
+     */
+    public enum FlushReason {
+        /**
+         * The byte threshold was reached.
+         */
+        BYTES,
+        /**
+         * The message threshold was reached.
+         */
+        MESSAGES,
+        /**
+         * The first buffered message lingered too long.
+         */
+        LINGER,
+        /**
+         * {@link MessageBatchWriter#flush()} or close was called.
+         */
+        EXPLICIT
+    }
+
+    /**
+     * The statistics of one flush.
+     */
+    public static final class FlushStats {
+
+        private final FlushReason reason;
+        private final int messages;
+        private final int bytes;
+        private final long lingerNanos;
+
+        FlushStats(FlushReason reason, int messages, int bytes, long lingerNanos) {
+            this.reason = reason;
+            this.messages = messages;
+            this.bytes = bytes;
+            this.lingerNanos = lingerNanos;
+        }
+
+        public FlushReason getReason() {
+            return reason;
+        }
+
+        /**
+         * Retrieve the number of messages completed by this flush. A message,
+         * that is larger than the remaining buffer, is counted by the flush
+         * that writes its end.
+         *
+         * @return the number of messages.
+         */
+        public int getMessages() {
+            return messages;
+        }
+
+        public int getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Retrieve the time between the first write into the buffer and the
+         * flush.
+         *
+         * @return the time in nanoseconds.
+         */
+        public long getLingerNanos() {
+            return lingerNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "FlushStats{" + "reason=" + reason + ", messages=" + messages + ", bytes=" + bytes + ", lingerNanos=" + lingerNanos + '}';
+        }
+    }
+
+    private final WritableByteChannel output;
+    private final BatchBuffer buffer;
+    private final PackedOutputStream packedOutput;
+    private final boolean packed;
+    private int flushMessages = DEFAULT_FLUSH_MESSAGES;
+    private long maxLingerNanos = DEFAULT_MAX_LINGER_NANOS;
+    private Consumer<FlushStats> flushListener;
+    private LongSupplier clock = System::nanoTime;
+
+    private int bufferedMessages;
+    private long firstWriteNanos;
+    private boolean lingering;
+
+    private long flushCount;
+    private long totalMessages;
+    private long totalBytes;
+
+    /**
+     * Creates an unpacked writer with the {@link #DEFAULT_FLUSH_BYTES}.
+     *
+     * @param output the channel.
+     */
+    public MessageBatchWriter(WritableByteChannel output) {
+        this(output, DEFAULT_FLUSH_BYTES, false);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param output     the channel.
+     * @param flushBytes the byte threshold. This is also the size of the
+     *                   buffer.
+     * @param packed     true if the messages should be packed.
+     */
+    public MessageBatchWriter(WritableByteChannel output, int flushBytes, boolean packed) {
+        this.output = requireNonNull(output, "Parameter output can not be null.");
+        if (flushBytes < MINIMUM_FLUSH_BYTES) {
+            throw new IllegalArgumentException("flushBytes must be at least " + MINIMUM_FLUSH_BYTES + ": " + flushBytes);
+        }
+        this.buffer = new BatchBuffer(flushBytes);
+        this.packed = packed;
+        this.packedOutput = packed ? new PackedOutputStream(buffer) : null;
+    }
+
+    /**
+     * Sets the number of messages after which the buffer is flushed.
+     *
+     * @param flushMessages the message threshold.
+     *
+     * @return this
+     */
+    public MessageBatchWriter setFlushMessages(int flushMessages) {
+        if (flushMessages <= 0) {
+            throw new IllegalArgumentException("flushMessages must be positive: " + flushMessages);
+        }
+        this.flushMessages = flushMessages;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time, a message stays in the buffer.
+     *
+     * @param maxLinger the time.
+     * @param unit      the unit of the time.
+     *
+     * @return this
+     */
+    public MessageBatchWriter setMaxLinger(long maxLinger, TimeUnit unit) {
+        this.maxLingerNanos = unit.toNanos(maxLinger);
+        return this;
+    }
+
+    /**
+     * Sets a listener, that receives the statistics of each flush.
+     *
+     * @param flushListener the listener or null.
+     *
+     * @return this
+     */
+    public MessageBatchWriter setFlushListener(Consumer<FlushStats> flushListener) {
+        this.flushListener = flushListener;
+        return this;
+    }
+
+    MessageBatchWriter setClock(LongSupplier clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * Adds a message to the batch. This might flush the buffer.
+     *
+     * @param message the message.
+     *
+     * @throws IOException if writing to the channel fails.
+     */
+    public void write(MessageBuilder message) throws IOException {
+        if (packed) {
+            message.write(packedOutput);
+        } else {
+            message.write(buffer);
+        }
+        bufferedMessages++;
+        if (buffer.position() + buffer.writtenBytes >= buffer.capacity()) {
+            flush(FlushReason.BYTES);
+        } else if (bufferedMessages >= flushMessages) {
+            flush(FlushReason.MESSAGES);
+        } else {
+            flushIfLingering();
+        }
+    }
+
+    /**
+     * Flushes the buffer if the first buffered message is older than the max
+     * linger time.
+     *
+     * @return true if the buffer was flushed.
+     *
+     * @throws IOException if writing to the channel fails.
+     */
+    public boolean flushIfLingering() throws IOException {
+        if (lingering && clock.getAsLong() - firstWriteNanos >= maxLingerNanos) {
+            flush(FlushReason.LINGER);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes all buffered data to the channel.
+     *
+     * @throws IOException if writing to the channel fails.
+     */
+    @Override
+    public void flush() throws IOException {
+        flush(FlushReason.EXPLICIT);
+    }
+
+    private void flush(FlushReason reason) throws IOException {
+        final int bytes = buffer.position() + buffer.writtenBytes;
+        if (bytes == 0 && bufferedMessages == 0) {
+            return;
+        }
+        buffer.drain();
+        buffer.writtenBytes = 0;
+        final long lingerNanos = lingering ? clock.getAsLong() - firstWriteNanos : 0;
+        flushCount++;
+        totalMessages += bufferedMessages;
+        totalBytes += bytes;
+        if (flushListener != null) {
+            flushListener.accept(new FlushStats(reason, bufferedMessages, bytes, lingerNanos));
+        }
+        bufferedMessages = 0;
+        lingering = false;
+    }
+
+    /**
+     * Flushes the buffer and closes the channel.
+     *
+     * @throws IOException if writing or closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            output.close();
+        }
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public long getTotalMessages() {
+        return totalMessages;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * The buffer of the batch. Data that does not fit is written to the
+     * channel, so the buffer is always flushed at its capacity.
+     */
+    private final class BatchBuffer implements BufferedOutputStream {
+
+        private final ByteBuffer buf;
+        // bytes since the last flush, that were already written to the channel
+        private int writtenBytes;
+
+        BatchBuffer(int capacity) {
+            this.buf = ByteBuffer.allocate(capacity);
+        }
+
+        int position() {
+            return buf.position();
+        }
+
+        int capacity() {
+            return buf.capacity();
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            startLinger();
+            final int size = src.remaining();
+            if (size <= buf.remaining()) {
+                buf.put(src);
+                return size;
+            }
+            // fill up the buffer and write it
+            final int available = buf.remaining();
+            final int srcLimit = src.limit();
+            src.limit(src.position() + available);
+            buf.put(src);
+            src.limit(srcLimit);
+            drain();
+            if (src.remaining() <= buf.remaining()) {
+                buf.put(src);
+            } else {
+                // larger than the buffer: write it directly
+                writtenBytes += src.remaining();
+                while (src.hasRemaining()) {
+                    output.write(src);
+                }
+            }
+            return size;
+        }
+
+        // writes the buffered data to the channel
+        void drain() throws IOException {
+            buf.flip();
+            writtenBytes += buf.remaining();
+            while (buf.hasRemaining()) {
+                output.write(buf);
+            }
+            buf.clear();
+        }
+
+        private void startLinger() {
+            if (!lingering) {
+                lingering = true;
+                firstWriteNanos = clock.getAsLong();
+            }
+        }
+
+        @Override
+        public ByteBuffer getWriteBuffer() {
+            // the packed output writes directly into the buffer
+            startLinger();
+            return buf;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return output.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            MessageBatchWriter.this.close();
+        }
+    }
+}
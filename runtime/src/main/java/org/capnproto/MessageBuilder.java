@@ -21,12 +21,21 @@
 package org.capnproto;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public final class MessageBuilder {
+public final class MessageBuilder implements AutoCloseable {
 
     private final AllocatingArena arena;
+    // reused by write, claimed with a CAS so that concurrent writes fall back to fresh buffers
+    private final AtomicBoolean scratchInUse = new AtomicBoolean();
+    private DataView tableScratch;
+    private ByteBuffer[] gatherScratch;
+    private ByteBuffer[] wrapScratch;
 
     /**
      * Creates a MessageBuilder with an injected custom AllocatingArena.
@@ -106,6 +115,16 @@ public final class MessageBuilder {
         return this.getRootInternal().getAs(factory);
     }
 
+    /**
+     * Retrieve the orphanage of this message, to build objects that are
+     * attached to the message later.
+     *
+     * @return the orphanage.
+     */
+    public Orphanage getOrphanage() {
+        return new Orphanage(this);
+    }
+
     public <T, U> void setRoot(SetPointerBuilder<T, U> factory, U reader) {
         this.getRootInternal().setAs(factory, reader);
     }
@@ -151,29 +170,136 @@ public final class MessageBuilder {
 
     }
 
+    /**
+     * Writes the segment table and all segments to the channel.
+     * <p>
+     * If the channel is a {@link GatheringByteChannel}, e.g. a SocketChannel or
+     * FileChannel, the table and the segments are written with one
+     * {@link GatheringByteChannel#write(ByteBuffer[])} call, as long as the
+     * channel accepts all bytes at once.
+     *
+     * @param outputChannel the channel.
+     *
+     * @throws IOException if writing fails.
+     */
     public void write(WritableByteChannel outputChannel) throws IOException {
         DataView[] segments = this.getArena().getSegmentsForOutput();
-        int tableSize = (segments.length + 2) & (~1);
+        final boolean reuse = scratchInUse.compareAndSet(false, true);
+        try {
+            DataView srcTable = segmentTable(segments, reuse);
+
+            if (outputChannel instanceof GatheringByteChannel && gatherWrite((GatheringByteChannel) outputChannel, srcTable, segments, reuse)) {
+                return;
+            }
 
-        DataView srcTable = ByteBufferDataView.allocate(4 * tableSize);
-        srcTable.order(ByteOrder.LITTLE_ENDIAN);
+            // Any padding is already zeroed.
+            while (srcTable.hasRemainingReadableBytes()) {
+                srcTable.writeTo(outputChannel);
+            }
+
+            for (DataView srcData : segments) {
+                while (srcData.hasRemainingReadableBytes()) {
+                    srcData.writeTo(outputChannel);
+                }
+            }
+        } finally {
+            if (reuse) {
+                scratchInUse.set(false);
+            }
+        }
+    }
+
+    // creates the segment table in the scratch buffer, or in a new one if another write holds the scratch
+    private DataView segmentTable(DataView[] segments, boolean reuse) {
+        int tableSize = (segments.length + 2) & (~1);
+        DataView srcTable;
+        if (reuse && this.tableScratch != null && this.tableScratch.capacity() >= 4 * tableSize) {
+            srcTable = this.tableScratch;
+            srcTable.rewindReaderPosition();
+            srcTable.limit(4 * tableSize);
+            // the padding of a previous table might be there
+            srcTable.putInt(4 * (tableSize - 1), 0);
+        } else {
+            srcTable = ByteBufferDataView.allocate(4 * tableSize);
+            srcTable.order(ByteOrder.LITTLE_ENDIAN);
+            if (reuse) {
+                this.tableScratch = srcTable;
+            }
+        }
 
         srcTable.putInt(0, segments.length - 1);
 
         for (int i = 0; i < segments.length; ++i) {
             srcTable.putInt(4 * (i + 1), segments[i].limit() / 8);
         }
+        return srcTable;
+    }
 
-        // Any padding is already zeroed.
-        while (srcTable.hasRemainingReadableBytes()) {
-            srcTable.writeTo(outputChannel);
+    /**
+     * Writes table and segments with gathering writes.
+     *
+     * @return false if a buffer is not backed by a ByteBuffer or array. In that
+     *         case nothing was written.
+     */
+    private boolean gatherWrite(GatheringByteChannel outputChannel, DataView srcTable, DataView[] segments, boolean reuse) throws IOException {
+        final int count = segments.length + 1;
+        final ByteBuffer[] buffers;
+        final ByteBuffer[] wrapped;
+        if (reuse) {
+            if (this.gatherScratch == null || this.gatherScratch.length < count) {
+                this.gatherScratch = new ByteBuffer[count];
+                this.wrapScratch = Arrays.copyOf(this.wrapScratch == null ? new ByteBuffer[0] : this.wrapScratch, count);
+            }
+            buffers = this.gatherScratch;
+            wrapped = this.wrapScratch;
+        } else {
+            buffers = new ByteBuffer[count];
+            wrapped = new ByteBuffer[count];
+        }
+        try {
+            long remaining = 0;
+            for (int i = 0; i < count; i++) {
+                final ByteBuffer buffer = asByteBuffer(i == 0 ? srcTable : segments[i - 1], wrapped, i);
+                if (buffer == null) {
+                    return false;
+                }
+                buffers[i] = buffer;
+                remaining += buffer.remaining();
+            }
+            int offset = 0;
+            while (remaining > 0) {
+                remaining -= outputChannel.write(buffers, offset, count - offset);
+                // skip the completely written buffers
+                while (offset < count && !buffers[offset].hasRemaining()) {
+                    offset++;
+                }
+            }
+            return true;
+        } finally {
+            // don't keep the segments reachable
+            Arrays.fill(buffers, 0, count, null);
         }
+    }
 
-        for (DataView srcData : segments) {
-            while (srcData.hasRemainingReadableBytes()) {
-                srcData.writeTo(outputChannel);
+    // array backed views are wrapped once per array, the wrapper is kept in wrapped[index]
+    private static ByteBuffer asByteBuffer(DataView view, ByteBuffer[] wrapped, int index) {
+        if (view instanceof ByteBufferDataView) {
+            return ((ByteBufferDataView) view).getBuffer();
+        }
+        if (view instanceof ByteArrayDataView) {
+            ByteArrayDataView arrayView = (ByteArrayDataView) view;
+            ByteBuffer buffer = wrapped[index];
+            if (buffer == null || buffer.array() != arrayView.array()) {
+                buffer = ByteBuffer.wrap(arrayView.array());
+                wrapped[index] = buffer;
             }
+            final int start = arrayView.arrayOffset() + arrayView.readerPosition();
+            buffer.clear();
+            buffer.position(start);
+            buffer.limit(start + arrayView.remainingReadableBytes());
+            return buffer;
         }
+        return null;
     }
 
     /**
@@ -186,4 +312,47 @@ public final class MessageBuilder {
     public final void clearFirstSegment() {
         this.arena.getSegments().get(0).clear();
     }
+
+    /**
+     * Clears the message, but keeps all segments for the next message built
+     * with this MessageBuilder. Only the used part of each segment is zeroed.
+     * A MessageBuilder reused for messages of the same shape does not allocate
+     * memory.
+     * <p>
+     * After calling this method, all readers and builders of the previous
+     * message, as well as the buffers returned by
+     * {@link AllocatingArena#getSegmentsForOutput()}, MUST no longer be used.
+     *
+     * @throws UnsupportedOperationException if the MessageBuilder was created
+     *                                       with a custom
+     *                                       {@link AllocatingArena}, instead
+     *                                       of a {@link BuilderArena}.
+     */
+    public void reset() {
+        if (!(this.arena instanceof BuilderArena)) {
+            throw new UnsupportedOperationException("reset needs a BuilderArena, but the arena is a " + this.arena.getClass().getName());
+        }
+        ((BuilderArena) this.arena).reset();
+    }
+
+    /**
+     * Returns the segments of this message to the {@link Allocator}, e.g. a
+     * {@link PooledAllocator}, so they can be reused by other messages.
+     * <p>
+     * After calling this method, the message is empty and all readers and
+     * builders of it, as well as the buffers returned by
+     * {@link AllocatingArena#getSegmentsForOutput()}, MUST no longer be used.
+     * The MessageBuilder itself can be used to build a new message.
+     */
+    public void release() {
+        this.arena.release();
+    }
+
+    /**
+     * Same as {@link #release()}.
+     */
+    @Override
+    public void close() {
+        release();
+    }
 }
@@ -20,6 +20,16 @@
 // THE SOFTWARE.
 package org.capnproto;
 
+/**
+ * Reads a message from the segments of an {@link AllocatedArena}.
+ * <p>
+ * All read paths of the runtime access the segments by absolute index only,
+ * they never move a position or limit of a segment. A MessageReader over an
+ * arena, whose segments are not modified anymore, can therefore be shared by
+ * any number of threads without synchronization. The traversal limit of a
+ * {@link ReaderArena} is shared by all threads. The returned readers
+ * themselves are not meant to be shared, as they might be recycled.
+ */
 public final class MessageReader {
 
     // must be accessible as long the scala tests access it
@@ -41,8 +51,22 @@ public final class MessageReader {
     }
 
     public MessageReader(DataView[] segmentSlices, ReaderOptions options) {
+        this(new ReaderArena(segmentSlices, options.traversalLimitInWords), options);
+    }
+
+    /**
+     * Construct a MessageReader with an injected custom {@link Arena} and
+     * options. A {@link ReaderOptions#trusted trusted} message is validated
+     * here, before any reader is created.
+     *
+     * @param arena   the Arena implementation.
+     * @param options the options.
+     *
+     * @throws DecodeException if a trusted message is malformed.
+     */
+    public MessageReader(AllocatedArena arena, ReaderOptions options) {
         this.nestingLimit = options.nestingLimit;
-        this.arena = new ReaderArena(segmentSlices, options.traversalLimitInWords);
+        this.arena = options.trusted ? MessageValidator.validate(arena, options) : arena;
         this.serializedSize = calculateSize();
     }
 
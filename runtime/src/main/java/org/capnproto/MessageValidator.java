@@ -0,0 +1,242 @@
+package org.capnproto;
+
+import java.util.Arrays;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Validates a whole message in one pass, before it is read.
+ * <p>
+ * The validator walks all pointers of the message with an explicit stack and
+ * checks that every object lies within its segment, that far pointers land on
+ * valid landing pads and that the nesting limit of the {@link ReaderOptions}
+ * holds. Every visit of an object is charged against the traversal limit, so a
+ * message that references the same object many times, or claims huge lists of
+ * zero sized elements, is rejected instead of amplified.
+ * <p>
+ * The returned arena shares the segments of the validated arena. As the limits
+ * were enforced for the whole message, reading from it skips the traversal
+ * limit bookkeeping, no matter how often the message is read. Its struct
+ * readers skip the lifecycle checks, as in {@link ReaderOptions#trusted}
+ * mode.
+ */
+public final class MessageValidator {
+
+    private static final String NESTING = "Message is too deeply nested or contains cycles. See org.capnproto.ReaderOptions.";
+
+    /**
+     * A run of pointers in one segment: {@code count} elements, each with
+     * {@code pointerCount} pointers, the elements {@code stride} words apart.
+     */
+    private static final class Frame {
+
+        private GenericSegmentReader segment;
+        private int first;
+        private int pointerCount;
+        private int stride;
+        private long remaining;
+        private int element;
+        private int pointer;
+        private int nestingLimit;
+
+        void init(GenericSegmentReader segment, int first, int pointerCount, int stride, int count, int nestingLimit) {
+            this.segment = segment;
+            this.first = first;
+            this.pointerCount = pointerCount;
+            this.stride = stride;
+            this.remaining = (long) pointerCount * count;
+            this.element = 0;
+            this.pointer = 0;
+            this.nestingLimit = nestingLimit;
+        }
+
+        int next() {
+            final int result = first + element * stride + pointer;
+            remaining--;
+            if (++pointer == pointerCount) {
+                pointer = 0;
+                element++;
+            }
+            return result;
+        }
+    }
+
+    private final AllocatedArena arena;
+    private long remainingWords;
+    private Frame[] stack = new Frame[16];
+    private int depth;
+
+    private MessageValidator(AllocatedArena arena, long traversalLimitInWords) {
+        this.arena = arena;
+        this.remainingWords = traversalLimitInWords;
+    }
+
+    /**
+     * Validates the message of the arena.
+     *
+     * @param arena   the message.
+     * @param options the limits.
+     *
+     * @return the arena with validated segments.
+     *
+     * @throws DecodeException if the message is malformed or exceeds a limit.
+     */
+    public static AllocatedArena validate(AllocatedArena arena, ReaderOptions options) {
+        requireNonNull(arena, "Parameter arena can not be null.");
+        requireNonNull(options, "Parameter options can not be null.");
+        if (arena.getSegments().isEmpty() || arena.tryGetSegment(0).getSize() < Constants.BYTES_PER_WORD) {
+            throw new DecodeException("Message has no root pointer.");
+        }
+        final MessageValidator validator = new MessageValidator(arena, options.traversalLimitInWords);
+        validator.push(arena.tryGetSegment(0), 0, 1, 1, 1, options.nestingLimit);
+        validator.run();
+        return new ValidatedArena(arena);
+    }
+
+    private void run() {
+        while (depth > 0) {
+            final Frame frame = stack[depth - 1];
+            if (frame.remaining == 0) {
+                depth--;
+                continue;
+            }
+            pointer(frame.segment, frame.next(), frame.nestingLimit);
+        }
+    }
+
+    private void push(GenericSegmentReader segment, int first, int pointerCount, int stride, int count, int nestingLimit) {
+        if (pointerCount == 0 || count == 0) {
+            return;
+        }
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        Frame frame = stack[depth];
+        if (frame == null) {
+            frame = new Frame();
+            stack[depth] = frame;
+        }
+        frame.init(segment, first, pointerCount, stride, count, nestingLimit);
+        depth++;
+    }
+
+    private void pointer(GenericSegmentReader segment, int refOffset, int nestingLimit) {
+        final long ref = segment.get(refOffset);
+        if (WirePointer.isNull(ref)) {
+            return;
+        }
+        if (WirePointer.kind(ref) != WirePointer.FAR) {
+            object(segment, WirePointer.target(refOffset, ref), ref, nestingLimit);
+            return;
+        }
+        final GenericSegmentReader padSegment = segment(FarPointer.getSegmentId(ref));
+        final int padOffset = FarPointer.positionInSegment(ref);
+        if (!FarPointer.isDoubleFar(ref)) {
+            checkBounds(padSegment, padOffset, 1);
+            final long pad = padSegment.get(padOffset);
+            if (WirePointer.kind(pad) == WirePointer.FAR) {
+                throw new DecodeException("Far pointer landing pad is another far pointer.");
+            }
+            object(padSegment, WirePointer.target(padOffset, pad), pad, nestingLimit);
+            return;
+        }
+        //# Landing pad is another far pointer. It is
+        //# followed by a tag describing the pointed-to
+        //# object.
+        checkBounds(padSegment, padOffset, 2);
+        final long pad = padSegment.get(padOffset);
+        final long tag = padSegment.get(padOffset + 1);
+        if (WirePointer.kind(pad) != WirePointer.FAR || FarPointer.isDoubleFar(pad)) {
+            throw new DecodeException("Double far pointer landing pad is not a single far pointer.");
+        }
+        if (WirePointer.kind(tag) == WirePointer.FAR) {
+            throw new DecodeException("Double far pointer tag is a far pointer.");
+        }
+        object(segment(FarPointer.getSegmentId(pad)), FarPointer.positionInSegment(pad), tag, nestingLimit);
+    }
+
+    private void object(GenericSegmentReader segment, int ptr, long ref, int nestingLimit) {
+        switch (WirePointer.kind(ref)) {
+            case WirePointer.STRUCT:
+                struct(segment, ptr, ref, nestingLimit);
+                return;
+            case WirePointer.LIST:
+                list(segment, ptr, ref, nestingLimit);
+                return;
+            default:
+                // capabilities have no content in the message
+        }
+    }
+
+    private void struct(GenericSegmentReader segment, int ptr, long ref, int nestingLimit) {
+        if (nestingLimit <= 0) {
+            throw new DecodeException(NESTING);
+        }
+        checkBounds(segment, ptr, StructPointer.wordSize(ref));
+        charge(StructPointer.wordSize(ref));
+        push(segment, ptr + StructPointer.dataSize(ref), StructPointer.ptrCount(ref), 0, 1, nestingLimit - 1);
+    }
+
+    private void list(GenericSegmentReader segment, int ptr, long ref, int nestingLimit) {
+        if (nestingLimit <= 0) {
+            throw new DecodeException(NESTING);
+        }
+        final byte elementSize = ListPointer.elementSize(ref);
+        final int elementCount = ListPointer.elementCount(ref);
+        switch (elementSize) {
+            case ElementSize.INLINE_COMPOSITE: {
+                final int wordCount = ListPointer.inlineCompositeWordCount(ref);
+                checkBounds(segment, ptr, wordCount + 1L);
+                charge(wordCount + 1L);
+                final long tag = segment.get(ptr);
+                if (WirePointer.kind(tag) != WirePointer.STRUCT) {
+                    throw new DecodeException("INLINE_COMPOSITE lists of non-STRUCT type are not supported.");
+                }
+                final int size = WirePointer.inlineCompositeListElementCount(tag);
+                final int wordsPerElement = StructPointer.wordSize(tag);
+                if ((long) size * wordsPerElement > wordCount) {
+                    throw new DecodeException("INLINE_COMPOSITE list's elements overrun its word count.");
+                }
+                if (wordsPerElement == 0) {
+                    // lists of zero-sized structs can claim to be arbitrarily large
+                    charge(size);
+                }
+                push(segment, ptr + 1 + StructPointer.dataSize(tag), StructPointer.ptrCount(tag), wordsPerElement, size, nestingLimit - 1);
+                return;
+            }
+            case ElementSize.POINTER:
+                checkBounds(segment, ptr, elementCount);
+                charge(elementCount);
+                push(segment, ptr, 1, 1, elementCount, nestingLimit - 1);
+                return;
+            default: {
+                final long words = WireHelpers.roundBitsUpToWords((long) elementCount * ElementSize.dataBitsPerElement(elementSize));
+                checkBounds(segment, ptr, words);
+                charge(words);
+                if (elementSize == ElementSize.VOID) {
+                    // lists of void can claim to be arbitrarily large
+                    charge(elementCount);
+                }
+            }
+        }
+    }
+
+    private GenericSegmentReader segment(int id) {
+        if (id < 0 || id >= arena.getSegments().size()) {
+            throw new DecodeException("Message contains far pointer to unknown segment " + id + ".");
+        }
+        return arena.tryGetSegment(id);
+    }
+
+    private static void checkBounds(GenericSegmentReader segment, int ptr, long words) {
+        if (ptr < 0 || ptr + words > segment.getSize() / Constants.BYTES_PER_WORD) {
+            throw new DecodeException("Message contains out-of-bounds pointer.");
+        }
+    }
+
+    private void charge(long words) {
+        remainingWords -= words;
+        if (remainingWords < 0) {
+            throw new DecodeException("Read limit exceeded.");
+        }
+    }
+}
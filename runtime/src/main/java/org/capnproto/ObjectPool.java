@@ -0,0 +1,132 @@
+package org.capnproto;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded FIFO of recycled objects with counters. A shared pool is guarded
+ * by a flag instead of a lock: a thread that finds the pool in use treats it
+ * as empty or full, so it never blocks.
+ *
+ * @param <T> the type of the objects.
+ */
+final class ObjectPool<T> implements RecyclerStatistics {
+
+    private final ArrayDeque<T> queue;
+    private final int capacity;
+    private final AtomicBoolean inUse;
+    // only updated while the pool is guarded, or by the owner of an unshared pool
+    private long hits;
+    private long misses;
+    private long evictions;
+    // the misses and evictions of threads that found a shared pool in use
+    private final LongAdder contendedMisses;
+    private final LongAdder contendedEvictions;
+
+    ObjectPool(int capacity, boolean shared) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity " + capacity + " is negative");
+        }
+        this.capacity = capacity;
+        this.queue = new ArrayDeque<>(Math.max(1, Math.min(capacity, 16)));
+        this.inUse = shared ? new AtomicBoolean() : null;
+        this.contendedMisses = shared ? new LongAdder() : null;
+        this.contendedEvictions = shared ? new LongAdder() : null;
+    }
+
+    /**
+     * Takes the oldest object.
+     *
+     * @return the object, or null if the caller has to create one.
+     */
+    T poll() {
+        if (inUse == null) {
+            return pollUnguarded();
+        }
+        if (!inUse.compareAndSet(false, true)) {
+            contendedMisses.increment();
+            return null;
+        }
+        try {
+            return pollUnguarded();
+        } finally {
+            inUse.set(false);
+        }
+    }
+
+    /**
+     * Puts the object into the pool, unless it is full.
+     *
+     * @param value the object.
+     */
+    void offer(T value) {
+        if (inUse == null) {
+            offerUnguarded(value);
+            return;
+        }
+        if (!inUse.compareAndSet(false, true)) {
+            contendedEvictions.increment();
+            return;
+        }
+        try {
+            offerUnguarded(value);
+        } finally {
+            inUse.set(false);
+        }
+    }
+
+    private T pollUnguarded() {
+        final T result = queue.poll();
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    private void offerUnguarded(T value) {
+        if (queue.size() < capacity) {
+            queue.offer(value);
+        } else {
+            evictions++;
+        }
+    }
+
+    // reading the guard makes the counters of the last guarded update visible
+    private void readGuard() {
+        if (inUse != null) {
+            inUse.get();
+        }
+    }
+
+    @Override
+    public long getHits() {
+        readGuard();
+        return hits;
+    }
+
+    @Override
+    public long getMisses() {
+        readGuard();
+        return contendedMisses == null ? misses : misses + contendedMisses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        readGuard();
+        return contendedEvictions == null ? evictions : evictions + contendedEvictions.sum();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        readGuard();
+        return queue.size();
+    }
+}
@@ -0,0 +1,107 @@
+package org.capnproto;
+
+/**
+ * An object of a message that is not referenced from the root of the message.
+ * Orphans are created by an {@link Orphanage} or by disowning a pointer field
+ * or element, and are attached again by adopting them.
+ * <p>
+ * Adopting an orphan into the message it belongs to only moves a pointer, the
+ * object itself is neither copied nor moved. Adopting it into another message
+ * copies the object and clears it in its own message. An orphan is null after
+ * it was adopted.
+ */
+public final class Orphan {
+
+    // the word holding the pointer to the object
+    final GenericSegmentBuilder segment;
+    final int pointer;
+
+    Orphan(GenericSegmentBuilder segment, int pointer) {
+        this.segment = segment;
+        this.pointer = pointer;
+    }
+
+    /**
+     * Allocates the pointer of a new orphan, preferably in the given segment.
+     *
+     * @param near the segment.
+     *
+     * @return the orphan, with a null pointer.
+     */
+    static Orphan allocate(GenericSegmentBuilder near) {
+        final int pointer = near.allocate(1);
+        if (pointer != GenericSegmentBuilder.FAILED_ALLOCATION) {
+            return new Orphan(near, pointer);
+        }
+        final BuilderArena.AllocateResult allocation = near.getArena().allocate(1);
+        return new Orphan(allocation.segment, allocation.offset);
+    }
+
+    /**
+     * Detaches the object of the pointer from the message. The pointer is null
+     * afterwards.
+     *
+     * @param segment   the segment of the pointer.
+     * @param refOffset the word offset of the pointer.
+     *
+     * @return the orphan.
+     */
+    static Orphan disown(GenericSegmentBuilder segment, int refOffset) {
+        final Orphan orphan = allocate(segment);
+        WireHelpers.transferPointer(orphan.segment, orphan.pointer, segment, refOffset);
+        segment.put(refOffset, 0L);
+        return orphan;
+    }
+
+    /**
+     * Attaches the object of this orphan to the pointer. The current object of
+     * the pointer is cleared.
+     *
+     * @param segment   the segment of the pointer.
+     * @param refOffset the word offset of the pointer.
+     */
+    void adoptInto(GenericSegmentBuilder segment, int refOffset) {
+        WireHelpers.zeroObject(segment, refOffset);
+        if (segment.getArena() == this.segment.getArena()) {
+            WireHelpers.transferPointer(segment, refOffset, this.segment, this.pointer);
+        } else {
+            WireHelpers.copyPointer(segment, refOffset, this.segment, this.pointer, java.lang.Integer.MAX_VALUE);
+            WireHelpers.zeroObject(this.segment, this.pointer);
+        }
+        this.segment.put(this.pointer, 0L);
+    }
+
+    /**
+     * Tells whether this orphan has no object, because it was adopted or
+     * disowned from a null pointer.
+     *
+     * @return true if there is no object.
+     */
+    public boolean isNull() {
+        return WirePointer.isNull(segment.get(pointer));
+    }
+
+    /**
+     * Retrieve the object as builder.
+     *
+     * @param <T>     the type of the builder.
+     * @param factory the factory of the builder.
+     *
+     * @return the builder.
+     */
+    public <T> T getAs(FromPointerBuilder<T> factory) {
+        return factory.fromPointerBuilder(segment, pointer);
+    }
+
+    /**
+     * Retrieve the object as reader.
+     *
+     * @param <T>     the type of the reader.
+     * @param factory the factory of the reader.
+     *
+     * @return the reader.
+     */
+    public <T> T getAsReader(FromPointerReader<T> factory) {
+        return factory.fromPointerReader(segment, pointer, java.lang.Integer.MAX_VALUE);
+    }
+}
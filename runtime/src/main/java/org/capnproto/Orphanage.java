@@ -0,0 +1,66 @@
+package org.capnproto;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates {@link Orphan}s in a message. Objects built as orphans can be
+ * attached anywhere in the message later, without copying them.
+ */
+public final class Orphanage {
+
+    private final MessageBuilder message;
+
+    Orphanage(MessageBuilder message) {
+        this.message = message;
+    }
+
+    private Orphan allocate() {
+        // the first word of the message is reserved for the root pointer
+        message.getRoot(AnyPointer.factory);
+        final BuilderArena.AllocateResult allocation = message.getArena().allocate(1);
+        return new Orphan(allocation.segment, allocation.offset);
+    }
+
+    /**
+     * Creates an orphan struct.
+     *
+     * @param factory the factory of the struct.
+     *
+     * @return the orphan.
+     */
+    public Orphan newOrphan(FromPointerBuilder<?> factory) {
+        return newOrphan(factory, 0);
+    }
+
+    /**
+     * Creates an orphan list, text or data.
+     *
+     * @param factory      the factory of the object.
+     * @param elementCount the number of elements.
+     *
+     * @return the orphan.
+     */
+    public Orphan newOrphan(FromPointerBuilder<?> factory, int elementCount) {
+        requireNonNull(factory, "Parameter factory can not be null.");
+        final Orphan orphan = allocate();
+        factory.initFromPointerBuilder(orphan.segment, orphan.pointer, elementCount);
+        return orphan;
+    }
+
+    /**
+     * Creates an orphan with a copy of the value.
+     *
+     * @param <T>     the type of the builder.
+     * @param <U>     the type of the reader.
+     * @param factory the factory of the object.
+     * @param value   the value to copy.
+     *
+     * @return the orphan.
+     */
+    public <T, U> Orphan newOrphanCopy(SetPointerBuilder<T, U> factory, U value) {
+        requireNonNull(factory, "Parameter factory can not be null.");
+        final Orphan orphan = allocate();
+        factory.setPointerBuilder(orphan.segment, orphan.pointer, value);
+        return orphan;
+    }
+}
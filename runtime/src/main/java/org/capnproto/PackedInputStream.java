@@ -23,15 +23,149 @@ package org.capnproto;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
 
 public final class PackedInputStream implements ReadableByteChannel {
+
+    // the number of non zero bytes following a tag
+    private static final byte[] NON_ZERO_COUNT = new byte[256];
+    // byte k of an entry is the bit shift of the k-th non zero byte of the tag
+    private static final long[] SCATTER_SHIFTS = new long[256];
+    // masks the first n bytes of a word
+    private static final long[] LOW_BYTES_MASK = new long[9];
+
+    static {
+        for (int tag = 0; tag < 256; tag++) {
+            long shifts = 0;
+            int k = 0;
+            for (int i = 0; i < 8; i++) {
+                if ((tag & (1 << i)) != 0) {
+                    shifts |= (long) (i * 8) << (k * 8);
+                    k++;
+                }
+            }
+            NON_ZERO_COUNT[tag] = (byte) k;
+            SCATTER_SHIFTS[tag] = shifts;
+        }
+        for (int n = 0; n < 8; n++) {
+            LOW_BYTES_MASK[n] = (1L << (n * 8)) - 1;
+        }
+        LOW_BYTES_MASK[8] = -1L;
+    }
+
     final BufferedInputStream inner;
 
     public PackedInputStream(BufferedInputStream input) {
         this.inner = input;
     }
 
+    /**
+     * Moves the non zero bytes to their position in the unpacked word.
+     *
+     * @param tag    the tag of the word.
+     * @param packed the little endian word starting with the non zero bytes.
+     *               The following bytes are ignored.
+     *
+     * @return the unpacked little endian word.
+     */
+    static long unpackWord(int tag, long packed) {
+        final long shifts = SCATTER_SHIFTS[tag];
+        final long bytes = packed & LOW_BYTES_MASK[NON_ZERO_COUNT[tag]];
+        // the masked bytes are zero, so their shift does not matter
+        return (bytes & 0xff) << (shifts & 0x3f)
+                | ((bytes >>> 8) & 0xff) << ((shifts >>> 8) & 0x3f)
+                | ((bytes >>> 16) & 0xff) << ((shifts >>> 16) & 0x3f)
+                | ((bytes >>> 24) & 0xff) << ((shifts >>> 24) & 0x3f)
+                | ((bytes >>> 32) & 0xff) << ((shifts >>> 32) & 0x3f)
+                | ((bytes >>> 40) & 0xff) << ((shifts >>> 40) & 0x3f)
+                | ((bytes >>> 48) & 0xff) << ((shifts >>> 48) & 0x3f)
+                | (bytes >>> 56) << ((shifts >>> 56) & 0x3f);
+    }
+
+    private static void fillZero(ByteBuffer outBuf, int length) {
+        final int position = outBuf.position();
+        if (outBuf.hasArray()) {
+            final int start = outBuf.arrayOffset() + position;
+            Arrays.fill(outBuf.array(), start, start + length, (byte) 0);
+        } else {
+            for (int i = 0; i < length; i += 8) {
+                outBuf.putLong(position + i, 0L);
+            }
+        }
+        outBuf.position(position + length);
+    }
+
+    /**
+     * Unpacks data that is completely in memory, without an intermediate
+     * buffer. Both DataViews must be little endian. As with
+     * {@link #read(ByteBuffer)}, a run must not exceed the target range.
+     *
+     * @param src      the packed data.
+     * @param srcIndex the start of the packed data.
+     * @param srcEnd   the end of the packed data.
+     * @param dst      the target.
+     * @param dstIndex the start of the unpacked data. Must be word aligned
+     *                 relative to dstEnd.
+     * @param dstEnd   the end of the unpacked data.
+     *
+     * @return the index in src behind the consumed packed data.
+     *
+     * @throws IOException if the packed data ends before the target range is
+     *                     filled.
+     */
+    static int unpack(DataView src, int srcIndex, int srcEnd, DataView dst, int dstIndex, int dstEnd) throws IOException {
+        if ((dstEnd - dstIndex) % 8 != 0) {
+            throw new CapnProtoException("PackedInputStream reads must be word-aligned");
+        }
+        int inPtr = srcIndex;
+        int outPtr = dstIndex;
+        while (outPtr < dstEnd) {
+            if (inPtr >= srcEnd) {
+                throw new IOException("Incomplete data: packed input ended after " + (outPtr - dstIndex) + " bytes");
+            }
+            final int tag = src.get(inPtr++) & 0xff;
+            final int count = NON_ZERO_COUNT[tag];
+            long word;
+            if (srcEnd - inPtr >= 8) {
+                word = src.getLong(inPtr);
+            } else if (srcEnd - inPtr >= count) {
+                // the end of the data: read byte by byte
+                word = 0;
+                for (int i = 0; i < count; i++) {
+                    word |= (src.get(inPtr + i) & 0xffL) << (i * 8);
+                }
+            } else {
+                throw new IOException("Incomplete data: packed input ended after " + (outPtr - dstIndex) + " bytes");
+            }
+            inPtr += count;
+            dst.putLong(outPtr, tag == 0xff ? word : unpackWord(tag, word));
+            outPtr += 8;
+
+            if (tag == 0 || tag == 0xff) {
+                if (inPtr >= srcEnd) {
+                    throw new IOException("Incomplete data: packed input ended in a run");
+                }
+                final int runLength = (src.get(inPtr++) & 0xff) * 8;
+                if (runLength > dstEnd - outPtr) {
+                    throw new CapnProtoException("Packed input did not end cleanly on a segment boundary");
+                }
+                if (tag == 0) {
+                    dst.zero(outPtr, runLength);
+                } else {
+                    if (runLength > srcEnd - inPtr) {
+                        throw new IOException("Incomplete data: packed input ended in a run");
+                    }
+                    src.writeTo(dst, outPtr, inPtr, runLength);
+                    inPtr += runLength;
+                }
+                outPtr += runLength;
+            }
+        }
+        return inPtr;
+    }
+
     @Override
     public int read(ByteBuffer outBuf) throws IOException {
 
@@ -42,14 +176,12 @@ public final class PackedInputStream implements ReadableByteChannel {
             throw new CapnProtoException("PackedInputStream reads must be word-aligned");
         }
 
-        int outPtr = outBuf.position();
-        int outEnd = outPtr + len;
-
+        final boolean swapOut = outBuf.order() != ByteOrder.LITTLE_ENDIAN;
         ByteBuffer inBuf = this.inner.getReadBuffer();
 
         while (true) {
 
-            byte tag = 0;
+            int tag;
 
             if (inBuf.remaining() < 10) {
                 if (outBuf.remaining() == 0) {
@@ -64,7 +196,7 @@ public final class PackedInputStream implements ReadableByteChannel {
                 //# We have at least 1, but not 10, bytes available. We need to read
                 //# slowly, doing a bounds check on each byte.
 
-                tag = inBuf.get();
+                tag = inBuf.get() & 0xff;
 
                 for (int i = 0; i < 8; ++i) {
                     if ((tag & (1 << i)) != 0) {
@@ -77,17 +209,22 @@ public final class PackedInputStream implements ReadableByteChannel {
                     }
                 }
 
-                if (inBuf.remaining() == 0 && (tag == 0 || tag == (byte)0xff)) {
+                if (inBuf.remaining() == 0 && (tag == 0 || tag == 0xff)) {
                     inBuf = this.inner.getReadBuffer();
                 }
             } else {
-
-                tag = inBuf.get();
-                for (int n = 0; n < 8; ++n) {
-                    boolean isNonzero = (tag & (1 << n)) != 0;
-                    outBuf.put((byte)(inBuf.get() & (isNonzero ? -1 : 0)));
-                    inBuf.position(inBuf.position() + (isNonzero ? 0 : -1));
+                //# Fast path: the word and its non zero bytes are available.
+                tag = inBuf.get() & 0xff;
+                final int inPtr = inBuf.position();
+                long word = inBuf.getLong(inPtr);
+                if (inBuf.order() != ByteOrder.LITTLE_ENDIAN) {
+                    word = Long.reverseBytes(word);
                 }
+                if (tag != 0xff) {
+                    word = unpackWord(tag, word);
+                }
+                inBuf.position(inPtr + NON_ZERO_COUNT[tag]);
+                outBuf.putLong(swapOut ? Long.reverseBytes(word) : word);
             }
 
             if (tag == 0) {
@@ -97,23 +234,21 @@ public final class PackedInputStream implements ReadableByteChannel {
 
                 int runLength = (0xff & (int)inBuf.get()) * 8;
 
-                if (runLength > outEnd - outPtr) {
+                if (runLength > outBuf.remaining()) {
                     throw new CapnProtoException("Packed input did not end cleanly on a segment boundary");
                 }
 
-                for (int i = 0; i < runLength; ++i) {
-                    outBuf.put((byte) 0);
-                }
-            } else if (tag == (byte)0xff) {
+                fillZero(outBuf, runLength);
+            } else if (tag == 0xff) {
 
                 int runLength = (0xff & (int)inBuf.get()) * 8;
 
                 if (inBuf.remaining() >= runLength) {
                     //# Fast path.
-                    ByteBuffer slice = inBuf.slice();
-                    slice.limit(runLength);
-                    outBuf.put(slice);
-                    inBuf.position(inBuf.position() + runLength);
+                    final int inLimit = inBuf.limit();
+                    inBuf.limit(inBuf.position() + runLength);
+                    outBuf.put(inBuf);
+                    inBuf.limit(inLimit);
                 } else {
                     //# Copy over the first buffer, then do one big read for the rest.
                     runLength -= inBuf.remaining();
@@ -23,21 +23,68 @@ package org.capnproto;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.WritableByteChannel;
 
 public final class PackedOutputStream implements WritableByteChannel {
+
+    private static final long LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    // moves the high bit of byte i to bit 56 + i
+    private static final long GATHER_HIGH_BITS = 0x0102040810204080L;
+
+    // byte k of an entry is the bit shift of the k-th non zero byte of the tag
+    private static final long[] NON_ZERO_SHIFTS = new long[256];
+
+    static {
+        for (int tag = 0; tag < 256; tag++) {
+            long shifts = 0;
+            int k = 0;
+            for (int i = 0; i < 8; i++) {
+                if ((tag & (1 << i)) != 0) {
+                    shifts |= (long) (i * 8) << (k * 8);
+                    k++;
+                }
+            }
+            NON_ZERO_SHIFTS[tag] = shifts;
+        }
+    }
+
     final BufferedOutputStream inner;
+    // used if the write buffer of inner has not enough space for one word
+    private final ByteBuffer slowBuffer = ByteBuffer.allocate(20);
 
     public PackedOutputStream(BufferedOutputStream output) {
         this.inner = output;
     }
 
+    /**
+     * Finds the non zero bytes of a word without branches.
+     *
+     * @return the word with the high bit of each non zero byte set.
+     */
+    static long nonZeroBytes(long word) {
+        return (((word & LOW_BITS) + LOW_BITS) | word) & HIGH_BITS;
+    }
+
+    /**
+     * Computes the tag of a little endian word: bit i is set if byte i is not
+     * zero.
+     *
+     * @param nonZeroBytes the result of {@link #nonZeroBytes(long)}.
+     *
+     * @return the tag.
+     */
+    static int tag(long nonZeroBytes) {
+        return (int) (((nonZeroBytes >>> 7) * GATHER_HIGH_BITS) >>> 56);
+    }
+
     @Override
     public int write(ByteBuffer inBuf) throws IOException {
         int length = inBuf.remaining();
         ByteBuffer out = this.inner.getWriteBuffer();
-
-        ByteBuffer slowBuffer = ByteBuffer.allocate(20);
+        // the words are handled as little endian longs: byte i is bits 8i to 8i + 7
+        final boolean swapIn = inBuf.order() != ByteOrder.LITTLE_ENDIAN;
 
         int inPtr = inBuf.position();
         int inEnd = inPtr + length;
@@ -48,74 +95,39 @@ public final class PackedOutputStream implements WritableByteChannel {
                 //# bounds-check on every byte.
 
                 if (out == slowBuffer) {
-                    int oldLimit = out.limit();
-                    out.limit(out.position());
-                    out.rewind();
-                    this.inner.write(out);
-                    out.limit(oldLimit);
+                    flushSlowBuffer();
                 }
 
                 out = slowBuffer;
-                out.rewind();
+                out.clear();
             }
 
-            int tagPos = out.position();
-            out.position(tagPos + 1);
-
-            byte curByte;
-
-            curByte = inBuf.get(inPtr);
-            byte bit0 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit0 - 1);
-            inPtr += 1;
-
-            curByte = inBuf.get(inPtr);
-            byte bit1 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit1 - 1);
-            inPtr += 1;
-
-            curByte = inBuf.get(inPtr);
-            byte bit2 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit2 - 1);
-            inPtr += 1;
-
-            curByte = inBuf.get(inPtr);
-            byte bit3 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit3 - 1);
-            inPtr += 1;
-
-            curByte = inBuf.get(inPtr);
-            byte bit4 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit4 - 1);
-            inPtr += 1;
-
-            curByte = inBuf.get(inPtr);
-            byte bit5 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit5 - 1);
-            inPtr += 1;
-
-            curByte = inBuf.get(inPtr);
-            byte bit6 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit6 - 1);
-            inPtr += 1;
-
-            curByte = inBuf.get(inPtr);
-            byte bit7 = (curByte != 0) ? (byte)1 : (byte)0;
-            out.put(curByte);
-            out.position(out.position() + bit7 - 1);
-            inPtr += 1;
-
-            byte tag = (byte)((bit0 << 0) | (bit1 << 1) | (bit2 << 2) | (bit3 << 3) |
-                              (bit4 << 4) | (bit5 << 5) | (bit6 << 6) | (bit7 << 7));
-
-            out.put(tagPos, tag);
+            long word = inBuf.getLong(inPtr);
+            if (swapIn) {
+                word = Long.reverseBytes(word);
+            }
+            inPtr += 8;
+
+            int tag = tag(nonZeroBytes(word));
+            out.put((byte) tag);
+            // the non zero bytes are moved to the start of the word, which is
+            // written completely. There is room for it, as at least 10 bytes
+            // were available. The position is only moved over the non zero
+            // bytes.
+            long compacted = word;
+            if (tag != 0xff) {
+                long shifts = NON_ZERO_SHIFTS[tag];
+                compacted = (word >>> (shifts & 0x3f)) & 0xff
+                        | ((word >>> ((shifts >>> 8) & 0x3f)) & 0xff) << 8
+                        | ((word >>> ((shifts >>> 16) & 0x3f)) & 0xff) << 16
+                        | ((word >>> ((shifts >>> 24) & 0x3f)) & 0xff) << 24
+                        | ((word >>> ((shifts >>> 32) & 0x3f)) & 0xff) << 32
+                        | ((word >>> ((shifts >>> 40) & 0x3f)) & 0xff) << 40
+                        | ((word >>> ((shifts >>> 48) & 0x3f)) & 0xff) << 48;
+            }
+            int outPtr = out.position();
+            out.putLong(outPtr, out.order() == ByteOrder.LITTLE_ENDIAN ? compacted : Long.reverseBytes(compacted));
+            out.position(outPtr + Integer.bitCount(tag));
 
             if (tag == 0) {
                 //# An all-zero word is followed by a count of
@@ -126,12 +138,12 @@ public final class PackedOutputStream implements WritableByteChannel {
                 if (limit - inPtr > 255 * 8) {
                     limit = inPtr + 255 * 8;
                 }
-                while(inPtr < limit && inBuf.getLong(inPtr) == 0){
+                while (inPtr < limit && inBuf.getLong(inPtr) == 0) {
                     inPtr += 8;
                 }
-                out.put((byte)((inPtr - runStart)/8));
+                out.put((byte) ((inPtr - runStart) / 8));
 
-            } else if (tag == (byte)0xff) {
+            } else if (tag == 0xff) {
                 //# An all-nonzero word is followed by a count of
                 //# consecutive uncompressed words, followed by the
                 //# uncompressed words themselves.
@@ -148,47 +160,42 @@ public final class PackedOutputStream implements WritableByteChannel {
                 }
 
                 while (inPtr < limit) {
-                    byte c = 0;
-                    for (int ii = 0; ii < 8; ++ii) {
-                        c += (inBuf.get(inPtr) == 0 ? 1 : 0);
-                        inPtr += 1;
-                    }
-                    if (c >= 2) {
+                    // the byte order does not matter for counting zero bytes
+                    long zeroBytes = ~nonZeroBytes(inBuf.getLong(inPtr)) & HIGH_BITS;
+                    if (Long.bitCount(zeroBytes) >= 2) {
                         //# Un-read the word with multiple zeros, since
                         //# we'll want to compress that one.
-                        inPtr -= 8;
                         break;
                     }
+                    inPtr += 8;
                 }
 
                 int count = inPtr - runStart;
-                out.put((byte)(count / 8));
+                out.put((byte) (count / 8));
 
+                int inLimit = inBuf.limit();
+                inBuf.limit(runStart + count);
+                inBuf.position(runStart);
                 if (count <= out.remaining()) {
                     //# There's enough space to memcpy.
-                    inBuf.position(runStart);
-                    ByteBuffer slice = inBuf.slice();
-                    slice.limit(count);
-                    out.put(slice);
+                    out.put(inBuf);
+                    inBuf.limit(inLimit);
                 } else {
                     //# Input overruns the output buffer. We'll give it
                     //# to the output stream in one chunk and let it
                     //# decide what to do.
 
                     if (out == slowBuffer) {
-                        int oldLimit = out.limit();
-                        out.limit(out.position());
-                        out.rewind();
-                        this.inner.write(out);
-                        out.limit(oldLimit);
+                        inBuf.limit(inLimit);
+                        flushSlowBuffer();
+                        inBuf.limit(runStart + count);
+                        inBuf.position(runStart);
                     }
 
-                    inBuf.position(runStart);
-                    ByteBuffer slice = inBuf.slice();
-                    slice.limit(count);
-                    while(slice.hasRemaining()) {
-                        this.inner.write(slice);
+                    while (inBuf.hasRemaining()) {
+                        this.inner.write(inBuf);
                     }
+                    inBuf.limit(inLimit);
 
                     out = this.inner.getWriteBuffer();
                 }
@@ -196,15 +203,19 @@ public final class PackedOutputStream implements WritableByteChannel {
         }
 
         if (out == slowBuffer) {
-            out.limit(out.position());
-            out.rewind();
-            this.inner.write(out);
+            flushSlowBuffer();
         }
 
         inBuf.position(inPtr);
         return length;
     }
 
+    private void flushSlowBuffer() throws IOException {
+        slowBuffer.flip();
+        this.inner.write(slowBuffer);
+        slowBuffer.clear();
+    }
+
     @Override
     public void close() throws IOException {
         this.inner.close();
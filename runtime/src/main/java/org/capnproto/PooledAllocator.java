@@ -0,0 +1,191 @@
+package org.capnproto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.capnproto.DefaultAllocator.ByteBufferAllocationStyle;
+
+/**
+ * An Allocator, that reuses the segments released by
+ * {@link MessageBuilder#release()}.
+ * <p>
+ * Segments are managed in size classes of powers of two, from
+ * {@code minimumSegmentBytes} up to {@code maximumSegmentBytes}. Each thread
+ * has a small cache per size class in front of a bounded pool shared by all
+ * threads. Released segments are zeroed over the range that was used by the
+ * message, before they are put into a cache. Larger segments are neither
+ * pooled nor counted.
+ * <p>
+ * An instance can be shared by any number of MessageBuilders and threads.
+ */
+public final class PooledAllocator implements Allocator {
+
+    public static final int DEFAULT_MINIMUM_SEGMENT_BYTES = BuilderArena.SUGGESTED_FIRST_SEGMENT_WORDS * Constants.BYTES_PER_WORD;
+    public static final int DEFAULT_MAXIMUM_SEGMENT_BYTES = 1 << 24;
+    public static final int DEFAULT_THREAD_CACHE_SIZE = 16;
+    public static final int DEFAULT_SHARED_POOL_SIZE = 256;
+
+    // the segments of one size class, shared by all threads
+    private static final class SharedPool {
+
+        final ConcurrentLinkedQueue<DataView> segments = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    private final ByteBufferAllocationStyle allocationStyle;
+    private final int minimumShift;
+    private final int maximumShift;
+    private final int threadCacheSize;
+    private final int sharedPoolSize;
+    private final List<SharedPool> sharedPools;
+    private final ThreadLocal<List<ArrayDeque<DataView>>> threadCaches;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a pool of heap segments with the default sizes.
+     */
+    public PooledAllocator() {
+        this(ByteBufferAllocationStyle.REGULAR);
+    }
+
+    /**
+     * Creates a pool with the default sizes.
+     *
+     * @param allocationStyle the kind of memory used for the segments.
+     */
+    public PooledAllocator(ByteBufferAllocationStyle allocationStyle) {
+        this(allocationStyle, DEFAULT_MINIMUM_SEGMENT_BYTES, DEFAULT_MAXIMUM_SEGMENT_BYTES,
+                DEFAULT_THREAD_CACHE_SIZE, DEFAULT_SHARED_POOL_SIZE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param allocationStyle     the kind of memory used for the segments.
+     * @param minimumSegmentBytes the smallest size class. Rounded up to a power
+     *                            of two.
+     * @param maximumSegmentBytes the largest size class. Rounded up to a power
+     *                            of two.
+     * @param threadCacheSize     the number of segments per size class cached
+     *                            by each thread.
+     * @param sharedPoolSize      the number of segments per size class in the
+     *                            shared pool.
+     */
+    public PooledAllocator(ByteBufferAllocationStyle allocationStyle, int minimumSegmentBytes, int maximumSegmentBytes,
+            int threadCacheSize, int sharedPoolSize) {
+        if (minimumSegmentBytes < Constants.BYTES_PER_WORD || maximumSegmentBytes < minimumSegmentBytes
+                || maximumSegmentBytes > 1 << 30) {
+            throw new IllegalArgumentException("Invalid segment sizes " + minimumSegmentBytes + " - " + maximumSegmentBytes);
+        }
+        this.allocationStyle = allocationStyle;
+        this.minimumShift = shift(minimumSegmentBytes);
+        this.maximumShift = shift(maximumSegmentBytes);
+        this.threadCacheSize = threadCacheSize;
+        this.sharedPoolSize = sharedPoolSize;
+        final int classes = maximumShift - minimumShift + 1;
+        this.sharedPools = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            sharedPools.add(new SharedPool());
+        }
+        this.threadCaches = ThreadLocal.withInitial(() -> {
+            List<ArrayDeque<DataView>> caches = new ArrayList<>(classes);
+            for (int i = 0; i < classes; i++) {
+                caches.add(new ArrayDeque<>(threadCacheSize));
+            }
+            return caches;
+        });
+    }
+
+    // the exponent of the smallest power of two >= size
+    private static int shift(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    @Override
+    public DataView allocateSegment(int minimumSize) {
+        final int shift = Math.max(minimumShift, shift(minimumSize));
+        if (shift > maximumShift) {
+            return newSegment(minimumSize);
+        }
+        final int sizeClass = shift - minimumShift;
+        DataView result = threadCaches.get().get(sizeClass).pollLast();
+        if (result == null) {
+            final SharedPool pool = sharedPools.get(sizeClass);
+            result = pool.segments.poll();
+            if (result != null) {
+                pool.size.decrementAndGet();
+            }
+        }
+        if (result == null) {
+            misses.increment();
+            return newSegment(1 << shift);
+        }
+        hits.increment();
+        return result;
+    }
+
+    private DataView newSegment(int size) {
+        final DataView result;
+        switch (allocationStyle) {
+            case DIRECT:
+                result = new ByteBufferDataView(ByteBuffer.allocateDirect(size));
+                break;
+            case BYTE_ARRAY:
+                result = ByteArrayDataView.allocate(size);
+                break;
+            default:
+                result = new ByteBufferDataView(ByteBuffer.allocate(size));
+        }
+        // segments are always little endian, independent of the default of the view
+        result.order(ByteOrder.LITTLE_ENDIAN);
+        return result;
+    }
+
+    @Override
+    public void releaseSegment(DataView segment, int usedBytes) {
+        final int capacity = segment.capacity();
+        final int shift = shift(capacity);
+        if (Integer.bitCount(capacity) != 1 || shift < minimumShift || shift > maximumShift) {
+            // not one of ours
+            return;
+        }
+        segment.limit(capacity);
+        segment.zero(0, Math.min(usedBytes, capacity));
+        segment.rewindReaderPosition();
+        final int sizeClass = shift - minimumShift;
+        final ArrayDeque<DataView> cache = threadCaches.get().get(sizeClass);
+        final SharedPool pool = sharedPools.get(sizeClass);
+        if (cache.size() < threadCacheSize) {
+            cache.addLast(segment);
+        } else if (pool.size.incrementAndGet() <= sharedPoolSize) {
+            pool.segments.offer(segment);
+        } else {
+            pool.size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Retrieve the number of allocations served by a pooled segment.
+     *
+     * @return the hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Retrieve the number of allocations of a size class, that needed a new
+     * segment.
+     *
+     * @return the misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -20,10 +20,14 @@
 // THE SOFTWARE.
 package org.capnproto;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -36,18 +40,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.VOID);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -55,7 +51,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -65,7 +61,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -227,7 +223,7 @@ public class PrimitiveList {
 
             public final Reader asReader() {
                 checkRecycled();
-                final Reader reader = Void.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Void.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -384,18 +380,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.BIT);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -403,7 +391,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -413,7 +401,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -461,6 +449,31 @@ public class PrimitiveList {
                 return _getBooleanElement(index);
             }
 
+            /**
+             * Copies all elements into a new array. Densely packed elements
+             * are copied in one bulk operation.
+             *
+             * @return the array.
+             */
+            public boolean[] toBooleanArray() {
+                checkRecycled();
+                final boolean[] result = new boolean[elementCount];
+                _getBooleanElements(0, result, 0, elementCount);
+                return result;
+            }
+
+            /**
+             * Copies the elements starting at index from into the array.
+             *
+             * @param dst    the target array, filled from index 0.
+             * @param from   the index of the first element.
+             * @param length the number of elements.
+             */
+            public void copyTo(boolean[] dst, int from, int length) {
+                checkRecycled();
+                _getBooleanElements(from, dst, 0, length);
+            }
+
             @Override
             public boolean isEmpty() {
                 checkRecycled();
@@ -585,9 +598,25 @@ public class PrimitiveList {
                 _setBooleanElement(index, value);
             }
 
+            /**
+             * Sets the first elements to the values of the array.
+             *
+             * @param src    the values.
+             * @param offset the start in the array.
+             * @param length the number of values.
+             */
+            public void setAll(boolean[] src, int offset, int length) {
+                checkRecycled();
+                _setBooleanElements(0, src, offset, length);
+            }
+
+            public void setAll(boolean[] src) {
+                setAll(src, 0, src.length);
+            }
+
             public final Reader asReader() {
                 checkRecycled();
-                final Reader reader = Boolean.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Boolean.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -738,18 +767,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.BYTE);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -757,7 +778,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -767,7 +788,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -784,6 +805,42 @@ public class PrimitiveList {
                 return _getByteElement(index);
             }
 
+            /**
+             * Copies all elements into a new array. Densely packed elements
+             * are copied in one bulk operation.
+             *
+             * @return the array.
+             */
+            public byte[] toByteArray() {
+                checkRecycled();
+                final byte[] result = new byte[elementCount];
+                _getByteElements(0, result, 0, elementCount);
+                return result;
+            }
+
+            /**
+             * Copies the elements starting at index from into the array.
+             *
+             * @param dst    the target array, filled from index 0.
+             * @param from   the index of the first element.
+             * @param length the number of elements.
+             */
+            public void copyTo(byte[] dst, int from, int length) {
+                checkRecycled();
+                _getByteElements(from, dst, 0, length);
+            }
+
+            /**
+             * Streams the elements without boxing. The stream is sized and can
+             * be split for parallel processing. The values are widened.
+             *
+             * @return a sequential stream.
+             */
+            public IntStream intStream() {
+                checkRecycled();
+                return StreamSupport.intStream(PrimitiveSpliterators.ofInt(this, 1), false);
+            }
+
             @Override
             public boolean isEmpty() {
                 checkRecycled();
@@ -933,9 +990,55 @@ public class PrimitiveList {
                 _setByteElement(index, value);
             }
 
+            /**
+             * Sets the first elements to the values of the array. The values are
+             * written in one bulk operation.
+             *
+             * @param src    the values.
+             * @param offset the start in the array.
+             * @param length the number of values.
+             */
+            public void setAll(byte[] src, int offset, int length) {
+                checkRecycled();
+                _setByteElements(0, src, offset, length);
+            }
+
+            public void setAll(byte[] src) {
+                setAll(src, 0, src.length);
+            }
+
+            /**
+             * Copies encoded values into the first elements. The bytes are
+             * copied as they are, so they must be little endian like the
+             * message.
+             *
+             * @param src      the source.
+             * @param srcIndex the position of the first value in the source.
+             * @param length   the number of values.
+             */
+            public void setAll(DataView src, int srcIndex, int length) {
+                checkRecycled();
+                _setRawElements(0, src, srcIndex, length, 1);
+            }
+
+            /**
+             * Copies the remaining encoded values of the buffer into the first
+             * elements. The bytes are copied as they are, so they must be
+             * little endian like the message. The position of the buffer is
+             * moved behind the copied values.
+             *
+             * @param src the source.
+             */
+            public void setAll(ByteBuffer src) {
+                checkRecycled();
+                final int length = src.remaining();
+                _setRawElements(0, new ByteBufferDataView(src), src.position(), length, 1);
+                src.position(src.position() + length);
+            }
+
             public final Reader asReader() {
                 checkRecycled();
-                final Reader reader = Byte.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Byte.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -1086,18 +1189,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.TWO_BYTES);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -1105,7 +1200,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -1115,7 +1210,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -1133,6 +1228,42 @@ public class PrimitiveList {
                 return _getShortElement(index);
             }
 
+            /**
+             * Copies all elements into a new array. Densely packed elements
+             * are copied in one bulk operation.
+             *
+             * @return the array.
+             */
+            public short[] toShortArray() {
+                checkRecycled();
+                final short[] result = new short[elementCount];
+                _getShortElements(0, result, 0, elementCount);
+                return result;
+            }
+
+            /**
+             * Copies the elements starting at index from into the array.
+             *
+             * @param dst    the target array, filled from index 0.
+             * @param from   the index of the first element.
+             * @param length the number of elements.
+             */
+            public void copyTo(short[] dst, int from, int length) {
+                checkRecycled();
+                _getShortElements(from, dst, 0, length);
+            }
+
+            /**
+             * Streams the elements without boxing. The stream is sized and can
+             * be split for parallel processing. The values are widened.
+             *
+             * @return a sequential stream.
+             */
+            public IntStream intStream() {
+                checkRecycled();
+                return StreamSupport.intStream(PrimitiveSpliterators.ofInt(this, 2), false);
+            }
+
             @Override
             public boolean isEmpty() {
                 checkRecycled();
@@ -1282,9 +1413,55 @@ public class PrimitiveList {
                 _setShortElement(index, value);
             }
 
+            /**
+             * Sets the first elements to the values of the array. The values are
+             * written in one bulk operation.
+             *
+             * @param src    the values.
+             * @param offset the start in the array.
+             * @param length the number of values.
+             */
+            public void setAll(short[] src, int offset, int length) {
+                checkRecycled();
+                _setShortElements(0, src, offset, length);
+            }
+
+            public void setAll(short[] src) {
+                setAll(src, 0, src.length);
+            }
+
+            /**
+             * Copies encoded values into the first elements. The bytes are
+             * copied as they are, so they must be little endian like the
+             * message.
+             *
+             * @param src      the source.
+             * @param srcIndex the position of the first value in the source.
+             * @param length   the number of values.
+             */
+            public void setAll(DataView src, int srcIndex, int length) {
+                checkRecycled();
+                _setRawElements(0, src, srcIndex, length, 2);
+            }
+
+            /**
+             * Copies the remaining encoded values of the buffer into the first
+             * elements. The bytes are copied as they are, so they must be
+             * little endian like the message. The position of the buffer is
+             * moved behind the copied values.
+             *
+             * @param src the source.
+             */
+            public void setAll(ByteBuffer src) {
+                checkRecycled();
+                final int length = src.remaining() / 2;
+                _setRawElements(0, new ByteBufferDataView(src), src.position(), length, 2);
+                src.position(src.position() + length * 2);
+            }
+
             public final Reader asReader() {
                 checkRecycled();
-                final Reader reader = Short.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Short.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -1436,18 +1613,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.FOUR_BYTES);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -1455,7 +1624,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -1465,7 +1634,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -1486,6 +1655,42 @@ public class PrimitiveList {
                 return _getIntElement(index);
             }
 
+            /**
+             * Copies all elements into a new array. Densely packed elements
+             * are copied in one bulk operation.
+             *
+             * @return the array.
+             */
+            public int[] toIntArray() {
+                checkRecycled();
+                final int[] result = new int[elementCount];
+                _getIntElements(0, result, 0, elementCount);
+                return result;
+            }
+
+            /**
+             * Copies the elements starting at index from into the array.
+             *
+             * @param dst    the target array, filled from index 0.
+             * @param from   the index of the first element.
+             * @param length the number of elements.
+             */
+            public void copyTo(int[] dst, int from, int length) {
+                checkRecycled();
+                _getIntElements(from, dst, 0, length);
+            }
+
+            /**
+             * Streams the elements without boxing. The stream is sized and can
+             * be split for parallel processing.
+             *
+             * @return a sequential stream.
+             */
+            public IntStream intStream() {
+                checkRecycled();
+                return StreamSupport.intStream(PrimitiveSpliterators.ofInt(this, 4), false);
+            }
+
             @Override
             public boolean isEmpty() {
                 checkRecycled();
@@ -1549,9 +1754,7 @@ public class PrimitiveList {
             @Override
             public Stream<Integer> stream() {
                 checkRecycled();
-                return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                        Spliterator.SIZED & Spliterator.IMMUTABLE
-                ), false);
+                return intStream().boxed();
             }
 
             public final class Iterator implements java.util.Iterator<Integer> {
@@ -1634,8 +1837,54 @@ public class PrimitiveList {
                 _setIntElement(index, value);
             }
 
+            /**
+             * Sets the first elements to the values of the array. The values are
+             * written in one bulk operation.
+             *
+             * @param src    the values.
+             * @param offset the start in the array.
+             * @param length the number of values.
+             */
+            public void setAll(int[] src, int offset, int length) {
+                checkRecycled();
+                _setIntElements(0, src, offset, length);
+            }
+
+            public void setAll(int[] src) {
+                setAll(src, 0, src.length);
+            }
+
+            /**
+             * Copies encoded values into the first elements. The bytes are
+             * copied as they are, so they must be little endian like the
+             * message.
+             *
+             * @param src      the source.
+             * @param srcIndex the position of the first value in the source.
+             * @param length   the number of values.
+             */
+            public void setAll(DataView src, int srcIndex, int length) {
+                checkRecycled();
+                _setRawElements(0, src, srcIndex, length, 4);
+            }
+
+            /**
+             * Copies the remaining encoded values of the buffer into the first
+             * elements. The bytes are copied as they are, so they must be
+             * little endian like the message. The position of the buffer is
+             * moved behind the copied values.
+             *
+             * @param src the source.
+             */
+            public void setAll(ByteBuffer src) {
+                checkRecycled();
+                final int length = src.remaining() / 4;
+                _setRawElements(0, new ByteBufferDataView(src), src.position(), length, 4);
+                src.position(src.position() + length * 4);
+            }
+
             public final Reader asReader() {
-                final Reader reader = Int.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Int.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -1782,18 +2031,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.FOUR_BYTES);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -1801,7 +2042,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -1811,7 +2052,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -1859,6 +2100,42 @@ public class PrimitiveList {
                 return _getFloatElement(index);
             }
 
+            /**
+             * Copies all elements into a new array. Densely packed elements
+             * are copied in one bulk operation.
+             *
+             * @return the array.
+             */
+            public float[] toFloatArray() {
+                checkRecycled();
+                final float[] result = new float[elementCount];
+                _getFloatElements(0, result, 0, elementCount);
+                return result;
+            }
+
+            /**
+             * Copies the elements starting at index from into the array.
+             *
+             * @param dst    the target array, filled from index 0.
+             * @param from   the index of the first element.
+             * @param length the number of elements.
+             */
+            public void copyTo(float[] dst, int from, int length) {
+                checkRecycled();
+                _getFloatElements(from, dst, 0, length);
+            }
+
+            /**
+             * Streams the elements without boxing. The stream is sized and can
+             * be split for parallel processing. The values are widened.
+             *
+             * @return a sequential stream.
+             */
+            public DoubleStream doubleStream() {
+                checkRecycled();
+                return StreamSupport.doubleStream(PrimitiveSpliterators.ofDouble(this, 4), false);
+            }
+
             @Override
             public boolean isEmpty() {
                 checkRecycled();
@@ -1981,9 +2258,55 @@ public class PrimitiveList {
                 _setFloatElement(index, value);
             }
 
+            /**
+             * Sets the first elements to the values of the array. The values are
+             * written in one bulk operation.
+             *
+             * @param src    the values.
+             * @param offset the start in the array.
+             * @param length the number of values.
+             */
+            public void setAll(float[] src, int offset, int length) {
+                checkRecycled();
+                _setFloatElements(0, src, offset, length);
+            }
+
+            public void setAll(float[] src) {
+                setAll(src, 0, src.length);
+            }
+
+            /**
+             * Copies encoded values into the first elements. The bytes are
+             * copied as they are, so they must be little endian like the
+             * message.
+             *
+             * @param src      the source.
+             * @param srcIndex the position of the first value in the source.
+             * @param length   the number of values.
+             */
+            public void setAll(DataView src, int srcIndex, int length) {
+                checkRecycled();
+                _setRawElements(0, src, srcIndex, length, 4);
+            }
+
+            /**
+             * Copies the remaining encoded values of the buffer into the first
+             * elements. The bytes are copied as they are, so they must be
+             * little endian like the message. The position of the buffer is
+             * moved behind the copied values.
+             *
+             * @param src the source.
+             */
+            public void setAll(ByteBuffer src) {
+                checkRecycled();
+                final int length = src.remaining() / 4;
+                _setRawElements(0, new ByteBufferDataView(src), src.position(), length, 4);
+                src.position(src.position() + length * 4);
+            }
+
             public final Reader asReader() {
                 checkRecycled();
-                final Reader reader = Float.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Float.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -2135,18 +2458,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.EIGHT_BYTES);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -2154,7 +2469,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -2164,7 +2479,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -2181,6 +2496,42 @@ public class PrimitiveList {
                 return _getLongElement(index);
             }
 
+            /**
+             * Copies all elements into a new array. Densely packed elements
+             * are copied in one bulk operation.
+             *
+             * @return the array.
+             */
+            public long[] toLongArray() {
+                checkRecycled();
+                final long[] result = new long[elementCount];
+                _getLongElements(0, result, 0, elementCount);
+                return result;
+            }
+
+            /**
+             * Copies the elements starting at index from into the array.
+             *
+             * @param dst    the target array, filled from index 0.
+             * @param from   the index of the first element.
+             * @param length the number of elements.
+             */
+            public void copyTo(long[] dst, int from, int length) {
+                checkRecycled();
+                _getLongElements(from, dst, 0, length);
+            }
+
+            /**
+             * Streams the elements without boxing. The stream is sized and can
+             * be split for parallel processing.
+             *
+             * @return a sequential stream.
+             */
+            public LongStream longStream() {
+                checkRecycled();
+                return StreamSupport.longStream(PrimitiveSpliterators.ofLong(this), false);
+            }
+
             @Override
             public boolean isEmpty() {
                 checkRecycled();
@@ -2243,8 +2594,7 @@ public class PrimitiveList {
             @Override
             public Stream<java.lang.Long> stream() {
                 checkRecycled();
-                return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                        Spliterator.SIZED & Spliterator.IMMUTABLE), false);
+                return longStream().boxed();
             }
 
             public final class Iterator implements java.util.Iterator<java.lang.Long> {
@@ -2329,9 +2679,55 @@ public class PrimitiveList {
                 _setLongElement(index, value);
             }
 
+            /**
+             * Sets the first elements to the values of the array. The values are
+             * written in one bulk operation.
+             *
+             * @param src    the values.
+             * @param offset the start in the array.
+             * @param length the number of values.
+             */
+            public void setAll(long[] src, int offset, int length) {
+                checkRecycled();
+                _setLongElements(0, src, offset, length);
+            }
+
+            public void setAll(long[] src) {
+                setAll(src, 0, src.length);
+            }
+
+            /**
+             * Copies encoded values into the first elements. The bytes are
+             * copied as they are, so they must be little endian like the
+             * message.
+             *
+             * @param src      the source.
+             * @param srcIndex the position of the first value in the source.
+             * @param length   the number of values.
+             */
+            public void setAll(DataView src, int srcIndex, int length) {
+                checkRecycled();
+                _setRawElements(0, src, srcIndex, length, 8);
+            }
+
+            /**
+             * Copies the remaining encoded values of the buffer into the first
+             * elements. The bytes are copied as they are, so they must be
+             * little endian like the message. The position of the buffer is
+             * moved behind the copied values.
+             *
+             * @param src the source.
+             */
+            public void setAll(ByteBuffer src) {
+                checkRecycled();
+                final int length = src.remaining() / 8;
+                _setRawElements(0, new ByteBufferDataView(src), src.position(), length, 8);
+                src.position(src.position() + length * 8);
+            }
+
             public final Reader asReader() {
                 checkRecycled();
-                final Reader reader = Long.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Long.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -2483,18 +2879,10 @@ public class PrimitiveList {
             Factory() {
                 super(ElementSize.EIGHT_BYTES);
             }
-            private final static ThreadLocal<org.capnproto.Recycler<Reader>> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Reader>>() {
-                @Override
-                protected org.capnproto.Recycler<Reader> initialValue() {
-                    return new org.capnproto.Recycler<>(Reader::new);
-                }
-            };
-            private final static ThreadLocal<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler<Builder>>() {
-                @Override
-                protected org.capnproto.Recycler<Builder> initialValue() {
-                    return new org.capnproto.Recycler<>(Builder::new);
-                }
-            };
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Reader>> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+            private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<Builder>> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                    (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
             @Override
             public final Reader constructReader(SegmentDataContainer segment,
@@ -2502,7 +2890,7 @@ public class PrimitiveList {
                     int elementCount, int step,
                     int structDataSize, short structPointerCount,
                     int nestingLimit) {
-                final Reader reader = READER_RECYCLER.get().getOrCreate();
+                final Reader reader = READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
                 return reader;
             }
@@ -2512,7 +2900,7 @@ public class PrimitiveList {
                     int ptr,
                     int elementCount, int step,
                     int structDataSize, short structPointerCount) {
-                Builder builder = BUILDER_RECYCLER.get().getOrCreate();
+                Builder builder = BUILDER_RECYCLER.get(segment).getOrCreate();
                 builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
                 return builder;
             }
@@ -2560,6 +2948,42 @@ public class PrimitiveList {
                 return _getDoubleElement(index);
             }
 
+            /**
+             * Copies all elements into a new array. Densely packed elements
+             * are copied in one bulk operation.
+             *
+             * @return the array.
+             */
+            public double[] toDoubleArray() {
+                checkRecycled();
+                final double[] result = new double[elementCount];
+                _getDoubleElements(0, result, 0, elementCount);
+                return result;
+            }
+
+            /**
+             * Copies the elements starting at index from into the array.
+             *
+             * @param dst    the target array, filled from index 0.
+             * @param from   the index of the first element.
+             * @param length the number of elements.
+             */
+            public void copyTo(double[] dst, int from, int length) {
+                checkRecycled();
+                _getDoubleElements(from, dst, 0, length);
+            }
+
+            /**
+             * Streams the elements without boxing. The stream is sized and can
+             * be split for parallel processing.
+             *
+             * @return a sequential stream.
+             */
+            public DoubleStream doubleStream() {
+                checkRecycled();
+                return StreamSupport.doubleStream(PrimitiveSpliterators.ofDouble(this, 8), false);
+            }
+
             @Override
             public boolean isEmpty() {
                 checkRecycled();
@@ -2623,9 +3047,7 @@ public class PrimitiveList {
             @Override
             public Stream<java.lang.Double> stream() {
                 checkRecycled();
-                return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                        Spliterator.SIZED & Spliterator.IMMUTABLE
-                ), false);
+                return doubleStream().boxed();
             }
 
             @Override
@@ -2682,9 +3104,55 @@ public class PrimitiveList {
                 _setDoubleElement(index, value);
             }
 
+            /**
+             * Sets the first elements to the values of the array. The values are
+             * written in one bulk operation.
+             *
+             * @param src    the values.
+             * @param offset the start in the array.
+             * @param length the number of values.
+             */
+            public void setAll(double[] src, int offset, int length) {
+                checkRecycled();
+                _setDoubleElements(0, src, offset, length);
+            }
+
+            public void setAll(double[] src) {
+                setAll(src, 0, src.length);
+            }
+
+            /**
+             * Copies encoded values into the first elements. The bytes are
+             * copied as they are, so they must be little endian like the
+             * message.
+             *
+             * @param src      the source.
+             * @param srcIndex the position of the first value in the source.
+             * @param length   the number of values.
+             */
+            public void setAll(DataView src, int srcIndex, int length) {
+                checkRecycled();
+                _setRawElements(0, src, srcIndex, length, 8);
+            }
+
+            /**
+             * Copies the remaining encoded values of the buffer into the first
+             * elements. The bytes are copied as they are, so they must be
+             * little endian like the message. The position of the buffer is
+             * moved behind the copied values.
+             *
+             * @param src the source.
+             */
+            public void setAll(ByteBuffer src) {
+                checkRecycled();
+                final int length = src.remaining() / 8;
+                _setRawElements(0, new ByteBufferDataView(src), src.position(), length, 8);
+                src.position(src.position() + length * 8);
+            }
+
             public final Reader asReader() {
                 checkRecycled();
-                final Reader reader = Double.Factory.READER_RECYCLER.get().getOrCreate();
+                final Reader reader = Double.Factory.READER_RECYCLER.get(segment).getOrCreate();
                 reader.init(this.segment, this.ptr, this.elementCount, this.step,
                         this.structDataSize, this.structPointerCount,
                         java.lang.Integer.MAX_VALUE);
@@ -0,0 +1,249 @@
+package org.capnproto;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Index based spliterators over the elements of primitive lists.
+ * <p>
+ * They read the values directly from the segment without boxing. The list
+ * position is captured on creation, so a stream stays valid after the list
+ * reader is recycled. Splitting halves the index range, so the streams can run
+ * in parallel.
+ */
+final class PrimitiveSpliterators {
+
+    static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+
+    private PrimitiveSpliterators() {
+    }
+
+    // a default empty list has no segment
+    private static DataView buffer(ListReader list) {
+        return list.segment == null ? null : list.segment.getBuffer();
+    }
+
+    /**
+     * Creates a spliterator over a list of bytes, shorts or ints.
+     *
+     * @param list         the list.
+     * @param elementBytes the size of the element: 1, 2 or 4.
+     *
+     * @return the spliterator.
+     */
+    static Spliterator.OfInt ofInt(ListReader list, int elementBytes) {
+        return new IntSpliterator(buffer(list), list.ptr, list.step, elementBytes, 0, list.elementCount);
+    }
+
+    static Spliterator.OfLong ofLong(ListReader list) {
+        return new LongSpliterator(buffer(list), list.ptr, list.step, 0, list.elementCount);
+    }
+
+    /**
+     * Creates a spliterator over a list of floats or doubles.
+     *
+     * @param list         the list.
+     * @param elementBytes the size of the element: 4 or 8.
+     *
+     * @return the spliterator.
+     */
+    static Spliterator.OfDouble ofDouble(ListReader list, int elementBytes) {
+        return new DoubleSpliterator(buffer(list), list.ptr, list.step, elementBytes, 0, list.elementCount);
+    }
+
+    private static final class IntSpliterator implements Spliterator.OfInt {
+
+        private final DataView buffer;
+        private final int ptr;
+        private final int step; // in bits
+        private final int elementBytes;
+        private int index;
+        private final int fence;
+
+        IntSpliterator(DataView buffer, int ptr, int step, int elementBytes, int index, int fence) {
+            this.buffer = buffer;
+            this.ptr = ptr;
+            this.step = step;
+            this.elementBytes = elementBytes;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        private int get(int i) {
+            final int offset = ptr + (int) ((long) i * step / Constants.BITS_PER_BYTE);
+            switch (elementBytes) {
+                case 1:
+                    return buffer.get(offset);
+                case 2:
+                    return buffer.getShort(offset);
+                default:
+                    return buffer.getInt(offset);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            final int end = fence;
+            for (int i = index; i < end; i++) {
+                action.accept(get(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            final int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            final IntSpliterator prefix = new IntSpliterator(buffer, ptr, step, elementBytes, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static final class LongSpliterator implements Spliterator.OfLong {
+
+        private final DataView buffer;
+        private final int ptr;
+        private final int step; // in bits
+        private int index;
+        private final int fence;
+
+        LongSpliterator(DataView buffer, int ptr, int step, int index, int fence) {
+            this.buffer = buffer;
+            this.ptr = ptr;
+            this.step = step;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        private long get(int i) {
+            return buffer.getLong(ptr + (int) ((long) i * step / Constants.BITS_PER_BYTE));
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            final int end = fence;
+            for (int i = index; i < end; i++) {
+                action.accept(get(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            final int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            final LongSpliterator prefix = new LongSpliterator(buffer, ptr, step, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static final class DoubleSpliterator implements Spliterator.OfDouble {
+
+        private final DataView buffer;
+        private final int ptr;
+        private final int step; // in bits
+        private final int elementBytes;
+        private int index;
+        private final int fence;
+
+        DoubleSpliterator(DataView buffer, int ptr, int step, int elementBytes, int index, int fence) {
+            this.buffer = buffer;
+            this.ptr = ptr;
+            this.step = step;
+            this.elementBytes = elementBytes;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        private double get(int i) {
+            final int offset = ptr + (int) ((long) i * step / Constants.BITS_PER_BYTE);
+            return elementBytes == 4 ? buffer.getFloat(offset) : buffer.getDouble(offset);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            final int end = fence;
+            for (int i = index; i < end; i++) {
+                action.accept(get(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            final int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            final DoubleSpliterator prefix = new DoubleSpliterator(buffer, ptr, step, elementBytes, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+}
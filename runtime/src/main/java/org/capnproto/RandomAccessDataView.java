@@ -62,6 +62,91 @@ public interface RandomAccessDataView {
      */
     void put(byte[] bytes, int index, int length);
 
+    /**
+     * Copies the bytes of the array to position index. The position of this
+     * view is not changed.
+     *
+     * @param index  the index
+     * @param src    the source array.
+     * @param offset the start in the source array.
+     * @param length the number of bytes.
+     */
+    default void put(int index, byte[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            put(index + i, src[offset + i]);
+        }
+    }
+
+    /**
+     * Copies the shorts (2 bytes each) of the array to position index.
+     *
+     * @param index  the index
+     * @param src    the source array.
+     * @param offset the start in the source array.
+     * @param length the number of shorts.
+     */
+    default void putShorts(int index, short[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            putShort(index + 2 * i, src[offset + i]);
+        }
+    }
+
+    /**
+     * Copies the ints (4 bytes each) of the array to position index.
+     *
+     * @param index  the index
+     * @param src    the source array.
+     * @param offset the start in the source array.
+     * @param length the number of ints.
+     */
+    default void putInts(int index, int[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            putInt(index + 4 * i, src[offset + i]);
+        }
+    }
+
+    /**
+     * Copies the longs (8 bytes each) of the array to position index.
+     *
+     * @param index  the index
+     * @param src    the source array.
+     * @param offset the start in the source array.
+     * @param length the number of longs.
+     */
+    default void putLongs(int index, long[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            putLong(index + 8 * i, src[offset + i]);
+        }
+    }
+
+    /**
+     * Copies the floats (4 bytes each) of the array to position index.
+     *
+     * @param index  the index
+     * @param src    the source array.
+     * @param offset the start in the source array.
+     * @param length the number of floats.
+     */
+    default void putFloats(int index, float[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            putFloat(index + 4 * i, src[offset + i]);
+        }
+    }
+
+    /**
+     * Copies the doubles (8 bytes each) of the array to position index.
+     *
+     * @param index  the index
+     * @param src    the source array.
+     * @param offset the start in the source array.
+     * @param length the number of doubles.
+     */
+    default void putDoubles(int index, double[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            putDouble(index + 8 * i, src[offset + i]);
+        }
+    }
+
     /**
      * Writes data from this DataView into the target DataView
      *
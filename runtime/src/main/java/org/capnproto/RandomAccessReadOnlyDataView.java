@@ -2,6 +2,10 @@ package org.capnproto;
 
 /**
  * This represents the index based data retrieval.
+ * <p>
+ * None of these methods change the position or the limit of the view. A view,
+ * that is not written anymore, can therefore be read by any number of threads
+ * without synchronization.
  */
 public interface RandomAccessReadOnlyDataView {
 
@@ -59,4 +63,92 @@ public interface RandomAccessReadOnlyDataView {
      */
     double getDouble(int index);
 
+    /**
+     * Copies the bytes starting at position index into the array.
+     *
+     * @param index  the index
+     * @param dst    the target array.
+     * @param offset the start in the target array.
+     * @param length the number of bytes.
+     */
+    default void get(int index, byte[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = get(index + i);
+        }
+    }
+
+    /**
+     * Copies the shorts (2 bytes each) starting at position index into the
+     * array.
+     *
+     * @param index  the index
+     * @param dst    the target array.
+     * @param offset the start in the target array.
+     * @param length the number of shorts.
+     */
+    default void getShorts(int index, short[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = getShort(index + 2 * i);
+        }
+    }
+
+    /**
+     * Copies the ints (4 bytes each) starting at position index into the
+     * array.
+     *
+     * @param index  the index
+     * @param dst    the target array.
+     * @param offset the start in the target array.
+     * @param length the number of ints.
+     */
+    default void getInts(int index, int[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = getInt(index + 4 * i);
+        }
+    }
+
+    /**
+     * Copies the longs (8 bytes each) starting at position index into the
+     * array.
+     *
+     * @param index  the index
+     * @param dst    the target array.
+     * @param offset the start in the target array.
+     * @param length the number of longs.
+     */
+    default void getLongs(int index, long[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = getLong(index + 8 * i);
+        }
+    }
+
+    /**
+     * Copies the floats (4 bytes each) starting at position index into the
+     * array.
+     *
+     * @param index  the index
+     * @param dst    the target array.
+     * @param offset the start in the target array.
+     * @param length the number of floats.
+     */
+    default void getFloats(int index, float[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = getFloat(index + 4 * i);
+        }
+    }
+
+    /**
+     * Copies the doubles (8 bytes each) starting at position index into the
+     * array.
+     *
+     * @param index  the index
+     * @param dst    the target array.
+     * @param offset the start in the target array.
+     * @param length the number of doubles.
+     */
+    default void getDoubles(int index, double[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = getDouble(index + 8 * i);
+        }
+    }
 }
@@ -22,13 +22,17 @@ package org.capnproto;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 public final class ReaderArena implements AllocatedArena {
 
-    public long limit;
-    // current limit
+    private static final AtomicLongFieldUpdater<ReaderArena> LIMIT = AtomicLongFieldUpdater.newUpdater(ReaderArena.class, "limit");
+
+    // current limit, shared by all threads reading the message
+    public volatile long limit;
 
     private final List<GenericSegmentReader> segments;
+    private final LazyRecyclerScope recyclerScope = new LazyRecyclerScope();
 
     public ReaderArena(DataView[] segmentSlices, long traversalLimitInWords) {
         this.limit = traversalLimitInWords;
@@ -50,10 +54,17 @@ public final class ReaderArena implements AllocatedArena {
 
     @Override
     public final void checkReadLimit(int numBytes) {
-        if (numBytes > limit) {
-            throw new DecodeException("Read limit exceeded.");
-        } else {
-            limit -= numBytes;
-        }
+        long current;
+        do {
+            current = limit;
+            if (numBytes > current) {
+                throw new DecodeException("Read limit exceeded.");
+            }
+        } while (!LIMIT.compareAndSet(this, current, current - numBytes));
+    }
+
+    @Override
+    public RecyclerScope getRecyclerScope() {
+        return recyclerScope.get();
     }
 }
@@ -24,10 +24,29 @@ package org.capnproto;
 public final class ReaderOptions {
     public final long traversalLimitInWords;
     public final int nestingLimit;
+    /**
+     * A trusted message is validated as a whole when the {@link MessageReader}
+     * is created. Its struct readers then skip the lifecycle check and load
+     * their fields directly from the segment.
+     */
+    public final boolean trusted;
 
     public ReaderOptions(long traversalLimitInWords, int nestingLimit) {
+        this(traversalLimitInWords, nestingLimit, false);
+    }
+
+    /**
+     * Creates the options.
+     *
+     * @param traversalLimitInWords the maximum number of words to read.
+     * @param nestingLimit          the maximum depth of the message.
+     * @param trusted               true to validate the message once and skip
+     *                              the lifecycle checks of its readers.
+     */
+    public ReaderOptions(long traversalLimitInWords, int nestingLimit, boolean trusted) {
         this.traversalLimitInWords = traversalLimitInWords;
         this.nestingLimit = nestingLimit;
+        this.trusted = trusted;
     }
 
     final static long DEFAULT_TRAVERSAL_LIMIT_IN_WORDS = 8 * 1_024 * 1_024;
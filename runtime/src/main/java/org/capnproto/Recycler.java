@@ -1,27 +1,39 @@
 package org.capnproto;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
 import java.util.function.Supplier;
 
 /**
  * The Recycler is used to create Classes of a defined type if the internal cache is empty, otherwise provides the oldest internal recycled object.
+ * The cache is bounded, recycled objects that don't fit are dropped.
  *
  * @param <T> The type of the recycled objects.
  */
 public class Recycler<T extends Recyclable<T>> {
 
-    private final Queue<T> recycler = new ArrayDeque<>();
+    private final ObjectPool<T> recycler;
 
     private final Supplier<T> factory;
 
     /**
-     * Constructs a Recycler with an object factory.
+     * Constructs a Recycler with an object factory, that is used by one thread
+     * and holds up to {@link Recycling#getCapacity()} objects.
      *
      * @param factory the factory to create new objects.
      */
     public Recycler(Supplier<T> factory) {
+        this(factory, Recycling.getCapacity(), false);
+    }
+
+    /**
+     * Constructs a Recycler with an object factory.
+     *
+     * @param factory  the factory to create new objects.
+     * @param capacity the maximum number of cached objects.
+     * @param shared   true if the Recycler is used by multiple threads.
+     */
+    public Recycler(Supplier<T> factory, int capacity, boolean shared) {
         this.factory = factory;
+        this.recycler = new ObjectPool<>(capacity, shared);
     }
 
     /**
@@ -49,4 +61,13 @@ public class Recycler<T extends Recyclable<T>> {
         recycler.offer(recycable);
     }
 
+    /**
+     * Retrieve the counters of this Recycler.
+     *
+     * @return the statistics.
+     */
+    public RecyclerStatistics getStatistics() {
+        return recycler;
+    }
+
 }
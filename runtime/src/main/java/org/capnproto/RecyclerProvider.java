@@ -0,0 +1,122 @@
+package org.capnproto;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Provides the pool of one kind of recycled objects, according to the current
+ * {@link RecyclingStrategy}. The pool is a {@link Recycler}, a
+ * {@link StructReaderCache} or a {@link StructBuilderCache}.
+ *
+ * @param <P> the type of the pool.
+ */
+public final class RecyclerProvider<P> {
+
+    private static final int STRIPES = stripes();
+
+    /**
+     * Creates a pool.
+     *
+     * @param <P> the type of the pool.
+     */
+    @FunctionalInterface
+    public interface PoolFactory<P> {
+
+        /**
+         * Creates a pool.
+         *
+         * @param capacity the maximum number of objects in the pool.
+         * @param shared   true if the pool is used by multiple threads.
+         *
+         * @return the pool.
+         */
+        P create(int capacity, boolean shared);
+    }
+
+    private final PoolFactory<P> factory;
+    private final ThreadLocal<P> threadLocal;
+    private volatile Object[] stripes;
+    private volatile P off;
+
+    /**
+     * Creates a provider.
+     *
+     * @param factory the factory of the pools.
+     */
+    public RecyclerProvider(PoolFactory<P> factory) {
+        this.factory = requireNonNull(factory, "Parameter factory can not be null.");
+        this.threadLocal = ThreadLocal.withInitial(() -> factory.create(Recycling.getCapacity(), false));
+    }
+
+    // a power of two, so the stripe is selected with a mask
+    private static int stripes() {
+        final int cpus = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.max(1, cpus * 2 - 1)) << 1;
+    }
+
+    /**
+     * Retrieve the pool for objects without a message.
+     *
+     * @return the pool.
+     */
+    public P get() {
+        return get(null);
+    }
+
+    /**
+     * Retrieve the pool for objects of the message of the segment.
+     *
+     * @param segment the segment, or null.
+     *
+     * @return the pool.
+     */
+    public P get(SegmentDataContainer segment) {
+        final RecyclingStrategy strategy = Recycling.getStrategy();
+        if (strategy == RecyclingStrategy.THREAD_LOCAL) {
+            return threadLocal.get();
+        }
+        if (strategy == RecyclingStrategy.STRIPED) {
+            return stripe();
+        }
+        if (strategy == RecyclingStrategy.MESSAGE && segment != null) {
+            final Arena arena = segment.getArena();
+            final RecyclerScope scope = arena == null ? null : arena.getRecyclerScope();
+            if (scope != null) {
+                return scope.get(this);
+            }
+        }
+        return off();
+    }
+
+    P create(int capacity, boolean shared) {
+        return factory.create(capacity, shared);
+    }
+
+    @SuppressWarnings("unchecked")
+    private P stripe() {
+        Object[] pools = stripes;
+        if (pools == null) {
+            synchronized (this) {
+                pools = stripes;
+                if (pools == null) {
+                    pools = new Object[STRIPES];
+                    final int capacity = Recycling.getCapacity();
+                    for (int i = 0; i < pools.length; i++) {
+                        pools[i] = factory.create(capacity, true);
+                    }
+                    stripes = pools;
+                }
+            }
+        }
+        return (P) pools[(int) Thread.currentThread().getId() & (pools.length - 1)];
+    }
+
+    private P off() {
+        P pool = off;
+        if (pool == null) {
+            // a race creates an additional empty pool, which is harmless
+            pool = factory.create(0, true);
+            off = pool;
+        }
+        return pool;
+    }
+}
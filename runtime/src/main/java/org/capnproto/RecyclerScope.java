@@ -0,0 +1,31 @@
+package org.capnproto;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The pools of one message, used by {@link RecyclingStrategy#MESSAGE}. The
+ * pools are created on demand and dropped together with the message. A message
+ * can be read by multiple threads, so the pools are shared.
+ */
+public final class RecyclerScope {
+
+    private final ConcurrentHashMap<RecyclerProvider<?>, Object> pools = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <P> P get(RecyclerProvider<P> provider) {
+        Object pool = pools.get(provider);
+        if (pool == null) {
+            pool = pools.computeIfAbsent(provider, p -> p.create(Recycling.getCapacity(), true));
+        }
+        return (P) pool;
+    }
+
+    /**
+     * The number of pools in this scope.
+     *
+     * @return the number of pools.
+     */
+    public int size() {
+        return pools.size();
+    }
+}
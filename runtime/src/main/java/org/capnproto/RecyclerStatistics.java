@@ -0,0 +1,44 @@
+package org.capnproto;
+
+/**
+ * The counters of a pool of recycled objects. The counters of pools that are
+ * shared between threads are approximate.
+ */
+public interface RecyclerStatistics {
+
+    /**
+     * The number of requests that were served from the pool.
+     *
+     * @return the hits.
+     */
+    long getHits();
+
+    /**
+     * The number of requests that created a new object.
+     *
+     * @return the misses.
+     */
+    long getMisses();
+
+    /**
+     * The number of recycled objects that were dropped, because the pool was
+     * full or in use by another thread.
+     *
+     * @return the evictions.
+     */
+    long getEvictions();
+
+    /**
+     * The maximum number of objects in the pool.
+     *
+     * @return the capacity.
+     */
+    int getCapacity();
+
+    /**
+     * The current number of objects in the pool.
+     *
+     * @return the size.
+     */
+    int size();
+}
@@ -0,0 +1,64 @@
+package org.capnproto;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The global settings of the recycling. They should be set once at startup,
+ * before the first message is read or built.
+ */
+public final class Recycling {
+
+    /**
+     * The default maximum number of objects held by one pool.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static volatile RecyclingStrategy strategy = RecyclingStrategy.THREAD_LOCAL;
+    private static volatile int capacity = DEFAULT_CAPACITY;
+
+    private Recycling() {
+    }
+
+    /**
+     * Retrieve the current strategy. The default is
+     * {@link RecyclingStrategy#THREAD_LOCAL}.
+     *
+     * @return the strategy.
+     */
+    public static RecyclingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets the strategy. Objects, that were taken from a pool of the previous
+     * strategy, still return into that pool.
+     *
+     * @param strategy the strategy.
+     */
+    public static void setStrategy(RecyclingStrategy strategy) {
+        Recycling.strategy = requireNonNull(strategy, "Parameter strategy can not be null.");
+    }
+
+    /**
+     * Retrieve the maximum number of objects held by one pool.
+     *
+     * @return the capacity.
+     */
+    public static int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum number of objects held by one pool. It is applied to
+     * pools that are created afterwards. Recycled objects that don't fit into
+     * a full pool are dropped and counted as evictions.
+     *
+     * @param capacity the capacity, 0 disables the pooling.
+     */
+    public static void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity " + capacity + " is negative");
+        }
+        Recycling.capacity = capacity;
+    }
+}
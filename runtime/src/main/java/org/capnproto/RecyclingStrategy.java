@@ -0,0 +1,33 @@
+package org.capnproto;
+
+/**
+ * Defines which pool provides the recycled readers, builders and helper
+ * objects. The strategy is selected with
+ * {@link Recycling#setStrategy(RecyclingStrategy)}.
+ */
+public enum RecyclingStrategy {
+
+    /**
+     * No pooling. Every object is created new and dropped when recycled.
+     */
+    OFF,
+    /**
+     * One pool per thread. This is the fastest strategy for a small number of
+     * long living platform threads, but it multiplies the memory with many
+     * threads and never reuses objects with short living or virtual threads.
+     */
+    THREAD_LOCAL,
+    /**
+     * A fixed number of shared pools, selected by the id of the current
+     * thread. The number of pools only depends on the number of CPUs, so the
+     * memory stays bounded with large thread pools or virtual threads. A pool
+     * that is in use by another thread is skipped, so threads never block.
+     */
+    STRIPED,
+    /**
+     * One set of pools per message. The pools are stored in the
+     * {@link Arena} of the {@link MessageReader} or {@link MessageBuilder}
+     * and are dropped with the message.
+     */
+    MESSAGE
+}
@@ -22,8 +22,6 @@ package org.capnproto;
 
 public final class SegmentBuilder implements GenericSegmentBuilder {
 
-    private static final int ERAZER_SIZE = 8000;
-
     public int pos = 0; // in words
     public int id = 0;
     public final DataView buffer;
@@ -106,19 +104,8 @@ public final class SegmentBuilder implements GenericSegmentBuilder {
 
     @Override
     public final void clear() {
-        int posInBytes = pos * Constants.BYTES_PER_WORD;
-        byte[] erazer = new byte[ERAZER_SIZE];
-        // write the erazer into buffer until the erazer is too big for the remaining data.
-        int current = 0;
-        buffer.readerPosition(0);
-        while (posInBytes - current > ERAZER_SIZE) {
-            buffer.put(erazer);
-            current += ERAZER_SIZE;
-        }
-        // write a fraction of the erazer into the buffer and reset all
-        int remaining = posInBytes - current;
-        buffer.put(erazer, 0, remaining);
-        buffer.readerPosition(0);
+        buffer.zero(0, pos * Constants.BYTES_PER_WORD);
+        buffer.rewindReaderPosition();
         this.pos = 0;
     }
 }
@@ -48,4 +48,14 @@ public interface SegmentDataContainer {
      * @return the Arena.
      */
     Arena getArena();
+
+    /**
+     * Tells whether the whole message of this segment was validated up front,
+     * see {@link ReaderOptions#trusted}.
+     *
+     * @return true if the message was validated.
+     */
+    default boolean isValidated() {
+        return false;
+    }
 }
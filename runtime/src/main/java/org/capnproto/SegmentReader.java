@@ -25,6 +25,7 @@ public class SegmentReader implements GenericSegmentReader {
     public final DataView buffer;
     private final AllocatedArena arena;
     private final int size;
+    private final boolean validated;
 
     /**
      * This constructor will rewind the bytebuffer to find out it's size.
@@ -33,10 +34,15 @@ public class SegmentReader implements GenericSegmentReader {
      * @param arena The parent Arena.
      */
     public SegmentReader(DataView buffer, AllocatedArena arena) {
+        this(buffer, arena, false);
+    }
+
+    SegmentReader(DataView buffer, AllocatedArena arena, boolean validated) {
         this.buffer = buffer;
         buffer.rewindReaderPosition();
         size = buffer.remainingReadableBytes();
         this.arena = arena;
+        this.validated = validated;
     }
 
     @Override
@@ -59,4 +65,9 @@ public class SegmentReader implements GenericSegmentReader {
         return buffer;
     }
 
+    @Override
+    public boolean isValidated() {
+        return validated;
+    }
+
 }
@@ -6,11 +6,13 @@ import java.util.List;
 
 /**
  * This AllocatedArena ignores the traversal limit, because that is broken for
- * messages > DefaultTraversal limit.
+ * messages > DefaultTraversal limit. Use {@link MessageValidator} to enforce
+ * the limits of untrusted messages once, before reading them.
  */
 public class SimpleReaderArena implements AllocatedArena {
 
     private final List<GenericSegmentReader> segments;
+    private final LazyRecyclerScope recyclerScope = new LazyRecyclerScope();
 
     /**
      * Creates an Arena with a SegmentReader for each {@link DataView}.
@@ -64,4 +66,9 @@ public class SimpleReaderArena implements AllocatedArena {
         // ignore this
     }
 
+    @Override
+    public RecyclerScope getRecyclerScope() {
+        return recyclerScope.get();
+    }
+
 }
@@ -241,6 +241,16 @@ public class StructBuilder {
         this.segment.getBuffer().putLong(pointer * 8, 0L);
     }
 
+    protected final Orphan _disownPointerField(int index) {
+        validator.run();
+        return Orphan.disown(this.segment, this.pointers + index);
+    }
+
+    protected final void _adoptPointerField(int index, Orphan orphan) {
+        validator.run();
+        orphan.adoptInto(this.segment, this.pointers + index);
+    }
+
     protected final <T> T _getPointerField(FromPointerBuilder<T> factory, int index) {
         validator.run();
         return factory.fromPointerBuilder(this.segment, this.pointers + index);
@@ -266,6 +276,18 @@ public class StructBuilder {
         factory.setPointerBuilder(this.segment, this.pointers + index, value);
     }
 
+    /**
+     * Sets a text field. The characters are encoded as UTF-8 directly into
+     * the segment.
+     *
+     * @param index the index of the pointer.
+     * @param value the text.
+     */
+    protected final void _setTextField(int index, CharSequence value) {
+        validator.run();
+        WireHelpers.setTextPointer(this.pointers + index, this.segment, value);
+    }
+
     protected final void _copyContentFrom(StructReader other) {
         validator.run();
         // Determine the amount of data the builders have in common.
@@ -1,20 +1,42 @@
 package org.capnproto;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * A bounded cache of StructBuilders of one type. StructBuilders that don't fit into the
+ * full cache are dropped.
+ *
+ * @param <T> the type of the StructBuilder.
+ */
 public class StructBuilderCache<T extends StructBuilder> {
 
-    private final Queue<T> recycler = new ArrayDeque<>();
+    private final ObjectPool<T> recycler;
 
     private final Supplier<T> factory;
     private final Consumer<StructBuilder> fn;
 
+    /**
+     * Creates a cache, that is used by one thread and holds up to
+     * {@link Recycling#getCapacity()} objects.
+     *
+     * @param factory the factory to create new objects.
+     */
     public StructBuilderCache(Supplier<T> factory) {
+        this(factory, Recycling.getCapacity(), false);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param factory  the factory to create new objects.
+     * @param capacity the maximum number of cached objects.
+     * @param shared   true if the cache is used by multiple threads.
+     */
+    public StructBuilderCache(Supplier<T> factory, int capacity, boolean shared) {
         this.factory = factory;
         this.fn = this::recycle;
+        this.recycler = new ObjectPool<>(capacity, shared);
     }
 
     /**
@@ -37,4 +59,13 @@ public class StructBuilderCache<T extends StructBuilder> {
         builder.deinit();
         recycler.offer((T) builder);
     }
+
+    /**
+     * Retrieve the counters of this cache.
+     *
+     * @return the statistics.
+     */
+    public RecyclerStatistics getStatistics() {
+        return recycler;
+    }
 }
@@ -23,6 +23,7 @@ package org.capnproto;
 import java.util.Collection;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -34,18 +35,10 @@ public final class StructList {
 
         public final StructFactory<B, R> factory;
 
-        private final static ThreadLocal<org.capnproto.Recycler> READER_RECYCLER = new ThreadLocal<org.capnproto.Recycler>() {
-            @Override
-            protected org.capnproto.Recycler initialValue() {
-                return new org.capnproto.Recycler<>(Reader::new);
-            }
-        };
-        private final static ThreadLocal<org.capnproto.Recycler> BUILDER_RECYCLER = new ThreadLocal<org.capnproto.Recycler>() {
-            @Override
-            protected org.capnproto.Recycler initialValue() {
-                return new org.capnproto.Recycler<>(Builder::new);
-            }
-        };
+        private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler> READER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                (capacity, shared) -> new org.capnproto.Recycler<>(Reader::new, capacity, shared));
+        private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler> BUILDER_RECYCLER = new org.capnproto.RecyclerProvider<>(
+                (capacity, shared) -> new org.capnproto.Recycler<>(Builder::new, capacity, shared));
 
         public Factory(StructFactory<B, R> factory) {
             super(ElementSize.INLINE_COMPOSITE);
@@ -58,7 +51,7 @@ public final class StructList {
                 int elementCount, int step,
                 int structDataSize, short structPointerCount,
                 int nestingLimit) {
-            final Reader<R> reader = (Reader<R>) READER_RECYCLER.get().getOrCreate();
+            final Reader<R> reader = (Reader<R>) READER_RECYCLER.get(segment).getOrCreate();
             reader.init(segment, ptr, elementCount, step, structDataSize, structPointerCount, nestingLimit);
             reader.factory = this.factory;
             return reader;
@@ -66,7 +59,7 @@ public final class StructList {
 
         @Override
         public final Builder<B> constructBuilder(GenericSegmentBuilder segment, int ptr, int elementCount, int step, int structDataSize, short structPointerCount) {
-            final Builder<B> builder = (Builder<B>) BUILDER_RECYCLER.get().getOrCreate();
+            final Builder<B> builder = (Builder<B>) BUILDER_RECYCLER.get(segment).getOrCreate();
             builder.init(segment, ptr, elementCount, step, structDataSize, structPointerCount);
             builder.factory = this.factory;
             return builder;
@@ -114,9 +107,20 @@ public final class StructList {
         @Override
         public Stream<T> stream() {
             checkRecycled();
-            return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                    Spliterator.SIZED & Spliterator.IMMUTABLE
-            ), false);
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        /**
+         * Creates an index based spliterator, that can be split for parallel
+         * processing. It is also used by {@link #parallelStream()}.
+         *
+         * @return the spliterator.
+         */
+        @Override
+        public Spliterator<T> spliterator() {
+            checkRecycled();
+            final StructReader.Factory<T> elementFactory = factory;
+            return new ListSpliterator<>(this, (list, index) -> list._getStructElement(elementFactory, index));
         }
 
         public T get(int index) {
@@ -124,6 +128,77 @@ public final class StructList {
             return _getStructElement(factory, index);
         }
 
+        /**
+         * Calls the action for each element with one flyweight reader, that is
+         * moved to the next element before each call. Apart from the flyweight
+         * nothing is allocated or taken from a cache.
+         * <p>
+         * The action must not keep a reference to the reader, as it is
+         * recycled afterwards.
+         *
+         * @param action the action.
+         */
+        public void forEachFlyweight(Consumer<? super T> action) {
+            checkRecycled();
+            if (elementCount == 0) {
+                return;
+            }
+            final T element = _getStructElement(factory, 0);
+            final StructReader flyweight = (StructReader) element;
+            action.accept(element);
+            for (int i = 1; i < elementCount; i++) {
+                _moveStructElement(flyweight, i);
+                action.accept(element);
+            }
+            flyweight.recycle();
+        }
+
+        /**
+         * Creates a cursor with a single flyweight reader, that can be moved
+         * to any element.
+         *
+         * @return the cursor.
+         */
+        public Cursor cursor() {
+            checkRecycled();
+            return new Cursor();
+        }
+
+        /**
+         * A flyweight reader, that can be moved over the elements of the
+         * list. The reader returned by {@link #moveTo(int)} is always the same
+         * instance, so it is only valid until the next move.
+         */
+        public final class Cursor {
+
+            private T element;
+            private StructReader flyweight;
+
+            /**
+             * Moves the reader to the element.
+             *
+             * @param index the index of the element.
+             *
+             * @return the reader, pointing to the element.
+             */
+            public T moveTo(int index) {
+                if (index < 0 || index >= elementCount) {
+                    throw new IndexOutOfBoundsException("index " + index + " size " + elementCount);
+                }
+                if (flyweight == null) {
+                    element = _getStructElement(factory, index);
+                    flyweight = (StructReader) element;
+                } else {
+                    _moveStructElement(flyweight, index);
+                }
+                return element;
+            }
+
+            public int size() {
+                return elementCount;
+            }
+        }
+
         @Override
         public boolean isEmpty() {
             checkRecycled();
@@ -259,6 +334,74 @@ public final class StructList {
             return _getStructElement(factory, index);
         }
 
+        /**
+         * Calls the action for each element with one flyweight builder, that
+         * is moved to the next element before each call. Apart from the
+         * flyweight nothing is allocated or taken from a cache.
+         * <p>
+         * The action must not keep a reference to the builder, as it is
+         * recycled afterwards.
+         *
+         * @param action the action.
+         */
+        public void forEachFlyweight(Consumer<? super T> action) {
+            checkRecycled();
+            if (elementCount == 0) {
+                return;
+            }
+            final T element = _getStructElement(factory, 0);
+            action.accept(element);
+            for (int i = 1; i < elementCount; i++) {
+                _moveStructElement(element, i);
+                action.accept(element);
+            }
+            element.recycle();
+        }
+
+        /**
+         * Creates a cursor with a single flyweight builder, that can be moved
+         * to any element.
+         *
+         * @return the cursor.
+         */
+        public Cursor cursor() {
+            checkRecycled();
+            return new Cursor();
+        }
+
+        /**
+         * A flyweight builder, that can be moved over the elements of the
+         * list. The builder returned by {@link #moveTo(int)} is always the
+         * same instance, so it is only valid until the next move.
+         */
+        public final class Cursor {
+
+            private T element;
+
+            /**
+             * Moves the builder to the element.
+             *
+             * @param index the index of the element.
+             *
+             * @return the builder, pointing to the element.
+             */
+            public T moveTo(int index) {
+                if (index < 0 || index >= elementCount) {
+                    throw new IndexOutOfBoundsException("index " + index + " size " + elementCount);
+                }
+                if (element == null) {
+                    element = _getStructElement(factory, index);
+                } else {
+                    _moveStructElement(element, index);
+                }
+                return element;
+            }
+
+            public int size() {
+                return elementCount;
+            }
+        }
+
         /**
          * Sets the list element, with the following limitation based on the
          * fact that structs in a struct list are allocated inline: if the
@@ -42,6 +42,8 @@ public class StructReader {
     protected short pointerCount;
     protected int nestingLimit;
     protected Runnable validator = VALIDATOR_DEINIT;
+    // the buffer of a validated segment, null if every access is checked
+    private DataView trustedBuffer;
     private Consumer<StructReader> recycleAction = f -> {
     };
 
@@ -60,6 +62,7 @@ public class StructReader {
         this.dataSize = dataSize;
         this.pointerCount = pointerCount;
         this.nestingLimit = nestingLimit;
+        this.trustedBuffer = segment.isValidated() ? segment.getBuffer() : null;
         validator = VALIDATOR_INIT;
         return this;
     }
@@ -71,14 +74,30 @@ public class StructReader {
         this.dataSize = 0;
         this.pointerCount = 0;
         this.nestingLimit = 0x7fff_ffff;
+        this.trustedBuffer = null;
         validator = VALIDATOR_DEINIT;
     }
 
-    protected final boolean _getBooleanField(int offset) {
+    private void validate() {
+        if (trustedBuffer == null) {
+            validator.run();
+        }
+    }
+
+    private DataView buffer() {
+        final DataView trusted = trustedBuffer;
+        if (trusted != null) {
+            return trusted;
+        }
         validator.run();
+        return segment.getBuffer();
+    }
+
+    protected final boolean _getBooleanField(int offset) {
+        final DataView buffer = buffer();
         // XXX should use unsigned operations
         if (offset < this.dataSize) {
-            byte b = this.segment.getBuffer().get(this.data + offset / 8);
+            byte b = buffer.get(this.data + offset / 8);
 
             return (b & (1 << (offset % 8))) != 0;
         } else {
@@ -87,109 +106,109 @@ public class StructReader {
     }
 
     protected final boolean _getBooleanField(int offset, boolean mask) {
-        validator.run();
+        validate();
         return this._getBooleanField(offset) ^ mask;
     }
 
     protected final byte _getByteField(int offset) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 8 <= this.dataSize) {
-            return this.segment.getBuffer().get(this.data + offset);
+            return buffer.get(this.data + offset);
         } else {
             return 0;
         }
     }
 
     protected final byte _getByteField(int offset, byte mask) {
-        validator.run();
+        validate();
         return (byte) (this._getByteField(offset) ^ mask);
     }
 
     protected final short _getShortField(int offset) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 16 <= this.dataSize) {
-            return this.segment.getBuffer().getShort(this.data + offset * 2);
+            return buffer.getShort(this.data + offset * 2);
         } else {
             return 0;
         }
     }
 
     protected final short _getShortField(int offset, short mask) {
-        validator.run();
+        validate();
         return (short) (this._getShortField(offset) ^ mask);
     }
 
     protected final int _getIntField(int offset) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 32 <= this.dataSize) {
-            return this.segment.getBuffer().getInt(this.data + offset * 4);
+            return buffer.getInt(this.data + offset * 4);
         } else {
             return 0;
         }
     }
 
     protected final int _getIntField(int offset, int mask) {
-        validator.run();
+        validate();
         return this._getIntField(offset) ^ mask;
     }
 
     protected final long _getLongField(int offset) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 64 <= this.dataSize) {
-            return this.segment.getBuffer().getLong(this.data + offset * 8);
+            return buffer.getLong(this.data + offset * 8);
         } else {
             return 0;
         }
     }
 
     protected final long _getLongField(int offset, long mask) {
-        validator.run();
+        validate();
         return this._getLongField(offset) ^ mask;
     }
 
     protected final float _getFloatField(int offset) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 32 <= this.dataSize) {
-            return this.segment.getBuffer().getFloat(this.data + offset * 4);
+            return buffer.getFloat(this.data + offset * 4);
         } else {
             return 0;
         }
     }
 
     protected final float _getFloatField(int offset, int mask) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 32 <= this.dataSize) {
-            return Float.intBitsToFloat(this.segment.getBuffer().getInt(this.data + offset * 4) ^ mask);
+            return Float.intBitsToFloat(buffer.getInt(this.data + offset * 4) ^ mask);
         } else {
             return Float.intBitsToFloat(mask);
         }
     }
 
     protected final double _getDoubleField(int offset) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 64 <= this.dataSize) {
-            return this.segment.getBuffer().getDouble(this.data + offset * 8);
+            return buffer.getDouble(this.data + offset * 8);
         } else {
             return 0;
         }
     }
 
     protected final double _getDoubleField(int offset, long mask) {
-        validator.run();
+        final DataView buffer = buffer();
         if ((offset + 1) * 64 <= this.dataSize) {
-            return Double.longBitsToDouble(this.segment.getBuffer().getLong(this.data + offset * 8) ^ mask);
+            return Double.longBitsToDouble(buffer.getLong(this.data + offset * 8) ^ mask);
         } else {
             return Double.longBitsToDouble(mask);
         }
     }
 
     protected final boolean _pointerFieldIsNull(int ptrIndex) {
-        validator.run();
-        return ptrIndex >= this.pointerCount || this.segment.getBuffer().getLong((this.pointers + ptrIndex) * Constants.BYTES_PER_WORD) == 0;
+        final DataView buffer = buffer();
+        return ptrIndex >= this.pointerCount || buffer.getLong((this.pointers + ptrIndex) * Constants.BYTES_PER_WORD) == 0;
     }
 
     protected final <T> T _getPointerField(FromPointerReader<T> factory, int ptrIndex) {
-        validator.run();
+        validate();
         if (ptrIndex < this.pointerCount) {
             return factory.fromPointerReader(this.segment,
                     this.pointers + ptrIndex,
@@ -202,7 +221,7 @@ public class StructReader {
     }
 
     protected final <T> T _getPointerField(FromPointerReaderRefDefault<T> factory, int ptrIndex, SegmentDataContainer defaultSegment, int defaultOffset) {
-        validator.run();
+        validate();
         if (ptrIndex < this.pointerCount) {
             return factory.fromPointerReaderRefDefault(this.segment,
                     this.pointers + ptrIndex,
@@ -219,7 +238,7 @@ public class StructReader {
     }
 
     protected final <T> T _getPointerField(FromPointerReaderBlobDefault<T> factory, int ptrIndex, DataView defaultBuffer, int defaultOffset, int defaultSize) {
-        validator.run();
+        validate();
         if (ptrIndex < this.pointerCount) {
             return factory.fromPointerReaderBlobDefault(this.segment,
                     this.pointers + ptrIndex,
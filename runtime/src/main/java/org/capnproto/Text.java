@@ -21,10 +21,311 @@
 package org.capnproto;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import static java.util.Objects.requireNonNull;
 
 public final class Text {
 
+    private static final long ASCII_MASK = 0x8080_8080_8080_8080L;
+
+    /**
+     * Tells if all bytes of the range are ASCII. Eight bytes are tested at
+     * once.
+     *
+     * @param buffer the data.
+     * @param offset the start of the range in bytes.
+     * @param size   the size of the range in bytes.
+     *
+     * @return true if no byte has the high bit set.
+     */
+    static boolean isAscii(DataView buffer, int offset, int size) {
+        final int end = offset + size;
+        int i = offset;
+        for (; i <= end - 8; i += 8) {
+            if ((buffer.getLong(i) & ASCII_MASK) != 0) {
+                return false;
+            }
+        }
+        for (; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the UTF-8 bytes of the range. Heap data is decoded directly
+     * from its array without an intermediate copy. The String constructor
+     * detects ASCII itself and then copies the bytes into a Latin-1 String
+     * without decoding, which is faster than a scan of our own.
+     *
+     * @param buffer the data.
+     * @param offset the start of the range in bytes.
+     * @param size   the size of the range in bytes.
+     *
+     * @return the String.
+     */
+    static String decode(DataView buffer, int offset, int size) {
+        if (size == 0) {
+            return "";
+        }
+        if (offset < 0 || size < 0 || size > buffer.limit() - offset) {
+            throw new IndexOutOfBoundsException("index " + offset + " size " + size + " limit " + buffer.limit());
+        }
+        if (buffer instanceof ByteArrayDataView) {
+            final ByteArrayDataView view = (ByteArrayDataView) buffer;
+            return new String(view.array(), view.arrayOffset() + offset, size, StandardCharsets.UTF_8);
+        }
+        if (buffer instanceof ByteBufferDataView) {
+            final ByteBuffer byteBuffer = ((ByteBufferDataView) buffer).getBuffer();
+            if (byteBuffer.hasArray()) {
+                return new String(byteBuffer.array(), byteBuffer.arrayOffset() + offset, size, StandardCharsets.UTF_8);
+            }
+        }
+        final byte[] bytes = new byte[size];
+        buffer.get(offset, bytes, 0, size);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes the size of the UTF-8 encoding in one pass. Unpaired
+     * surrogates are counted as one byte, because they are encoded as '?' like
+     * {@link String#getBytes(java.nio.charset.Charset)} does.
+     *
+     * @param value the characters.
+     *
+     * @return the size in bytes.
+     */
+    static int encodedLength(CharSequence value) {
+        final int length = value.length();
+        int size = length;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                size += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // 2 chars, 4 bytes
+                size += 2;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // replaced by '?'
+            } else {
+                size += 2;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Encodes the characters as UTF-8 into the array.
+     *
+     * @param value the characters.
+     * @param dst   the target array.
+     * @param index the index of the first byte in the array.
+     */
+    private static void encode(CharSequence value, byte[] dst, int index) {
+        final int length = value.length();
+        int pos = index;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                dst[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[pos++] = (byte) (0xc0 | (c >> 6));
+                dst[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                dst[pos++] = (byte) (0xf0 | (codePoint >> 18));
+                dst[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                dst[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                dst[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                dst[pos++] = '?';
+            } else {
+                dst[pos++] = (byte) (0xe0 | (c >> 12));
+                dst[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                dst[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+    }
+
+    /**
+     * Encodes the characters as UTF-8 into the buffer. Heap data is written
+     * directly into its array.
+     *
+     * @param value the characters.
+     * @param size  the size of the encoding, see
+     *              {@link #encodedLength(CharSequence)}.
+     * @param dst   the target.
+     * @param index the position of the first byte in the target.
+     */
+    static void encode(CharSequence value, int size, DataView dst, int index) {
+        final byte[] array;
+        final int arrayIndex;
+        if (dst instanceof ByteArrayDataView) {
+            final ByteArrayDataView view = (ByteArrayDataView) dst;
+            array = view.array();
+            arrayIndex = view.arrayOffset() + index;
+        } else if (dst instanceof ByteBufferDataView && ((ByteBufferDataView) dst).getBuffer().hasArray()) {
+            final ByteBuffer byteBuffer = ((ByteBufferDataView) dst).getBuffer();
+            array = byteBuffer.array();
+            arrayIndex = byteBuffer.arrayOffset() + index;
+        } else {
+            array = null;
+            arrayIndex = 0;
+        }
+        if (array == null) {
+            final byte[] bytes = new byte[size];
+            encode(value, size, ByteArrayDataView.wrap(bytes), 0);
+            dst.put(index, bytes, 0, size);
+        } else {
+            encode(value, array, arrayIndex);
+        }
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf2_9ce4_8422_2325L;
+    private static final long FNV_PRIME = 0x100_0000_01b3L;
+
+    /**
+     * Computes the 64 bit FNV-1a hash of the range. The hash only depends on
+     * the bytes, so it is stable across processes and versions.
+     *
+     * @param buffer the data.
+     * @param offset the start of the range in bytes.
+     * @param size   the size of the range in bytes.
+     *
+     * @return the hash.
+     */
+    static long hash64(DataView buffer, int offset, int size) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = offset, end = offset + size; i < end; i++) {
+            hash = (hash ^ (buffer.get(i) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    static long hash64(byte[] bytes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Finds the first index at which the two ranges differ.
+     *
+     * @return the index relative to the offsets, or -1 if the ranges are
+     *         equal.
+     */
+    private static int mismatch(DataView a, int aOffset, DataView b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a.get(aOffset + i) != b.get(bOffset + i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int mismatch(DataView a, int aOffset, byte[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a.get(aOffset + i) != b[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean contentEquals(DataView buffer, int offset, int size, byte[] bytes) {
+        return size == bytes.length && mismatch(buffer, offset, bytes, size) < 0;
+    }
+
+    static boolean startsWith(DataView buffer, int offset, int size, byte[] prefix) {
+        return size >= prefix.length && mismatch(buffer, offset, prefix, prefix.length) < 0;
+    }
+
+    /**
+     * Compares the range with the UTF-8 encoding of the characters, without
+     * encoding them into an array. Unpaired surrogates match '?' like in
+     * {@link #encode(CharSequence, int, DataView, int)}.
+     *
+     * @param buffer the data.
+     * @param offset the start of the range in bytes.
+     * @param size   the size of the range in bytes.
+     * @param value  the characters.
+     *
+     * @return true if the range contains exactly the encoded characters.
+     */
+    static boolean contentEquals(DataView buffer, int offset, int size, CharSequence value) {
+        final int length = value.length();
+        // every char takes at least one byte
+        if (length > size) {
+            return false;
+        }
+        final int end = offset + size;
+        int pos = offset;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                if (pos >= end || buffer.get(pos++) != c) {
+                    return false;
+                }
+                continue;
+            }
+            final int codePoint;
+            final int bytes;
+            if (c < 0x800) {
+                codePoint = c;
+                bytes = 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes = 4;
+            } else if (Character.isSurrogate(c)) {
+                codePoint = '?';
+                bytes = 1;
+            } else {
+                codePoint = c;
+                bytes = 3;
+            }
+            if (end - pos < bytes) {
+                return false;
+            }
+            switch (bytes) {
+                case 1:
+                    if (buffer.get(pos) != codePoint) {
+                        return false;
+                    }
+                    break;
+                case 2:
+                    if (buffer.get(pos) != (byte) (0xc0 | (codePoint >> 6))
+                            || buffer.get(pos + 1) != (byte) (0x80 | (codePoint & 0x3f))) {
+                        return false;
+                    }
+                    break;
+                case 3:
+                    if (buffer.get(pos) != (byte) (0xe0 | (codePoint >> 12))
+                            || buffer.get(pos + 1) != (byte) (0x80 | ((codePoint >> 6) & 0x3f))
+                            || buffer.get(pos + 2) != (byte) (0x80 | (codePoint & 0x3f))) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (buffer.get(pos) != (byte) (0xf0 | (codePoint >> 18))
+                            || buffer.get(pos + 1) != (byte) (0x80 | ((codePoint >> 12) & 0x3f))
+                            || buffer.get(pos + 2) != (byte) (0x80 | ((codePoint >> 6) & 0x3f))
+                            || buffer.get(pos + 3) != (byte) (0x80 | (codePoint & 0x3f))) {
+                        return false;
+                    }
+            }
+            pos += bytes;
+        }
+        return pos == end;
+    }
+
     public static final class Factory implements
             FromPointerReaderBlobDefault<Reader>,
             FromPointerBuilderBlobDefault<Builder>,
@@ -70,7 +371,7 @@ public final class Text {
     }
     public static final Factory factory = new Factory();
 
-    public static final class Reader {
+    public static final class Reader implements Comparable<Reader> {
 
         private final DataView buffer;
         private final int offset; // in bytes
@@ -101,14 +402,10 @@ public final class Text {
         }
 
         public Reader(String value) {
-            try {
-                byte[] bytes = value.getBytes("UTF-8");
-                this.buffer = ByteBufferDataView.wrap(bytes);
-                this.offset = 0;
-                this.size = bytes.length;
-            } catch (java.io.UnsupportedEncodingException e) {
-                throw new CapnProtoException("UTF-8 is unsupported");
-            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.buffer = ByteBufferDataView.wrap(bytes);
+            this.offset = 0;
+            this.size = bytes.length;
         }
 
         public final int size() {
@@ -131,14 +428,179 @@ public final class Text {
          */
         public byte[] toArray() {
             byte[] result = new byte[size];
-            buffer.readerPosition(offset);
-            buffer.get(result);
+            buffer.get(offset, result, 0, size);
             return result;
         }
 
+        /**
+         * Creates a view of the text, that decodes lazily. ASCII text is read
+         * without decoding, other text is decoded on the first access.
+         *
+         * @return the view.
+         */
+        public CharSequence asCharSequence() {
+            return new TextCharSequence(buffer, offset, size);
+        }
+
+        /**
+         * Compares the bytes of the text without decoding it.
+         *
+         * @param bytes the UTF-8 bytes to compare with.
+         *
+         * @return true if the text consists of exactly these bytes.
+         */
+        public boolean contentEquals(byte[] bytes) {
+            requireNonNull(bytes, "Parameter bytes can not be null.");
+            return Text.contentEquals(buffer, offset, size, bytes);
+        }
+
+        /**
+         * Compares the bytes of the two texts without decoding them.
+         *
+         * @param other the text to compare with.
+         *
+         * @return true if both texts consist of the same bytes.
+         */
+        public boolean contentEquals(Reader other) {
+            requireNonNull(other, "Parameter other can not be null.");
+            return size == other.size && mismatch(buffer, offset, other.buffer, other.offset, size) < 0;
+        }
+
+        /**
+         * Compares the text with the characters without decoding the text or
+         * encoding the characters into an array.
+         *
+         * @param value the characters to compare with.
+         *
+         * @return true if the text is the UTF-8 encoding of the characters.
+         */
+        public boolean contentEquals(CharSequence value) {
+            requireNonNull(value, "Parameter value can not be null.");
+            return Text.contentEquals(buffer, offset, size, value);
+        }
+
+        /**
+         * Tells if the text starts with the bytes.
+         *
+         * @param prefix the UTF-8 bytes of the prefix.
+         *
+         * @return true if the text starts with the prefix.
+         */
+        public boolean startsWith(byte[] prefix) {
+            requireNonNull(prefix, "Parameter prefix can not be null.");
+            return Text.startsWith(buffer, offset, size, prefix);
+        }
+
+        public boolean startsWith(Reader prefix) {
+            requireNonNull(prefix, "Parameter prefix can not be null.");
+            return size >= prefix.size && mismatch(buffer, offset, prefix.buffer, prefix.offset, prefix.size) < 0;
+        }
+
+        /**
+         * Compares the texts by their unsigned UTF-8 bytes, which is the same
+         * order as comparing their code points.
+         *
+         * @param other the text to compare with.
+         *
+         * @return a negative value, zero or a positive value if this text is
+         *         less than, equal to or greater than the other text.
+         */
+        @Override
+        public int compareTo(Reader other) {
+            final int length = Math.min(size, other.size);
+            final int index = mismatch(buffer, offset, other.buffer, other.offset, length);
+            if (index < 0) {
+                return Integer.compare(size, other.size);
+            }
+            return Integer.compare(buffer.get(offset + index) & 0xff, other.buffer.get(other.offset + index) & 0xff);
+        }
+
+        /**
+         * Computes the 64 bit FNV-1a hash of the bytes of the text. The hash
+         * is stable across processes and versions, and equal to
+         * {@link TextKey#hash64()} of the same text.
+         *
+         * @return the hash.
+         */
+        public long hash64() {
+            return Text.hash64(buffer, offset, size);
+        }
+
         @Override
         public final String toString() {
-            return new String(toArray(), Charset.forName("utf-8"));
+            return decode(buffer, offset, size);
+        }
+    }
+
+    /**
+     * A CharSequence over the UTF-8 bytes of a text. An instance is not thread
+     * safe.
+     */
+    private static final class TextCharSequence implements CharSequence {
+
+        private static final int UNKNOWN = 0;
+        private static final int ASCII = 1;
+        private static final int DECODED = 2;
+
+        private final DataView buffer;
+        private final int offset;
+        private final int size;
+        private int state;
+        private String decoded;
+
+        TextCharSequence(DataView buffer, int offset, int size) {
+            this(buffer, offset, size, UNKNOWN);
+        }
+
+        private TextCharSequence(DataView buffer, int offset, int size, int state) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.size = size;
+            this.state = state;
+        }
+
+        private boolean ascii() {
+            if (state == UNKNOWN) {
+                if (isAscii(buffer, offset, size)) {
+                    state = ASCII;
+                } else {
+                    decoded = decode(buffer, offset, size);
+                    state = DECODED;
+                }
+            }
+            return state == ASCII;
+        }
+
+        @Override
+        public int length() {
+            return ascii() ? size : decoded.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (ascii()) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("index " + index + " length " + size);
+                }
+                return (char) buffer.get(offset + index);
+            }
+            return decoded.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (ascii()) {
+                if (start < 0 || end > size || start > end) {
+                    throw new IndexOutOfBoundsException("start " + start + " end " + end + " length " + size);
+                }
+                return new TextCharSequence(buffer, offset + start, end - start, ASCII);
+            }
+            return decoded.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return ascii() ? decode(buffer, offset, size) : decoded;
         }
     }
 
@@ -176,14 +638,13 @@ public final class Text {
          */
         public byte[] toArray() {
             byte[] result = new byte[size];
-            buffer.readerPosition(offset);
-            buffer.get(result);
+            buffer.get(offset, result, 0, size);
             return result;
         }
 
         @Override
         public final String toString() {
-            return new String(toArray(), Charset.forName("utf-8"));
+            return decode(buffer, offset, size);
         }
 
         void copy(Reader srcReader) {
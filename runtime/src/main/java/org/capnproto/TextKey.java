@@ -0,0 +1,107 @@
+package org.capnproto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A text constant that is encoded once, for repeated comparisons with
+ * {@link Text.Reader}s. The comparisons work on the bytes of the message and
+ * don't allocate.
+ * <pre>{@code
+ * private static final TextKey VOLVO = TextKey.of("Volvo");
+ * ...
+ * if (VOLVO.matches(car.getMake())) {
+ * }</pre>
+ * <p>
+ * Keys are immutable and can be used in hash based collections.
+ */
+public final class TextKey {
+
+    private final byte[] bytes;
+    private final long hash64;
+    private final String value;
+
+    private TextKey(String value) {
+        this.value = value;
+        this.bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.hash64 = Text.hash64(bytes);
+    }
+
+    /**
+     * Creates a key for the text.
+     *
+     * @param value the text.
+     *
+     * @return the key.
+     */
+    public static TextKey of(CharSequence value) {
+        requireNonNull(value, "Parameter value can not be null.");
+        return new TextKey(value.toString());
+    }
+
+    /**
+     * Tells if the text consists of exactly the bytes of this key.
+     *
+     * @param text the text.
+     *
+     * @return true if the text equals the key.
+     */
+    public boolean matches(Text.Reader text) {
+        requireNonNull(text, "Parameter text can not be null.");
+        return text.contentEquals(bytes);
+    }
+
+    /**
+     * Tells if the text starts with the bytes of this key.
+     *
+     * @param text the text.
+     *
+     * @return true if the key is a prefix of the text.
+     */
+    public boolean isPrefixOf(Text.Reader text) {
+        requireNonNull(text, "Parameter text can not be null.");
+        return text.startsWith(bytes);
+    }
+
+    /**
+     * The size of the UTF-8 encoding.
+     *
+     * @return the size in bytes.
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * The 64 bit FNV-1a hash of the UTF-8 encoding. It is equal to
+     * {@link Text.Reader#hash64()} of a matching text.
+     *
+     * @return the hash.
+     */
+    public long hash64() {
+        return hash64;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TextKey)) {
+            return false;
+        }
+        final TextKey other = (TextKey) obj;
+        return hash64 == other.hash64 && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash64);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
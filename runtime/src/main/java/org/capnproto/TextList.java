@@ -124,8 +124,18 @@ public final class TextList {
 
         @Override
         public Stream<String> stream() {
-            return StreamSupport.stream(Spliterators.spliterator(this.iterator(), elementCount,
-                    Spliterator.SIZED & Spliterator.IMMUTABLE), false);
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        /**
+         * Creates an index based spliterator, that can be split for parallel
+         * processing. It is also used by {@link #parallelStream()}.
+         *
+         * @return the spliterator.
+         */
+        @Override
+        public Spliterator<String> spliterator() {
+            return new ListSpliterator<>(this, (list, index) -> list._getPointerElement(Text.factory, index).toString());
         }
 
         @Override
@@ -182,6 +192,31 @@ public final class TextList {
             _setPointerElement(Text.factory, index, value);
         }
 
+        public final void set(int index, CharSequence value) {
+            _setTextElement(index, value);
+        }
+
+        /**
+         * Detaches the text at the index, the element is null afterwards.
+         *
+         * @param index the index.
+         *
+         * @return the detached text.
+         */
+        public final Orphan disown(int index) {
+            return _disownPointerElement(index);
+        }
+
+        /**
+         * Attaches the text of the orphan at the index.
+         *
+         * @param index  the index.
+         * @param orphan the orphan.
+         */
+        public final void adopt(int index, Orphan orphan) {
+            _adoptPointerElement(index, orphan);
+        }
+
         public final Reader asReader() {
             final Reader reader = new Reader();
             reader.init(this.segment, this.ptr, this.elementCount, this.step,
@@ -0,0 +1,44 @@
+package org.capnproto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The segments of a message that passed the {@link MessageValidator}. The
+ * segments share the data of the validated arena and report
+ * {@link SegmentDataContainer#isValidated()}. The traversal limit was enforced
+ * for the whole message by the validator, so reads are not counted again.
+ */
+final class ValidatedArena implements AllocatedArena {
+
+    private final AllocatedArena source;
+    private final List<GenericSegmentReader> segments;
+
+    ValidatedArena(AllocatedArena source) {
+        this.source = source;
+        this.segments = new ArrayList<>(source.getSegments().size());
+        for (GenericSegmentReader segment : source.getSegments()) {
+            this.segments.add(new SegmentReader(segment.getBuffer(), this, true));
+        }
+    }
+
+    @Override
+    public List<GenericSegmentReader> getSegments() {
+        return segments;
+    }
+
+    @Override
+    public GenericSegmentReader tryGetSegment(int id) {
+        return segments.get(id);
+    }
+
+    @Override
+    public void checkReadLimit(int numBytes) {
+        // charged by the validator
+    }
+
+    @Override
+    public RecyclerScope getRecyclerScope() {
+        return source.getRecyclerScope();
+    }
+}
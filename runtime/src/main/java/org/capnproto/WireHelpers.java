@@ -24,19 +24,9 @@ import java.util.function.Consumer;
 
 final class WireHelpers {
 
-    private final static ThreadLocal<org.capnproto.Recycler<FollowFarsResult>> FOLLOW_FARS_RESULT_RECYLCER = new ThreadLocal<org.capnproto.Recycler<FollowFarsResult>>() {
-        @Override
-        protected org.capnproto.Recycler<FollowFarsResult> initialValue() {
-            return new org.capnproto.Recycler<>(FollowFarsResult::new);
-        }
-    };
 
-    private final static ThreadLocal<org.capnproto.Recycler<AllocateResult>> ALLOCATE_RESULT_RECYLCER = new ThreadLocal<org.capnproto.Recycler<AllocateResult>>() {
-        @Override
-        protected org.capnproto.Recycler<AllocateResult> initialValue() {
-            return new org.capnproto.Recycler<>(AllocateResult::new);
-        }
-    };
+    private final static org.capnproto.RecyclerProvider<org.capnproto.Recycler<AllocateResult>> ALLOCATE_RESULT_RECYLCER = new org.capnproto.RecyclerProvider<>(
+            (capacity, shared) -> new org.capnproto.Recycler<>(AllocateResult::new, capacity, shared));
 
     static int roundBytesUpToWords(int bytes) {
         return (bytes + 7) / 8;
@@ -109,7 +99,7 @@ final class WireHelpers {
 
         if (amount == 0 && kind == WirePointer.STRUCT) {
             WirePointer.setKindAndTargetForEmptyStruct(segment.getBuffer(), refOffset);
-            AllocateResult result = ALLOCATE_RESULT_RECYLCER.get().getOrCreate();
+            AllocateResult result = ALLOCATE_RESULT_RECYLCER.get(segment).getOrCreate();
             result.init(refOffset, refOffset, segment);
             return result;
         }
@@ -135,13 +125,13 @@ final class WireHelpers {
 
             WirePointer.setKindAndTarget(allocation.segment.getBuffer(), resultRefOffset, kind,
                     ptr1);
-            AllocateResult result = ALLOCATE_RESULT_RECYLCER.get().getOrCreate();
+            AllocateResult result = ALLOCATE_RESULT_RECYLCER.get(segment).getOrCreate();
             result.init(ptr1, resultRefOffset, allocation.segment);
             return result;
 
         } else {
             WirePointer.setKindAndTarget(segment.getBuffer(), refOffset, kind, ptr);
-            AllocateResult result = ALLOCATE_RESULT_RECYLCER.get().getOrCreate();
+            AllocateResult result = ALLOCATE_RESULT_RECYLCER.get(segment).getOrCreate();
             result.init(ptr, refOffset, segment);
             return result;
         }
@@ -196,71 +186,33 @@ final class WireHelpers {
         }
     }
 
-    static class FollowFarsResult implements Recyclable<FollowFarsResult> {
-
-        public int ptr;
-        public long ref;
-        public SegmentDataContainer segment;
-        private boolean recycled;
-        private Recycler<FollowFarsResult> recycler;
-
-        @Override
-        public void init(Recycler<FollowFarsResult> recycler) {
-            this.recycler = recycler;
-        }
-
-        @Override
-        public void recycle() {
-            if (recycled) {
-                throw new IllegalStateException("Already recycled");
-            }
-            recycled = true;
-            ptr = 0;
-            ref = 0;
-            segment = null;
-            recycler.recycle(this);
-        }
-
-        private void init(int ptr, long ref, SegmentDataContainer segment) {
-            recycled = false;
-            this.ptr = ptr;
-            this.ref = ref;
-            this.segment = segment;
+    /**
+     * Resolves the target of a far pointer from its landing pad, without
+     * reading the message again.
+     *
+     * @param ref the far pointer.
+     * @param pad the landing pad the far pointer points to.
+     *
+     * @return the segment id in the upper and the word offset of the target in
+     *         the lower 32 bits, see {@link #farSegmentId(long)} and
+     *         {@link #farOffset(long)}.
+     */
+    static long followFars(long ref, long pad) {
+        if (!FarPointer.isDoubleFar(ref)) {
+            return ((long) FarPointer.getSegmentId(ref) << 32) | (WirePointer.target(FarPointer.positionInSegment(ref), pad) & 0xffff_ffffL);
         }
+        //# Landing pad is another far pointer. It is
+        //# followed by a tag describing the pointed-to
+        //# object.
+        return ((long) FarPointer.getSegmentId(pad) << 32) | (FarPointer.positionInSegment(pad) & 0xffff_ffffL);
     }
 
-    static FollowFarsResult followFars(long ref, int refTarget, SegmentDataContainer segment) {
-        //# If the segment is null, this is an unchecked message,
-        //# so there are no FAR pointers.
-        if (segment != null && WirePointer.kind(ref) == WirePointer.FAR) {
-            SegmentDataContainer resultSegment = segment.getArena().tryGetSegment(FarPointer.getSegmentId(ref));
-            int padOffset = FarPointer.positionInSegment(ref);
-            long pad = resultSegment.get(padOffset);
-
-            int padWords = FarPointer.isDoubleFar(ref) ? 2 : 1;
-            // TODO read limiting
-
-            if (!FarPointer.isDoubleFar(ref)) {
+    static int farSegmentId(long target) {
+        return (int) (target >>> 32);
+    }
 
-                FollowFarsResult result = FOLLOW_FARS_RESULT_RECYLCER.get().getOrCreate();
-                result.init(WirePointer.target(padOffset, pad), pad, resultSegment);
-                return result;
-            } else {
-                //# Landing pad is another far pointer. It is
-                //# followed by a tag describing the pointed-to
-                //# object.
-
-                long tag = resultSegment.get(padOffset + 1);
-                resultSegment = resultSegment.getArena().tryGetSegment(FarPointer.getSegmentId(pad));
-                FollowFarsResult result = FOLLOW_FARS_RESULT_RECYLCER.get().getOrCreate();
-                result.init(FarPointer.positionInSegment(pad), tag, resultSegment);
-                return result;
-            }
-        } else {
-            FollowFarsResult result = FOLLOW_FARS_RESULT_RECYLCER.get().getOrCreate();
-            result.init(refTarget, ref, segment);
-            return result;
-        }
+    static int farOffset(long target) {
+        return (int) target;
     }
 
     static void zeroObject(GenericSegmentBuilder segment, int refOffset) {
@@ -426,7 +378,6 @@ final class WireHelpers {
         //# OrphanBuilder.
 
         long src = srcSegment.get(srcOffset);
-        long srcTarget = srcSegment.get(srcTargetOffset);
 
         if (dstSegment == srcSegment) {
             //# Same segment, so create a direct pointer.
@@ -469,7 +420,7 @@ final class WireHelpers {
             } else {
                 //# Simple landing pad is just a pointer.
                 WirePointer.setKindAndTarget(srcSegment.getBuffer(), landingPadOffset,
-                        WirePointer.kind(srcTarget), srcTargetOffset);
+                        WirePointer.kind(src), srcTargetOffset);
                 srcSegment.getBuffer().putInt(landingPadOffset * Constants.BYTES_PER_WORD + 4,
                         srcSegment.getBuffer().getInt(srcOffset * Constants.BYTES_PER_WORD + 4));
 
@@ -894,6 +845,13 @@ final class WireHelpers {
         return builder;
     }
 
+    static Text.Builder setTextPointer(int refOffset, GenericSegmentBuilder segment, CharSequence value) {
+        final int size = Text.encodedLength(value);
+        Text.Builder builder = initTextPointer(refOffset, segment, size);
+        Text.encode(value, size, builder.buffer, builder.offset);
+        return builder;
+    }
+
     static Text.Builder getWritableTextPointer(int refOffset,
             GenericSegmentBuilder segment,
             DataView defaultBuffer,
@@ -1017,13 +975,23 @@ final class WireHelpers {
         }
 
         int refTarget = WirePointer.target(refOffset, ref);
-        // use a Threadlocal recycler for the far results to safely avoid generating billions of instances
-        FollowFarsResult ownedFollowFarsResult = followFars(ref, refTarget, segment);
-        final long farRef = ownedFollowFarsResult.ref;
-        final SegmentDataContainer farSegment = ownedFollowFarsResult.segment;
-        final int farPtr = ownedFollowFarsResult.ptr;
-        ownedFollowFarsResult.recycle();
-        ownedFollowFarsResult = null;
+        long farRef = ref;
+        int farPtr = refTarget;
+        SegmentDataContainer farSegment = segment;
+        if (WirePointer.kind(ref) == WirePointer.FAR) {
+            // TODO read limiting
+            final SegmentDataContainer padSegment = segment.getArena().tryGetSegment(FarPointer.getSegmentId(ref));
+            final long pad = padSegment.get(FarPointer.positionInSegment(ref));
+            final long target = followFars(ref, pad);
+            if (FarPointer.isDoubleFar(ref)) {
+                farRef = padSegment.get(FarPointer.positionInSegment(ref) + 1);
+                farSegment = padSegment.getArena().tryGetSegment(farSegmentId(target));
+            } else {
+                farRef = pad;
+                farSegment = padSegment;
+            }
+            farPtr = farOffset(target);
+        }
 
         int dataSizeWords = StructPointer.dataSize(farRef);
 
@@ -1043,6 +1011,24 @@ final class WireHelpers {
     }
 
     static GenericSegmentBuilder setStructPointer(GenericSegmentBuilder segment, int refOffset, StructReader value) {
+        if (value.dataSize % Constants.BITS_PER_WORD == 0 && value.data % Constants.BYTES_PER_WORD == 0) {
+            final short dataSize = (short) (value.dataSize / Constants.BITS_PER_WORD);
+            final int ptr = value.data / Constants.BYTES_PER_WORD;
+            final int structEnd = ptr + dataSize + value.pointerCount;
+            if (value.pointers == ptr + dataSize) {
+                final int end = elementsBlockEnd(value.segment, ptr, 1, dataSize, value.pointerCount, structEnd, value.nestingLimit);
+                if (end >= 0) {
+                    // the struct itself was charged by its reader
+                    value.segment.getArena().checkReadLimit(end - structEnd);
+                    final long ref = ((long) value.pointerCount << 48) | ((long) dataSize << 32);
+                    return copyBlock(segment, refOffset, ref, value.segment, ptr, end - ptr);
+                }
+            }
+        }
+        return setStructPointer(segment, refOffset, value, false);
+    }
+
+    private static GenericSegmentBuilder setStructPointer(GenericSegmentBuilder segment, int refOffset, StructReader value, boolean tryBlock) {
         short dataSize = (short) roundBitsUpToWords(value.dataSize);
         int totalSize = dataSize + value.pointerCount * Constants.POINTER_SIZE_IN_WORDS;
 
@@ -1064,12 +1050,46 @@ final class WireHelpers {
 
         int pointerSection = ptr + dataSize;
         for (int i = 0; i < value.pointerCount; ++i) {
-            copyPointer(allocationSegment, pointerSection + i, value.segment, value.pointers + i, value.nestingLimit);
+            copyPointer(allocationSegment, pointerSection + i, value.segment, value.pointers + i, value.nestingLimit, tryBlock);
         }
         return allocationSegment;
     }
 
     static GenericSegmentBuilder setListPointer(GenericSegmentBuilder segment, int refOffset, ListReader value) {
+        if (value.elementCount > 0 && value.ptr % Constants.BYTES_PER_WORD == 0) {
+            final int ptr = value.ptr / Constants.BYTES_PER_WORD;
+            if (value.step == Constants.BITS_PER_POINTER && value.structPointerCount == 1) {
+                //# List of pointers.
+                final int bodyEnd = ptr + value.elementCount;
+                final int end = elementsBlockEnd(value.segment, ptr, value.elementCount, 0, 1, bodyEnd, value.nestingLimit);
+                if (end >= 0) {
+                    value.segment.getArena().checkReadLimit(end - bodyEnd);
+                    final long ref = ((long) (value.elementCount << 3 | ElementSize.POINTER) << 32) | WirePointer.LIST;
+                    return copyBlock(segment, refOffset, ref, value.segment, ptr, end - ptr);
+                }
+            } else if (value.step > Constants.BITS_PER_WORD && ptr > 0) {
+                //# List of structs, the tag precedes the elements.
+                final short dataSize = (short) roundBitsUpToWords(value.structDataSize);
+                final long tag = value.segment.get(ptr - 1);
+                final int wordCount = value.elementCount * (dataSize + value.structPointerCount);
+                if (WirePointer.kind(tag) == WirePointer.STRUCT
+                        && WirePointer.inlineCompositeListElementCount(tag) == value.elementCount
+                        && StructPointer.dataSize(tag) == dataSize
+                        && StructPointer.ptrCount(tag) == value.structPointerCount) {
+                    final int bodyEnd = ptr + wordCount;
+                    final int end = elementsBlockEnd(value.segment, ptr, value.elementCount, dataSize, value.structPointerCount, bodyEnd, value.nestingLimit);
+                    if (end >= 0) {
+                        value.segment.getArena().checkReadLimit(end - bodyEnd);
+                        final long ref = ((long) (wordCount << 3 | ElementSize.INLINE_COMPOSITE) << 32) | WirePointer.LIST;
+                        return copyBlock(segment, refOffset, ref, value.segment, ptr - 1, end - ptr + 1);
+                    }
+                }
+            }
+        }
+        return setListPointer(segment, refOffset, value, false);
+    }
+
+    private static GenericSegmentBuilder setListPointer(GenericSegmentBuilder segment, int refOffset, ListReader value, boolean tryBlock) {
         int totalSize = roundBitsUpToWords(value.elementCount * value.step);
 
         if (value.step <= Constants.BITS_PER_WORD) {
@@ -1086,7 +1106,7 @@ final class WireHelpers {
                 //# List of pointers.
                 ListPointer.set(allocationSegment.getBuffer(), allocationRefOffset, ElementSize.POINTER, value.elementCount);
                 for (int i = 0; i < value.elementCount; ++i) {
-                    copyPointer(allocationSegment, ptr + i, value.segment, value.ptr / Constants.BYTES_PER_WORD + i, value.nestingLimit);
+                    copyPointer(allocationSegment, ptr + i, value.segment, value.ptr / Constants.BYTES_PER_WORD + i, value.nestingLimit, tryBlock);
                 }
             } else {
                 //# List of data.
@@ -1149,7 +1169,7 @@ final class WireHelpers {
                 srcOffset += dataSize;
 
                 for (int j = 0; j < pointerCount; ++j) {
-                    copyPointer(allocationSegment, dstOffset, value.segment, srcOffset, value.nestingLimit);
+                    copyPointer(allocationSegment, dstOffset, value.segment, srcOffset, value.nestingLimit, tryBlock);
                     dstOffset += Constants.POINTER_SIZE_IN_WORDS;
                     srcOffset += Constants.POINTER_SIZE_IN_WORDS;
                 }
@@ -1167,8 +1187,123 @@ final class WireHelpers {
         srcBuffer.writeTo(dstBuffer, dstByteOffset, srcByteOffset, srcLength);
     }
 
+    /**
+     * Finds the end of the block of an object and its children, if the
+     * children follow the object in pre-order without gaps, as written by the
+     * builders and by {@link #copyPointer}. Such a block can be copied at once,
+     * because all of its pointers are relative to the block. Far pointers,
+     * shared objects and objects that charge more than their size to the read
+     * limit end the block. Zero-sized objects are copied with their offset, so
+     * they end the block unless their target stays within it.
+     *
+     * @param segment      the segment of the object.
+     * @param ref          the pointer to the object.
+     * @param ptr          the word offset of the object.
+     * @param cursor       the word offset where the object has to start.
+     * @param nestingLimit the nesting limit of the object.
+     *
+     * @return the word offset after the block, or -1 if there is none.
+     */
+    private static int objectBlockEnd(SegmentDataContainer segment, long ref, int ptr, int cursor, int nestingLimit) {
+        if (nestingLimit <= 0) {
+            return -1;
+        }
+        switch (WirePointer.kind(ref)) {
+            case WirePointer.STRUCT: {
+                final int words = StructPointer.wordSize(ref);
+                if (words == 0) {
+                    // the offset -1 points at the pointer itself
+                    return ptr == cursor || WirePointer.offsetAndKind(ref) >> 2 == -1 ? cursor : -1;
+                }
+                if (ptr != cursor) {
+                    return -1;
+                }
+                return elementsBlockEnd(segment, ptr, 1, StructPointer.dataSize(ref), StructPointer.ptrCount(ref), ptr + words, nestingLimit - 1);
+            }
+            case WirePointer.LIST: {
+                final byte elementSize = ListPointer.elementSize(ref);
+                if (elementSize == ElementSize.INLINE_COMPOSITE) {
+                    final int wordCount = ListPointer.inlineCompositeWordCount(ref);
+                    if (ptr != cursor || ptr + 1 + wordCount > segment.getBuffer().capacity() / Constants.BYTES_PER_WORD) {
+                        return -1;
+                    }
+                    final long tag = segment.get(ptr);
+                    final int elementCount = WirePointer.inlineCompositeListElementCount(tag);
+                    final int wordsPerElement = StructPointer.wordSize(tag);
+                    if (WirePointer.kind(tag) != WirePointer.STRUCT
+                            || (long) wordsPerElement * elementCount > wordCount
+                            || (wordsPerElement == 0 && elementCount > 0)) {
+                        return -1;
+                    }
+                    return elementsBlockEnd(segment, ptr + 1, elementCount, StructPointer.dataSize(tag), StructPointer.ptrCount(tag), ptr + 1 + wordCount, nestingLimit - 1);
+                }
+                final int elementCount = ListPointer.elementCount(ref);
+                if (elementSize == ElementSize.VOID && elementCount > 0) {
+                    return -1;
+                }
+                final int step = ElementSize.dataBitsPerElement(elementSize) + ElementSize.pointersPerElement(elementSize) * Constants.BITS_PER_POINTER;
+                final int words = roundBitsUpToWords((long) elementCount * step);
+                if (words == 0) {
+                    // the offsets 0 and -1 point at the pointer or the word after it
+                    final int offset = WirePointer.offsetAndKind(ref) >> 2;
+                    return ptr == cursor || offset == 0 || offset == -1 ? cursor : -1;
+                }
+                if (ptr != cursor) {
+                    return -1;
+                }
+                if (elementSize == ElementSize.POINTER) {
+                    return elementsBlockEnd(segment, ptr, elementCount, 0, 1, ptr + words, nestingLimit - 1);
+                }
+                return elementsBlockEnd(segment, ptr, 0, 0, 0, ptr + words, nestingLimit - 1);
+            }
+            default:
+                return -1;
+        }
+    }
+
+    // the block of consecutive struct elements, followed by their children in pre-order
+    private static int elementsBlockEnd(SegmentDataContainer segment, int ptr, int elementCount, int dataSize, int pointerCount, int end, int nestingLimit) {
+        if (end > segment.getBuffer().capacity() / Constants.BYTES_PER_WORD) {
+            return -1;
+        }
+        int cursor = end;
+        final int step = dataSize + pointerCount;
+        for (int i = 0; i < elementCount; ++i) {
+            final int pointers = ptr + i * step + dataSize;
+            for (int j = 0; j < pointerCount && cursor >= 0; ++j) {
+                final long ref = segment.get(pointers + j);
+                if (!WirePointer.isNull(ref)) {
+                    cursor = objectBlockEnd(segment, ref, WirePointer.target(pointers + j, ref), cursor, nestingLimit);
+                }
+            }
+        }
+        return cursor;
+    }
+
+    // copies a block found by objectBlockEnd with a single memcpy
+    private static GenericSegmentBuilder copyBlock(GenericSegmentBuilder dstSegment, int dstOffset,
+            long srcRef, SegmentDataContainer srcSegment, int srcPtr, int words) {
+        AllocateResult ownedAllocationResult = allocate(dstOffset, dstSegment, words, WirePointer.kind(srcRef));
+        final GenericSegmentBuilder allocationSegment = ownedAllocationResult.segment;
+        final int allocationRefOffset = ownedAllocationResult.refOffset;
+        final int ptr = ownedAllocationResult.ptr;
+        ownedAllocationResult.recycle();
+        // ownedAllocationResult is invalid after the call to recycle()
+        ownedAllocationResult = null;
+
+        allocationSegment.getBuffer().putInt(allocationRefOffset * Constants.BYTES_PER_WORD + 4, WirePointer.upper32Bits(srcRef));
+        memcpy(allocationSegment.getBuffer(), ptr * Constants.BYTES_PER_WORD,
+                srcSegment.getBuffer(), srcPtr * Constants.BYTES_PER_WORD, words * Constants.BYTES_PER_WORD);
+        return allocationSegment;
+    }
+
     static GenericSegmentBuilder copyPointer(GenericSegmentBuilder dstSegment, int dstOffset,
             SegmentDataContainer srcSegment, int srcOffset, int nestingLimit) {
+        return copyPointer(dstSegment, dstOffset, srcSegment, srcOffset, nestingLimit, true);
+    }
+
+    private static GenericSegmentBuilder copyPointer(GenericSegmentBuilder dstSegment, int dstOffset,
+            SegmentDataContainer srcSegment, int srcOffset, int nestingLimit, boolean tryBlock) {
         // Deep-copy the object pointed to by src into dst.  It turns out we can't reuse
         // readStructPointer(), etc. because they do type checking whereas here we want to accept any
         // valid pointer.
@@ -1182,13 +1317,33 @@ final class WireHelpers {
 
         int srcTarget = WirePointer.target(srcOffset, srcRef);
 
-        // use a Threadlocal recycler for the far results to safely avoid generating billions of instances
-        FollowFarsResult ownedFollowFarsResult = followFars(srcRef, srcTarget, srcSegment);
-        final long farRef = ownedFollowFarsResult.ref;
-        final SegmentDataContainer farSegment = ownedFollowFarsResult.segment;
-        final int farPtr = ownedFollowFarsResult.ptr;
-        ownedFollowFarsResult.recycle();
-        ownedFollowFarsResult = null;
+        long farRef = srcRef;
+        int farPtr = srcTarget;
+        SegmentDataContainer farSegment = srcSegment;
+        if (WirePointer.kind(srcRef) == WirePointer.FAR) {
+            // TODO read limiting
+            final SegmentDataContainer padSegment = srcSegment.getArena().tryGetSegment(FarPointer.getSegmentId(srcRef));
+            final long pad = padSegment.get(FarPointer.positionInSegment(srcRef));
+            final long target = followFars(srcRef, pad);
+            if (FarPointer.isDoubleFar(srcRef)) {
+                farRef = padSegment.get(FarPointer.positionInSegment(srcRef) + 1);
+                farSegment = padSegment.getArena().tryGetSegment(farSegmentId(target));
+            } else {
+                farRef = pad;
+                farSegment = padSegment;
+            }
+            farPtr = farOffset(target);
+            // a far pointer starts a new region, that may be a block again
+            tryBlock = true;
+        }
+
+        if (tryBlock) {
+            final int end = objectBlockEnd(farSegment, farRef, farPtr, farPtr, nestingLimit);
+            if (end >= 0) {
+                farSegment.getArena().checkReadLimit(end - farPtr);
+                return copyBlock(dstSegment, dstOffset, farRef, farSegment, farPtr, end - farPtr);
+            }
+        }
 
         switch (WirePointer.kind(farRef)) {
             case WirePointer.STRUCT:
@@ -1202,7 +1357,7 @@ final class WireHelpers {
                                 farPtr + StructPointer.dataSize(farRef),
                                 StructPointer.dataSize(farRef) * Constants.BITS_PER_WORD,
                                 StructPointer.ptrCount(farRef),
-                                nestingLimit - 1));
+                                nestingLimit - 1), false);
             case WirePointer.LIST:
                 byte elementSize = ListPointer.elementSize(farRef);
                 if (nestingLimit <= 0) {
@@ -1239,7 +1394,7 @@ final class WireHelpers {
                             StructPointer.dataSize(tag) * Constants.BITS_PER_WORD,
                             StructPointer.ptrCount(tag),
                             nestingLimit - 1);
-                    return setListPointer(dstSegment, dstOffset, listReader);
+                    return setListPointer(dstSegment, dstOffset, listReader, false);
                 } else {
                     int dataSize = ElementSize.dataBitsPerElement(elementSize);
                     short pointerCount = ElementSize.pointersPerElement(elementSize);
@@ -1263,7 +1418,7 @@ final class WireHelpers {
                             dataSize,
                             pointerCount,
                             nestingLimit - 1);
-                    return setListPointer(dstSegment, dstOffset, listReader);
+                    return setListPointer(dstSegment, dstOffset, listReader, false);
                 }
 
             case WirePointer.FAR:
@@ -1300,13 +1455,23 @@ final class WireHelpers {
 
         int refTarget = WirePointer.target(refOffset, ref);
 
-        // use a Threadlocal recycler for the far results to safely avoid generating billions of instances
-        FollowFarsResult ownedFollowFarsResult = followFars(ref, refTarget, segment);
-        final long farRef = ownedFollowFarsResult.ref;
-        final SegmentDataContainer farSegment = ownedFollowFarsResult.segment;
-        final int farPtr = ownedFollowFarsResult.ptr;
-        ownedFollowFarsResult.recycle();
-        ownedFollowFarsResult = null;
+        long farRef = ref;
+        int farPtr = refTarget;
+        SegmentDataContainer farSegment = segment;
+        if (WirePointer.kind(ref) == WirePointer.FAR) {
+            // TODO read limiting
+            final SegmentDataContainer padSegment = segment.getArena().tryGetSegment(FarPointer.getSegmentId(ref));
+            final long pad = padSegment.get(FarPointer.positionInSegment(ref));
+            final long target = followFars(ref, pad);
+            if (FarPointer.isDoubleFar(ref)) {
+                farRef = padSegment.get(FarPointer.positionInSegment(ref) + 1);
+                farSegment = padSegment.getArena().tryGetSegment(farSegmentId(target));
+            } else {
+                farRef = pad;
+                farSegment = padSegment;
+            }
+            farPtr = farOffset(target);
+        }
 
         byte elementSize = ListPointer.elementSize(farRef);
         switch (elementSize) {
@@ -1407,13 +1572,23 @@ final class WireHelpers {
 
         int refTarget = WirePointer.target(refOffset, ref);
 
-        // use a Threadlocal recycler for the far results to safely avoid generating billions of instances
-        FollowFarsResult ownedFollowFarsResult = followFars(ref, refTarget, segment);
-        final long farRef = ownedFollowFarsResult.ref;
-        final SegmentDataContainer farSegment = ownedFollowFarsResult.segment;
-        final int farPtr = ownedFollowFarsResult.ptr;
-        ownedFollowFarsResult.recycle();
-        ownedFollowFarsResult = null;
+        long farRef = ref;
+        int farPtr = refTarget;
+        SegmentDataContainer farSegment = segment;
+        if (WirePointer.kind(ref) == WirePointer.FAR) {
+            // TODO read limiting
+            final SegmentDataContainer padSegment = segment.getArena().tryGetSegment(FarPointer.getSegmentId(ref));
+            final long pad = padSegment.get(FarPointer.positionInSegment(ref));
+            final long target = followFars(ref, pad);
+            if (FarPointer.isDoubleFar(ref)) {
+                farRef = padSegment.get(FarPointer.positionInSegment(ref) + 1);
+                farSegment = padSegment.getArena().tryGetSegment(farSegmentId(target));
+            } else {
+                farRef = pad;
+                farSegment = padSegment;
+            }
+            farPtr = farOffset(target);
+        }
 
         int size = ListPointer.elementCount(farRef);
 
@@ -1443,28 +1618,38 @@ final class WireHelpers {
             return fallBack;
         }
 
-        FollowFarsResult ownedFollowFarsResult = followFars(ref, WirePointer.target(refOffset, ref), segment);
-        final Data.Reader result = readDataPointer(ownedFollowFarsResult, recycler);
-        ownedFollowFarsResult.recycle();
-        return result;
-    }
-
-    private static Data.Reader readDataPointer(FollowFarsResult borrowedFollowFarsResult, Recycler<Data.Reader> recycler) throws DecodeException {
+        long farRef = ref;
+        int farPtr = WirePointer.target(refOffset, ref);
+        SegmentDataContainer farSegment = segment;
+        if (WirePointer.kind(ref) == WirePointer.FAR) {
+            // TODO read limiting
+            final SegmentDataContainer padSegment = segment.getArena().tryGetSegment(FarPointer.getSegmentId(ref));
+            final long pad = padSegment.get(FarPointer.positionInSegment(ref));
+            final long target = followFars(ref, pad);
+            if (FarPointer.isDoubleFar(ref)) {
+                farRef = padSegment.get(FarPointer.positionInSegment(ref) + 1);
+                farSegment = padSegment.getArena().tryGetSegment(farSegmentId(target));
+            } else {
+                farRef = pad;
+                farSegment = padSegment;
+            }
+            farPtr = farOffset(target);
+        }
 
-        int size = ListPointer.elementCount(borrowedFollowFarsResult.ref);
+        int size = ListPointer.elementCount(farRef);
 
-        if (WirePointer.kind(borrowedFollowFarsResult.ref) != WirePointer.LIST) {
+        if (WirePointer.kind(farRef) != WirePointer.LIST) {
             throw new DecodeException("Message contains non-list pointer where data was expected.");
         }
 
-        if (ListPointer.elementSize(borrowedFollowFarsResult.ref) != ElementSize.BYTE) {
+        if (ListPointer.elementSize(farRef) != ElementSize.BYTE) {
             throw new DecodeException("Message contains list pointer of non-bytes where data was expected.");
         }
 
-        borrowedFollowFarsResult.segment.getArena().checkReadLimit(roundBytesUpToWords(size));
+        farSegment.getArena().checkReadLimit(roundBytesUpToWords(size));
 
         Data.Reader dataReader = recycler.getOrCreate();
-        dataReader.init(borrowedFollowFarsResult.segment.getBuffer(), borrowedFollowFarsResult.ptr, size);
+        dataReader.init(farSegment.getBuffer(), farPtr, size);
         return dataReader;
     }
 
@@ -40,7 +40,8 @@ final class WirePointer {
     }
 
     public static int target(int offset, long wirePointer) {
-        return offset + 1 + (offsetAndKind(wirePointer) >>> 2);
+        // the offset is signed, objects can precede their pointer
+        return offset + 1 + (offsetAndKind(wirePointer) >> 2);
     }
 
     public static void setKindAndTarget(DataView buffer, int offset, byte kind, int targetOffset) {
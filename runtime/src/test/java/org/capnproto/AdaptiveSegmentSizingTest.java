@@ -0,0 +1,68 @@
+package org.capnproto;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class AdaptiveSegmentSizingTest {
+
+    private static final BareStructFactory SMALL = new BareStructFactory(new StructSize((short) 2, (short) 0));
+    private static final BareStructFactory LIST = new BareStructFactory(new StructSize((short) 0, (short) 1));
+
+    private static void buildList(MessageBuilder message, int elements) {
+        message.initRoot(LIST)._initPointerField(PrimitiveList.Long.factory, 0, elements);
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long bytes : new long[]{0, 3, 4, 7, 8, 9, 1000, 1023, 1024, 100_000, Integer.MAX_VALUE}) {
+            int bucket = AdaptiveSegmentSizing.bucket(bytes);
+            assertThat(AdaptiveSegmentSizing.bucketUpperBound(bucket) >= bytes, is(true));
+            if (bucket > 0) {
+                assertThat(AdaptiveSegmentSizing.bucketUpperBound(bucket - 1) < bytes, is(true));
+            }
+        }
+    }
+
+    @Test
+    public void testFirstSegmentCoversPercentile() {
+        AdaptiveSegmentSizing sizing = new AdaptiveSegmentSizing();
+        assertThat(sizing.getFirstSegmentBytes(LIST), is(BuilderArena.SUGGESTED_FIRST_SEGMENT_WORDS * Constants.BYTES_PER_WORD));
+        for (int i = 0; i < 100; i++) {
+            MessageBuilder message = sizing.newMessageBuilder(LIST);
+            // 5 % of the messages are large
+            buildList(message, i % 20 == 0 ? 100_000 : 3_000);
+            sizing.record(LIST, message);
+        }
+        int first = sizing.getFirstSegmentBytes(LIST);
+        assertThat(first >= 3_000 * 8, is(true));
+        assertThat(first < 100_000, is(true));
+        // the other root type is unaffected
+        assertThat(sizing.getFirstSegmentBytes(SMALL), is(BuilderArena.SUGGESTED_FIRST_SEGMENT_WORDS * Constants.BYTES_PER_WORD));
+
+        MessageBuilder message = sizing.newMessageBuilder(LIST);
+        buildList(message, 3_000);
+        assertThat(message.getArena().getSegments().size(), is(1));
+    }
+
+    @Test
+    public void testDecay() {
+        AdaptiveSegmentSizing sizing = new AdaptiveSegmentSizing(0.5, 10, DefaultAllocator.ByteBufferAllocationStyle.REGULAR);
+        for (int i = 0; i < 10; i++) {
+            sizing.record(SMALL, 100_000);
+        }
+        for (int i = 0; i < 30; i++) {
+            sizing.record(SMALL, 100);
+        }
+        assertThat(sizing.getFirstSegmentBytes(SMALL) < 1_000, is(true));
+    }
+
+    @Test
+    public void testDefaultAllocatorGrowsOnce() {
+        DefaultAllocator allocator = new DefaultAllocator();
+        allocator.setNextAllocationSizeBytes(1_024);
+        assertThat(allocator.allocateSegment(8).capacity(), is(1_024));
+        assertThat(allocator.allocateSegment(8).capacity(), is(2_048));
+        assertThat(allocator.allocateSegment(8).capacity(), is(4_096));
+    }
+}
@@ -0,0 +1,34 @@
+package org.capnproto;
+
+/**
+ * A StructFactory for plain {@link StructReader} and {@link StructBuilder}, to
+ * build and read messages without generated code.
+ */
+class BareStructFactory extends StructFactory<StructBuilder, StructReader> {
+
+    private final StructSize structSize;
+
+    BareStructFactory(StructSize structSize) {
+        this.structSize = structSize;
+    }
+
+    @Override
+    public StructReader constructReader(SegmentDataContainer segment, int data, int pointers, int dataSize, short pointerCount, int nestingLimit) {
+        return new StructReader(segment, data, pointers, dataSize, pointerCount, nestingLimit);
+    }
+
+    @Override
+    public StructBuilder constructBuilder(GenericSegmentBuilder segment, int data, int pointers, int dataSize, short pointerCount) {
+        return new StructBuilder(segment, data, pointers, dataSize, pointerCount);
+    }
+
+    @Override
+    public StructSize structSize() {
+        return structSize;
+    }
+
+    @Override
+    public StructReader asReader(StructBuilder builder) {
+        return new StructReader(builder.segment, builder.data, builder.pointers, builder.dataSize, builder.pointerCount, 0x7fffffff);
+    }
+}
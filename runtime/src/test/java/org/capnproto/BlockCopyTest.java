@@ -0,0 +1,152 @@
+package org.capnproto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class BlockCopyTest {
+
+    private static final BareStructFactory NODE = new BareStructFactory(new StructSize((short) 1, (short) 3));
+    private static final StructList.Factory<StructBuilder, StructReader> CHILDREN = new StructList.Factory<>(NODE);
+
+    private static final BareStructFactory EMPTY = new BareStructFactory(new StructSize((short) 0, (short) 0));
+
+    private static MessageReader reader(MessageBuilder message, ReaderOptions options) {
+        return new MessageReader(message.getArena().getSegmentsForOutput(), options);
+    }
+
+    // a tree of nodes in pre-order, with text, struct list and pointer list children
+    private static void fill(StructBuilder node, int depth) {
+        node._setLongField(0, depth);
+        node._setTextField(0, "node " + depth);
+        if (depth > 0) {
+            StructList.Builder<StructBuilder> children = node._initPointerField(CHILDREN, 1, 2);
+            fill(children.get(0), depth - 1);
+            fill(children.get(1), depth - 1);
+            fill(node._getPointerField(NODE, 2), depth - 1);
+        }
+    }
+
+    private static void check(StructReader node, int depth) {
+        assertThat(node._getLongField(0), is((long) depth));
+        assertThat(node._getPointerField(Text.factory, 0).toString(), is("node " + depth));
+        if (depth > 0) {
+            StructList.Reader<StructReader> children = node._getPointerField(CHILDREN, 1);
+            assertThat(children.size(), is(2));
+            check(children.get(0), depth - 1);
+            check(children.get(1), depth - 1);
+            check(node._getPointerField(NODE, 2), depth - 1);
+        } else {
+            assertThat(node._pointerFieldIsNull(1), is(true));
+            assertThat(node._pointerFieldIsNull(2), is(true));
+        }
+    }
+
+    private static int words(MessageBuilder message) {
+        int words = 0;
+        for (GenericSegmentBuilder segment : message.getArena().getSegments()) {
+            words += segment.currentSize();
+        }
+        return words;
+    }
+
+    @Test
+    public void testCopyContiguousTree() {
+        MessageBuilder source = new MessageBuilder();
+        fill(source.initRoot(NODE), 4);
+
+        MessageBuilder copy = new MessageBuilder();
+        copy.setRoot(NODE, reader(source, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(NODE));
+        // the copy has exactly the layout of the source
+        assertThat(words(copy), is(words(source)));
+        GenericSegmentBuilder copied = copy.getArena().getSegments().get(0);
+        GenericSegmentBuilder original = source.getArena().getSegments().get(0);
+        for (int i = 0; i < words(source); i++) {
+            assertThat(copied.get(i), is(original.get(i)));
+        }
+        check(reader(copy, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(NODE), 4);
+    }
+
+    @Test
+    public void testCopyOutOfOrderTree() {
+        MessageBuilder source = new MessageBuilder();
+        StructBuilder root = source.initRoot(NODE);
+        // the child is allocated before the text of the root
+        fill(root._getPointerField(NODE, 2), 2);
+        root._setLongField(0, 3);
+        root._setTextField(0, "node 3");
+        StructList.Builder<StructBuilder> children = root._initPointerField(CHILDREN, 1, 2);
+        fill(children.get(1), 2);
+        fill(children.get(0), 2);
+
+        MessageBuilder copy = new MessageBuilder();
+        copy.setRoot(NODE, reader(source, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(NODE));
+        check(reader(copy, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(NODE), 3);
+    }
+
+    @Test
+    public void testCopyAcrossSegments() {
+        MessageBuilder source = new MessageBuilder(8, BuilderArena.AllocationStrategy.FIXED_SIZE);
+        fill(source.initRoot(NODE), 3);
+        assertThat(source.getArena().getSegments().size() > 1, is(true));
+
+        MessageBuilder copy = new MessageBuilder();
+        copy.setRoot(NODE, reader(source, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(NODE));
+        check(reader(copy, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(NODE), 3);
+    }
+
+    @Test
+    public void testCopyPointerList() {
+        MessageBuilder source = new MessageBuilder();
+        TextList.Builder list = source.initRoot(NODE)._initPointerField(TextList.factory, 0, 3);
+        list.set(0, "a");
+        list.set(2, "c");
+
+        MessageBuilder copy = new MessageBuilder();
+        copy.initRoot(NODE)._setPointerField(TextList.factory, 0, list.asReader());
+        TextList.Reader copied = reader(copy, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(NODE)._getPointerField(TextList.factory, 0);
+        assertThat(copied.get(0).toString(), is("a"));
+        assertThat(copied.get(1).toString(), is(""));
+        assertThat(copied.get(2).toString(), is("c"));
+    }
+
+    @Test
+    public void testCopyZeroSizedChildrenWithFarOffsets() {
+        // the empty struct and the empty list point near the end of a large segment
+        ByteBuffer buffer = ByteBuffer.allocate(5000 * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, (3L << 48) | (1L << 32));
+        buffer.putLong(8, 7L);
+        buffer.putLong(16, 4900L << 2);
+        buffer.putLong(24, ((long) ElementSize.EIGHT_BYTES << 32) | (4900L << 2) | WirePointer.LIST);
+        MessageReader source = new MessageReader(new DataView[]{new ByteBufferDataView(buffer)}, ReaderOptions.DEFAULT_READER_OPTIONS);
+
+        MessageBuilder copy = new MessageBuilder();
+        copy.setRoot(NODE, source.getRoot(NODE));
+        // the validation of trusted mode checks the bounds of every target in the copy
+        ReaderOptions trusted = new ReaderOptions(ReaderOptions.DEFAULT_TRAVERSAL_LIMIT_IN_WORDS, ReaderOptions.DEFAULT_NESTING_LIMIT, true);
+        StructReader root = reader(copy, trusted).getRoot(NODE);
+        assertThat(root._getLongField(0), is(7L));
+        assertThat(root._pointerFieldIsNull(0), is(false));
+        assertThat(root._getPointerField(EMPTY, 0)._getLongField(0), is(0L));
+        assertThat(root._getPointerField(PrimitiveList.Long.factory, 1).size(), is(0));
+        assertThat(root._pointerFieldIsNull(2), is(true));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testReadLimit() {
+        MessageBuilder source = new MessageBuilder();
+        fill(source.initRoot(NODE), 4);
+        StructReader root = reader(source, new ReaderOptions(words(source) / 2, 64)).getRoot(NODE);
+        new MessageBuilder().setRoot(NODE, root);
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testNestingLimit() {
+        MessageBuilder source = new MessageBuilder();
+        fill(source.initRoot(NODE), 4);
+        StructReader root = reader(source, new ReaderOptions(ReaderOptions.DEFAULT_TRAVERSAL_LIMIT_IN_WORDS, 3)).getRoot(NODE);
+        new MessageBuilder().setRoot(NODE, root);
+    }
+}
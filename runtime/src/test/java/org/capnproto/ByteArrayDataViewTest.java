@@ -0,0 +1,151 @@
+package org.capnproto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class ByteArrayDataViewTest {
+
+    @Test
+    public void testSameValuesAsByteBuffer() {
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            ByteArrayDataView array = ByteArrayDataView.allocate(32);
+            array.order(order);
+            array.putLong(0, 0x0102030405060708L);
+            array.putInt(8, 0xcafebabe);
+            array.putShort(12, (short) 0xbeef);
+            array.put(14, (byte) 0x7f);
+            array.putDouble(16, 1.5);
+            array.putFloat(24, -2.25f);
+
+            ByteBuffer buffer = ByteBuffer.wrap(array.array()).order(order);
+            assertThat(buffer.getLong(0), is(0x0102030405060708L));
+            assertThat(buffer.getInt(8), is(0xcafebabe));
+            assertThat(buffer.getShort(12), is((short) 0xbeef));
+            assertThat(buffer.get(14), is((byte) 0x7f));
+            assertThat(buffer.getDouble(16), is(1.5));
+            assertThat(buffer.getFloat(24), is(-2.25f));
+
+            assertThat(array.getLong(0), is(0x0102030405060708L));
+            assertThat(array.getInt(8), is(0xcafebabe));
+            assertThat(array.getShort(12), is((short) 0xbeef));
+            assertThat(array.getDouble(16), is(1.5));
+            assertThat(array.getFloat(24), is(-2.25f));
+        }
+    }
+
+    @Test
+    public void testBulkGetSameValuesAsByteBuffer() {
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (i * 37 + 11);
+            }
+            ByteArrayDataView array = ByteArrayDataView.wrap(bytes);
+            array.order(order);
+            ByteBufferDataView buffer = ByteBufferDataView.wrap(bytes);
+            buffer.order(order);
+
+            long[] arrayLongs = new long[7];
+            long[] bufferLongs = new long[7];
+            array.getLongs(8, arrayLongs, 1, 6);
+            buffer.getLongs(8, bufferLongs, 1, 6);
+            for (int i = 0; i < 6; i++) {
+                assertThat(arrayLongs[1 + i], is(array.getLong(8 + 8 * i)));
+                assertThat(bufferLongs[1 + i], is(arrayLongs[1 + i]));
+            }
+            int[] arrayInts = new int[16];
+            int[] bufferInts = new int[16];
+            array.getInts(0, arrayInts, 0, 16);
+            buffer.getInts(0, bufferInts, 0, 16);
+            short[] arrayShorts = new short[31];
+            short[] bufferShorts = new short[31];
+            array.getShorts(2, arrayShorts, 0, 31);
+            buffer.getShorts(2, bufferShorts, 0, 31);
+            double[] arrayDoubles = new double[8];
+            double[] bufferDoubles = new double[8];
+            array.getDoubles(0, arrayDoubles, 0, 8);
+            buffer.getDoubles(0, bufferDoubles, 0, 8);
+            float[] arrayFloats = new float[16];
+            float[] bufferFloats = new float[16];
+            array.getFloats(0, arrayFloats, 0, 16);
+            buffer.getFloats(0, bufferFloats, 0, 16);
+            for (int i = 0; i < 16; i++) {
+                assertThat(arrayInts[i], is(bufferInts[i]));
+                assertThat(Float.floatToRawIntBits(arrayFloats[i]), is(Float.floatToRawIntBits(bufferFloats[i])));
+            }
+            for (int i = 0; i < 31; i++) {
+                assertThat(arrayShorts[i], is(bufferShorts[i]));
+            }
+            for (int i = 0; i < 8; i++) {
+                assertThat(Double.doubleToRawLongBits(arrayDoubles[i]), is(Double.doubleToRawLongBits(bufferDoubles[i])));
+            }
+        }
+    }
+
+    @Test
+    public void testBulkPutSameBytesAsByteBuffer() {
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            ByteArrayDataView array = ByteArrayDataView.allocate(128);
+            array.order(order);
+            ByteBufferDataView buffer = ByteBufferDataView.allocate(128);
+            buffer.order(order);
+            for (DataView view : new DataView[]{array, buffer}) {
+                view.putLongs(0, new long[]{0, 0x0102030405060708L, -3}, 1, 2);
+                view.putInts(16, new int[]{0x0a0b0c0d, -5}, 0, 2);
+                view.putShorts(24, new short[]{0x1234, -6}, 0, 2);
+                view.putDoubles(32, new double[]{Math.PI, -1.5}, 0, 2);
+                view.putFloats(48, new float[]{2.5f, -0.25f}, 0, 2);
+                view.put(56, new byte[]{7, 8, 9}, 1, 2);
+            }
+            byte[] arrayBytes = new byte[58];
+            byte[] bufferBytes = new byte[58];
+            array.get(0, arrayBytes, 0, 58);
+            buffer.get(0, bufferBytes, 0, 58);
+            assertThat(arrayBytes, is(bufferBytes));
+            assertThat(array.getLong(8), is(-3L));
+            assertThat(array.getShort(26), is((short) -6));
+            assertThat(array.get(57), is((byte) 9));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBulkGetBehindLimit() {
+        ByteArrayDataView array = ByteArrayDataView.allocate(64);
+        array.limit(56);
+        array.getLongs(0, new long[8], 0, 8);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadBehindLimit() {
+        ByteArrayDataView array = ByteArrayDataView.allocate(16);
+        array.limit(8);
+        array.getLong(4);
+    }
+
+    @Test
+    public void testSliceAndCopyBetweenViews() {
+        ByteArrayDataView array = ByteArrayDataView.allocate(16);
+        array.order(ByteOrder.LITTLE_ENDIAN);
+        array.putLong(8, 42L);
+        array.readerPosition(8);
+        ByteArrayDataView slice = array.slice();
+        assertThat(slice.capacity(), is(8));
+        assertThat(slice.getLong(0), is(42L));
+
+        ByteBufferDataView buffer = ByteBufferDataView.allocate(16);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        slice.writeTo(buffer, 8, 0, 8);
+        assertThat(buffer.getLong(8), is(42L));
+
+        ByteArrayDataView target = ByteArrayDataView.allocate(8);
+        target.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.writeTo(target, 0, 8, 8);
+        assertThat(target.getLong(0), is(42L));
+
+        target.zero(0, 8);
+        assertThat(target.getLong(0), is(0L));
+    }
+}
@@ -0,0 +1,135 @@
+package org.capnproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class DataTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 1));
+    private static final int SIZE = 100_000;
+
+    private static byte[] bytes() {
+        byte[] bytes = new byte[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    private static MessageBuilder build() {
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(ROOT)._setPointerField(Data.factory, 0, new Data.Reader(bytes()));
+        return message;
+    }
+
+    private static byte[] serialize(MessageBuilder message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.write(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static Data.Reader[] readers() throws IOException {
+        MessageBuilder message = build();
+        StructReader buffer = new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT);
+        StructReader array = new MessageReader(AllocatedArenaBuilder.byteArrayBacked().build(ByteArrayDataView.wrap(serialize(message)))).getRoot(ROOT);
+        return new Data.Reader[]{buffer._getPointerField(Data.factory, 0), array._getPointerField(Data.factory, 0)};
+    }
+
+    @Test
+    public void testAsReadOnlyByteBuffer() throws IOException {
+        for (Data.Reader data : readers()) {
+            ByteBuffer buffer = data.asReadOnlyByteBuffer();
+            assertThat(buffer.isReadOnly(), is(true));
+            assertThat(buffer.position(), is(0));
+            assertThat(buffer.remaining(), is(SIZE));
+            byte[] actual = new byte[SIZE];
+            buffer.get(actual);
+            assertArrayEquals(actual, bytes());
+        }
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testReadOnly() throws IOException {
+        readers()[0].asReadOnlyByteBuffer().put(0, (byte) 1);
+    }
+
+    @Test
+    public void testAsInputStream() throws IOException {
+        for (Data.Reader data : readers()) {
+            InputStream in = data.asInputStream();
+            assertThat(in.available(), is(SIZE));
+            assertThat(in.read(), is(0));
+            assertThat(in.skip(9), is(9L));
+            in.mark(0);
+            assertThat(in.read(), is((10 * 31) & 0xff));
+            in.reset();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int n;
+            while ((n = in.read(chunk, 0, chunk.length)) >= 0) {
+                out.write(chunk, 0, n);
+            }
+            byte[] expected = bytes();
+            assertArrayEquals(out.toByteArray(), Arrays.copyOfRange(expected, 10, SIZE));
+            assertThat(in.read(), is(-1));
+            assertThat(in.available(), is(0));
+        }
+    }
+
+    @Test
+    public void testWriteTo() throws IOException {
+        for (Data.Reader data : readers()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            // a channel that writes at most 1000 bytes per call
+            WritableByteChannel target = Channels.newChannel(out);
+            WritableByteChannel channel = new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    ByteBuffer part = src.duplicate();
+                    part.limit(part.position() + Math.min(1000, part.remaining()));
+                    int written = target.write(part);
+                    src.position(src.position() + written);
+                    return written;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            data.writeTo(channel);
+            assertArrayEquals(out.toByteArray(), bytes());
+        }
+    }
+
+    @Test
+    public void testTransferTo() throws IOException {
+        for (Data.Reader data : readers()) {
+            for (DataView dst : new DataView[]{ByteBufferDataView.allocate(SIZE + 8), ByteBufferDataView.allocateDirect(SIZE + 8), ByteArrayDataView.allocate(SIZE + 8)}) {
+                data.transferTo(dst, 8);
+                byte[] actual = new byte[SIZE];
+                dst.get(8, actual, 0, SIZE);
+                assertArrayEquals(actual, bytes());
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testTransferToOutOfRange() throws IOException {
+        readers()[1].transferTo(ByteArrayDataView.allocate(SIZE), 1);
+    }
+}
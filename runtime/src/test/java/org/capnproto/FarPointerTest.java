@@ -0,0 +1,61 @@
+package org.capnproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import static org.capnproto.RawSegments.segment;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class FarPointerTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 4));
+    private static final BareStructFactory CHILD = new BareStructFactory(new StructSize((short) 1, (short) 0));
+
+    private static void check(StructReader root) {
+        assertThat(root._getPointerField(Text.factory, 0).toString(), is("a text in another segment"));
+        assertArrayEquals(root._getPointerField(Data.factory, 1).toArray(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThat(root._getPointerField(CHILD, 2)._getLongField(0), is(42L));
+        assertArrayEquals(root._getPointerField(PrimitiveList.Long.factory, 3).toLongArray(), new long[]{1, 2, 3});
+    }
+
+    @Test
+    public void testSingleFar() throws IOException {
+        // every object is too large for the remaining segment, so each pointer is a far pointer
+        MessageBuilder message = new MessageBuilder(5, BuilderArena.AllocationStrategy.FIXED_SIZE);
+        StructBuilder root = message.initRoot(ROOT);
+        root._setTextField(0, "a text in another segment");
+        root._setPointerField(Data.factory, 1, new Data.Reader(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        root._getPointerField(CHILD, 2)._setLongField(0, 42L);
+        root._initPointerField(PrimitiveList.Long.factory, 3, 3).setAll(new long[]{1, 2, 3});
+        DataView[] segments = message.getArena().getSegmentsForOutput();
+        assertThat(segments.length > 1, is(true));
+
+        check(new MessageReader(segments, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.write(Channels.newChannel(out));
+        check(new MessageReader(AllocatedArenaBuilder.byteArrayBacked().build(ByteArrayDataView.wrap(out.toByteArray()))).getRoot(ROOT));
+
+        // copying follows the far pointers as well
+        MessageBuilder copy = new MessageBuilder();
+        copy.setRoot(ROOT, new MessageReader(segments, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT));
+        check(new MessageReader(copy.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT));
+    }
+
+    @Test
+    public void testDoubleFar() {
+        BareStructFactory root = new BareStructFactory(new StructSize((short) 1, (short) 0));
+        DataView[] segments = {
+            // double far pointer to the landing pad at word 0 of segment 1
+            segment((1L << 32) | (0 << 3) | (1 << 2) | WirePointer.FAR),
+            // far pointer to the content at word 0 of segment 2, followed by the tag
+            segment((2L << 32) | (0 << 3) | WirePointer.FAR, 1L << 32),
+            segment(42L)
+        };
+        StructReader reader = new MessageReader(segments, ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(root);
+        assertThat(reader._getLongField(0), is(42L));
+    }
+}
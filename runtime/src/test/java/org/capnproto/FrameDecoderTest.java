@@ -0,0 +1,122 @@
+package org.capnproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class FrameDecoderTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 1, (short) 3));
+    private static final BareStructFactory CHILD = new BareStructFactory(new StructSize((short) 4, (short) 0));
+
+    /**
+     * Simulates a non-blocking channel: returns at most chunk bytes per read
+     * and 0 on every other call.
+     */
+    private static class TricklingChannel implements ReadableByteChannel {
+
+        private final ByteBuffer data;
+        private final int chunk;
+        private boolean stall;
+
+        TricklingChannel(byte[] data, int chunk) {
+            this.data = ByteBuffer.wrap(data);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+            stall = !stall;
+            if (stall) {
+                return 0;
+            }
+            int count = Math.min(chunk, Math.min(dst.remaining(), data.remaining()));
+            for (int i = 0; i < count; i++) {
+                dst.put(data.get());
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static byte[] messages(int count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            // small fixed segments result in multi segment messages
+            MessageBuilder message = new MessageBuilder(4, BuilderArena.AllocationStrategy.FIXED_SIZE);
+            StructBuilder root = message.initRoot(ROOT);
+            root._setLongField(0, i);
+            for (int c = 0; c < 3; c++) {
+                root._initPointerField(CHILD, c, 0)._setLongField(3, i * 10 + c);
+            }
+            message.write(Channels.newChannel(out));
+        }
+        return out.toByteArray();
+    }
+
+    private static void check(AllocatedArena arena, int i) {
+        StructReader root = new MessageReader(arena).getRoot(ROOT);
+        assertThat(root._getLongField(0), is((long) i));
+        assertThat(root._getPointerField(CHILD, 2)._getLongField(3), is(i * 10L + 2));
+    }
+
+    @Test
+    public void testReadNonBlocking() throws IOException {
+        for (int chunk : new int[]{1, 3, 8, 1000}) {
+            FrameDecoder decoder = new FrameDecoder();
+            TricklingChannel channel = new TricklingChannel(messages(5), chunk);
+            int decoded = 0;
+            while (!decoder.isEndOfStream()) {
+                AllocatedArena arena = decoder.read(channel);
+                if (arena != null) {
+                    check(arena, decoded++);
+                }
+            }
+            assertThat(decoded, is(5));
+        }
+    }
+
+    @Test
+    public void testDecodeBuffers() throws IOException {
+        byte[] data = messages(5);
+        FrameDecoder decoder = new FrameDecoder();
+        int decoded = 0;
+        for (int pos = 0; pos < data.length; pos += 7) {
+            ByteBuffer chunk = ByteBuffer.wrap(data, pos, Math.min(7, data.length - pos));
+            AllocatedArena arena;
+            while ((arena = decoder.decode(chunk)) != null) {
+                check(arena, decoded++);
+            }
+            assertThat(chunk.hasRemaining(), is(false));
+        }
+        assertThat(decoded, is(5));
+        assertThat(decoder.isInFrame(), is(false));
+    }
+
+    @Test(expected = IOException.class)
+    public void testEofWithinFrame() throws IOException {
+        byte[] data = messages(1);
+        byte[] truncated = new byte[data.length - 8];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        FrameDecoder decoder = new FrameDecoder();
+        ReadableByteChannel channel = Channels.newChannel(new java.io.ByteArrayInputStream(truncated));
+        assertThat(decoder.read(channel), nullValue());
+    }
+}
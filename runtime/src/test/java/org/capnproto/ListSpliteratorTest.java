@@ -0,0 +1,83 @@
+package org.capnproto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class ListSpliteratorTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 4));
+    private static final BareStructFactory ELEMENT = new BareStructFactory(new StructSize((short) 1, (short) 0));
+    private static final StructList.Factory<StructBuilder, StructReader> ELEMENTS = new StructList.Factory<>(ELEMENT);
+    private static final ListList.Factory<PrimitiveList.Int.Builder, PrimitiveList.Int.Reader> INT_LISTS = new ListList.Factory<>(PrimitiveList.Int.factory);
+    private static final int COUNT = 10_000;
+
+    private static StructReader build() {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        StructList.Builder<StructBuilder> structs = root._initPointerField(ELEMENTS, 0, COUNT);
+        TextList.Builder texts = root._initPointerField(TextList.factory, 1, COUNT);
+        DataList.Builder datas = root._initPointerField(DataList.factory, 2, COUNT);
+        ListList.Builder<PrimitiveList.Int.Builder> lists = root._initPointerField(INT_LISTS, 3, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            structs.get(i)._setLongField(0, i);
+            texts.set(i, new Text.Reader("text " + i));
+            datas.set(i, new Data.Reader(new byte[]{(byte) i, (byte) (i >> 8)}));
+            lists.init(i, 1).set(0, i);
+        }
+        return new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT);
+    }
+
+    private static void checkCharacteristics(Spliterator<?> spliterator) {
+        assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED | Spliterator.IMMUTABLE), is(true));
+        assertThat(spliterator.estimateSize(), is((long) COUNT));
+        Spliterator<?> prefix = spliterator.trySplit();
+        assertThat(prefix, notNullValue());
+        assertThat(prefix.estimateSize() + spliterator.estimateSize(), is((long) COUNT));
+    }
+
+    @Test
+    public void testCharacteristics() {
+        StructReader root = build();
+        checkCharacteristics(root._getPointerField(ELEMENTS, 0).spliterator());
+        checkCharacteristics(root._getPointerField(TextList.factory, 1).spliterator());
+        checkCharacteristics(root._getPointerField(DataList.factory, 2).spliterator());
+        checkCharacteristics(root._getPointerField(INT_LISTS, 3).spliterator());
+    }
+
+    @Test
+    public void testParallelStreamsKeepOrder() {
+        StructReader root = build();
+        List<Long> expectedLongs = IntStream.range(0, COUNT).mapToObj(i -> (long) i).collect(Collectors.toList());
+        List<String> expectedTexts = IntStream.range(0, COUNT).mapToObj(i -> "text " + i).collect(Collectors.toList());
+        List<Integer> expectedInts = IntStream.range(0, COUNT).boxed().collect(Collectors.toList());
+
+        assertThat(root._getPointerField(ELEMENTS, 0).parallelStream().map(s -> s._getLongField(0)).collect(Collectors.toList()), is(expectedLongs));
+        assertThat(root._getPointerField(TextList.factory, 1).parallelStream().collect(Collectors.toList()), is(expectedTexts));
+        assertThat(root._getPointerField(DataList.factory, 2).parallelStream()
+                .map(d -> {
+                    byte[] bytes = d.toArray();
+                    return (bytes[0] & 0xff) | (bytes[1] & 0xff) << 8;
+                })
+                .collect(Collectors.toList()), is(expectedInts));
+        assertThat(root._getPointerField(INT_LISTS, 3).parallelStream().map(l -> l.get(0)).collect(Collectors.toList()), is(expectedInts));
+        assertThat(root._getPointerField(TextList.factory, 1).stream().map(t -> t.getBytes(StandardCharsets.UTF_8).length).count(), is((long) COUNT));
+    }
+
+    @Test
+    public void testSpliteratorSurvivesRecycling() {
+        StructReader root = build();
+        StructList.Reader<StructReader> structs = root._getPointerField(ELEMENTS, 0);
+        Spliterator<StructReader> spliterator = structs.spliterator();
+        structs.recycle();
+        long[] sum = new long[1];
+        spliterator.forEachRemaining(s -> sum[0] += s._getLongField(0));
+        assertThat(sum[0], is((long) COUNT * (COUNT - 1) / 2));
+    }
+}
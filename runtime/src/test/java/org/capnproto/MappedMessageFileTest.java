@@ -0,0 +1,75 @@
+package org.capnproto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedMessageFileTest {
+
+    private static final BareStructFactory FACTORY = new BareStructFactory(new StructSize((short) 1, (short) 0));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeMessages(int count) throws IOException {
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            for (int i = 0; i < count; i++) {
+                MessageBuilder message = new MessageBuilder();
+                message.initRoot(FACTORY)._setLongField(0, i);
+                message.write(channel);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void testRandomAccess() throws IOException {
+        File file = writeMessages(100);
+        try (MappedMessageFile mapped = MappedMessageFile.open(file.toPath())) {
+            assertThat(mapped.size(), is(100));
+            assertThat(mapped.getMappingCount(), is(1));
+            assertThat(mapped.getMessage(42).getRoot(FACTORY)._getLongField(0), is(42L));
+            assertThat(mapped.getMessage(0).getRoot(FACTORY)._getLongField(0), is(0L));
+            assertThat(mapped.getMessage(99).getRoot(FACTORY)._getLongField(0), is(99L));
+        }
+    }
+
+    @Test
+    public void testIterationOverChainedMappings() throws IOException {
+        File file = writeMessages(100);
+        // each message has 24 bytes, so two fit in one mapping
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                MappedMessageFile mapped = new MappedMessageFile(channel, new AllocatedArenaBuilder(), 64, false)) {
+            assertThat(mapped.getMappingCount(), is(50));
+            long expected = 0;
+            for (MessageReader message : mapped) {
+                assertThat(message.getRoot(FACTORY)._getLongField(0), is(expected++));
+            }
+            assertThat(expected, is(100L));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFile() throws IOException {
+        File file = writeMessages(2);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(file.length() - 8);
+        }
+        MappedMessageFile.open(file.toPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMessageLargerThanMapping() throws IOException {
+        File file = writeMessages(2);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            new MappedMessageFile(channel, new AllocatedArenaBuilder(), 16, false);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.capnproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class MessageBatchWriterTest {
+
+    private static final BareStructFactory FACTORY = new BareStructFactory(new StructSize((short) 1, (short) 1));
+
+    private static MessageBuilder message(long value, int listSize) {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(FACTORY);
+        root._setLongField(0, value);
+        root._initPointerField(PrimitiveList.Long.factory, 0, listSize);
+        return message;
+    }
+
+    private static class CountingChannel implements WritableByteChannel {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int writes;
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            writes++;
+            int size = src.remaining();
+            while (src.hasRemaining()) {
+                out.write(src.get());
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testFlushOnMessageCount() throws IOException {
+        CountingChannel channel = new CountingChannel();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        List<MessageBatchWriter.FlushStats> stats = new ArrayList<>();
+        MessageBatchWriter writer = new MessageBatchWriter(channel)
+                .setFlushMessages(10)
+                .setMaxLinger(1, TimeUnit.HOURS)
+                .setFlushListener(stats::add);
+        for (int i = 0; i < 25; i++) {
+            MessageBuilder message = message(i, 2);
+            writer.write(message);
+            message.write(Channels.newChannel(expected));
+        }
+        assertThat(channel.writes, is(2));
+        writer.flush();
+        assertThat(channel.writes, is(3));
+        assertThat(stats.size(), is(3));
+        assertThat(stats.get(0).getReason(), is(MessageBatchWriter.FlushReason.MESSAGES));
+        assertThat(stats.get(0).getMessages(), is(10));
+        assertThat(stats.get(2).getReason(), is(MessageBatchWriter.FlushReason.EXPLICIT));
+        assertThat(stats.get(2).getMessages(), is(5));
+        assertThat(writer.getTotalMessages(), is(25L));
+        assertThat(writer.getTotalBytes(), is((long) expected.size()));
+        assertArrayEquals(expected.toByteArray(), channel.out.toByteArray());
+    }
+
+    @Test
+    public void testFlushOnBytesWithLargeMessages() throws IOException {
+        CountingChannel channel = new CountingChannel();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        List<MessageBatchWriter.FlushStats> stats = new ArrayList<>();
+        MessageBatchWriter writer = new MessageBatchWriter(channel, 256, false)
+                .setMaxLinger(1, TimeUnit.HOURS)
+                .setFlushListener(stats::add);
+        for (int i = 0; i < 10; i++) {
+            // every third message is larger than the buffer
+            MessageBuilder message = message(i, i % 3 == 0 ? 100 : 1);
+            writer.write(message);
+            message.write(Channels.newChannel(expected));
+        }
+        writer.flush();
+        assertArrayEquals(expected.toByteArray(), channel.out.toByteArray());
+        long bytes = 0;
+        int messages = 0;
+        for (MessageBatchWriter.FlushStats flush : stats) {
+            bytes += flush.getBytes();
+            messages += flush.getMessages();
+        }
+        assertThat(bytes, is((long) expected.size()));
+        assertThat(messages, is(10));
+        assertThat(stats.get(0).getReason(), is(MessageBatchWriter.FlushReason.BYTES));
+    }
+
+    @Test
+    public void testFlushOnLinger() throws IOException {
+        CountingChannel channel = new CountingChannel();
+        long[] now = {0};
+        MessageBatchWriter writer = new MessageBatchWriter(channel)
+                .setMaxLinger(10, TimeUnit.NANOSECONDS)
+                .setClock(() -> now[0]);
+        writer.write(message(1, 1));
+        now[0] = 5;
+        writer.write(message(2, 1));
+        assertThat(writer.flushIfLingering(), is(false));
+        assertThat(channel.writes, is(0));
+        now[0] = 10;
+        assertThat(writer.flushIfLingering(), is(true));
+        assertThat(channel.writes, is(1));
+        assertThat(writer.getTotalMessages(), is(2L));
+    }
+
+    @Test
+    public void testPacked() throws IOException {
+        CountingChannel channel = new CountingChannel();
+        MessageBatchWriter writer = new MessageBatchWriter(channel, 128, true)
+                .setMaxLinger(1, TimeUnit.HOURS);
+        for (int i = 0; i < 20; i++) {
+            writer.write(message(i, i));
+        }
+        writer.flush();
+        BufferedInputStream input = new BufferedInputStreamWrapper(Channels.newChannel(new java.io.ByteArrayInputStream(channel.out.toByteArray())));
+        for (int i = 0; i < 20; i++) {
+            StructReader root = SerializePacked.read(input).getRoot(FACTORY);
+            assertThat(root._getLongField(0), is((long) i));
+        }
+    }
+}
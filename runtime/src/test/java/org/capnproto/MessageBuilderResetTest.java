@@ -0,0 +1,102 @@
+package org.capnproto;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import java.util.List;
+import org.junit.Test;
+
+public class MessageBuilderResetTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 3));
+    private static final BareStructFactory CHILD = new BareStructFactory(new StructSize((short) 4, (short) 0));
+
+    private static class CountingAllocator implements Allocator {
+
+        private int allocations;
+
+        @Override
+        public DataView allocateSegment(int minimumSize) {
+            allocations++;
+            return ByteBufferDataView.allocate(Math.max(minimumSize, 4 * Constants.BYTES_PER_WORD));
+        }
+    }
+
+    private static void build(MessageBuilder message, long value) {
+        StructBuilder root = message.initRoot(ROOT);
+        for (int i = 0; i < 3; i++) {
+            root._initPointerField(CHILD, i, 0)._setLongField(3, value + i);
+        }
+    }
+
+    @Test
+    public void testResetKeepsAllSegments() {
+        CountingAllocator allocator = new CountingAllocator();
+        MessageBuilder message = new MessageBuilder(allocator);
+        build(message, 10);
+        int segments = message.getArena().getSegments().size();
+        assertThat(segments > 1, is(true));
+        assertThat(allocator.allocations, is(segments));
+        long size = message.getSerializedSize();
+
+        for (int run = 0; run < 3; run++) {
+            message.reset();
+            assertThat(message.getArena().getSegments().size(), is(0));
+            for (DataView segment : message.getArena().getSegmentsForOutput()) {
+                assertThat(segment.limit(), is(0));
+            }
+            build(message, 20);
+            assertThat(allocator.allocations, is(segments));
+            assertThat(message.getArena().getSegments().size(), is(segments));
+            assertThat(message.getSerializedSize(), is(size));
+
+            StructReader root = new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS)
+                    .getRoot(ROOT);
+            assertThat(root._getPointerField(CHILD, 2)._getLongField(3), is(22L));
+        }
+    }
+
+    @Test
+    public void testResetZeroesUsedWords() {
+        MessageBuilder message = new MessageBuilder();
+        build(message, 1);
+        DataView buffer = message.getArena().getSegments().get(0).getBuffer();
+        int used = message.getArena().getSegments().get(0).currentSize();
+        message.reset();
+        for (int i = 0; i < used; i++) {
+            assertThat(buffer.getLong(i * Constants.BYTES_PER_WORD), is(0L));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testResetNeedsBuilderArena() {
+        BuilderArena delegate = new BuilderArena(new DefaultAllocator());
+        AllocatingArena custom = new AllocatingArena() {
+            @Override
+            public BuilderArena.AllocateResult allocate(int amountPlusRef) {
+                return delegate.allocate(amountPlusRef);
+            }
+
+            @Override
+            public GenericSegmentBuilder tryGetSegment(int segmentId) {
+                return delegate.tryGetSegment(segmentId);
+            }
+
+            @Override
+            public DataView[] getSegmentsForOutput() {
+                return delegate.getSegmentsForOutput();
+            }
+
+            @Override
+            public List<? extends GenericSegmentBuilder> getSegments() {
+                return delegate.getSegments();
+            }
+
+            @Override
+            public void checkReadLimit(int numBytes) {
+            }
+        };
+        MessageBuilder message = new MessageBuilder(custom);
+        build(message, 1);
+        message.reset();
+    }
+}
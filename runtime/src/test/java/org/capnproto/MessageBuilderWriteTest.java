@@ -0,0 +1,181 @@
+package org.capnproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class MessageBuilderWriteTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 3));
+    private static final BareStructFactory CHILD = new BareStructFactory(new StructSize((short) 4, (short) 0));
+
+    /**
+     * Collects the written bytes, accepting at most maxBytes per call.
+     */
+    private static class RecordingChannel implements GatheringByteChannel {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final int maxBytes;
+        private int gatheringWrites;
+
+        RecordingChannel(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            gatheringWrites++;
+            long written = 0;
+            for (int i = offset; i < offset + length && written < maxBytes; i++) {
+                while (srcs[i].hasRemaining() && written < maxBytes) {
+                    out.write(srcs[i].get());
+                    written++;
+                }
+            }
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            return (int) write(new ByteBuffer[]{src}, 0, 1);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static MessageBuilder multiSegmentMessage() {
+        return fill(new MessageBuilder(4, BuilderArena.AllocationStrategy.FIXED_SIZE));
+    }
+
+    private static MessageBuilder arrayBackedMessage() {
+        DefaultAllocator allocator = new DefaultAllocator(BuilderArena.AllocationStrategy.FIXED_SIZE, DefaultAllocator.ByteBufferAllocationStyle.BYTE_ARRAY);
+        allocator.setNextAllocationSizeBytes(4 * Constants.BYTES_PER_WORD);
+        return fill(new MessageBuilder(allocator));
+    }
+
+    private static MessageBuilder fill(MessageBuilder message) {
+        StructBuilder root = message.initRoot(ROOT);
+        for (int i = 0; i < 3; i++) {
+            root._initPointerField(CHILD, i, 0)._setLongField(0, i);
+        }
+        return message;
+    }
+
+    private static byte[] streamBytes(MessageBuilder message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.write(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testSingleGatheringWrite() throws IOException {
+        MessageBuilder message = multiSegmentMessage();
+        assertThat(message.getArena().getSegments().size() > 1, is(true));
+        RecordingChannel channel = new RecordingChannel(Integer.MAX_VALUE);
+        message.write(channel);
+        assertThat(channel.gatheringWrites, is(1));
+        assertArrayEquals(streamBytes(message), channel.out.toByteArray());
+        assertThat((long) channel.out.size(), is(message.getSerializedSize()));
+    }
+
+    @Test
+    public void testPartialGatheringWrites() throws IOException {
+        MessageBuilder message = multiSegmentMessage();
+        RecordingChannel channel = new RecordingChannel(5);
+        message.write(channel);
+        message.write(channel);
+        byte[] expected = streamBytes(message);
+        byte[] twice = new byte[expected.length * 2];
+        System.arraycopy(expected, 0, twice, 0, expected.length);
+        System.arraycopy(expected, 0, twice, expected.length, expected.length);
+        assertArrayEquals(twice, channel.out.toByteArray());
+    }
+
+    @Test
+    public void testRepeatedArrayBackedWrites() throws IOException {
+        MessageBuilder message = arrayBackedMessage();
+        assertThat(message.getArena().getSegments().size() > 1, is(true));
+        byte[] expected = streamBytes(message);
+        for (int i = 0; i < 3; i++) {
+            // the scratch and the wrapped arrays are reused
+            RecordingChannel channel = new RecordingChannel(Integer.MAX_VALUE);
+            message.write(channel);
+            assertThat(channel.gatheringWrites, is(1));
+            assertArrayEquals(expected, channel.out.toByteArray());
+        }
+    }
+
+    @Test
+    public void testConcurrentWrites() throws Exception {
+        concurrentWrites(multiSegmentMessage());
+        concurrentWrites(arrayBackedMessage());
+    }
+
+    // one thread at a time gets the scratch, the others write with fresh buffers
+    private static void concurrentWrites(MessageBuilder message) throws Exception {
+        byte[] expected = streamBytes(message);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean corrupted = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 500 && !corrupted.get(); i++) {
+                        byte[] written;
+                        if (i % 2 == 0) {
+                            // small writes, so that the threads interleave
+                            RecordingChannel channel = new RecordingChannel(3);
+                            message.write(channel);
+                            written = channel.out.toByteArray();
+                        } else {
+                            written = streamBytes(message);
+                        }
+                        if (!Arrays.equals(expected, written)) {
+                            corrupted.set(true);
+                        }
+                    }
+                } catch (Exception e) {
+                    corrupted.set(true);
+                }
+            });
+            threads[t].setDaemon(true);
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            // a shared ByteBuffer[] can make the gathering write spin forever
+            thread.join(60_000);
+            if (thread.isAlive()) {
+                corrupted.set(true);
+            }
+        }
+        assertThat(corrupted.get(), is(false));
+        // the scratch is released after the concurrent writes
+        assertArrayEquals(expected, streamBytes(message));
+        RecordingChannel channel = new RecordingChannel(Integer.MAX_VALUE);
+        message.write(channel);
+        assertArrayEquals(expected, channel.out.toByteArray());
+    }
+}
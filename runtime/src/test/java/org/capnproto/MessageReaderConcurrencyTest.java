@@ -0,0 +1,154 @@
+package org.capnproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class MessageReaderConcurrencyTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 1, (short) 4));
+    private static final BareStructFactory CHILD = new BareStructFactory(new StructSize((short) 2, (short) 1));
+    private static final BareStructFactory HOLDER = new BareStructFactory(new StructSize((short) 0, (short) 1));
+    private static final StructList.Factory<StructBuilder, StructReader> CHILDREN = new StructList.Factory<>(CHILD);
+    private static final int CHILD_COUNT = 20;
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 300;
+
+    private static String text(int i) {
+        return "child " + i + " \u00e4\u00f6\u00fc";
+    }
+
+    private static byte[] data(int size) {
+        byte[] result = new byte[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = (byte) (i * 7);
+        }
+        return result;
+    }
+
+    private static MessageBuilder build() {
+        // small fixed segments result in far pointers
+        MessageBuilder message = new MessageBuilder(4, BuilderArena.AllocationStrategy.FIXED_SIZE);
+        StructBuilder root = message.initRoot(ROOT);
+        root._setLongField(0, 4711);
+        root._setPointerField(Text.factory, 0, new Text.Reader(text(-1)));
+        root._setPointerField(Data.factory, 1, new Data.Reader(data(100)));
+        StructList.Builder<StructBuilder> children = root._initPointerField(CHILDREN, 2, CHILD_COUNT);
+        for (int i = 0; i < CHILD_COUNT; i++) {
+            StructBuilder child = children.get(i);
+            child._setLongField(0, i);
+            child._setLongField(1, -i);
+            child._setPointerField(Text.factory, 0, new Text.Reader(text(i)));
+        }
+        PrimitiveList.Long.Builder longs = root._initPointerField(PrimitiveList.Long.factory, 3, 50);
+        for (int i = 0; i < 50; i++) {
+            longs.set(i, i * 1000L);
+        }
+        return message;
+    }
+
+    private static void check(StructReader root) {
+        assertThat(root._getLongField(0), is(4711L));
+        assertThat(root._getPointerField(Text.factory, 0).toString(), is(text(-1)));
+        assertThat(root._getPointerField(Data.factory, 1).toArray(), is(data(100)));
+        StructList.Reader<StructReader> children = root._getPointerField(CHILDREN, 2);
+        assertThat(children.size(), is(CHILD_COUNT));
+        for (int i = 0; i < CHILD_COUNT; i++) {
+            StructReader child = children.get(i);
+            assertThat(child._getLongField(0), is((long) i));
+            assertThat(child._getLongField(1), is((long) -i));
+            assertThat(child._getPointerField(Text.factory, 0).toArray(), is(text(i).getBytes(StandardCharsets.UTF_8)));
+        }
+        PrimitiveList.Long.Reader longs = root._getPointerField(PrimitiveList.Long.factory, 3);
+        for (int i = 0; i < 50; i++) {
+            assertThat(longs.get(i), is(i * 1000L));
+        }
+    }
+
+    private static void readRound(MessageReader reader) {
+        StructReader root = reader.getRoot(ROOT);
+        check(root);
+        // copying reads the shared segments in bulk
+        MessageBuilder copy = new MessageBuilder();
+        copy.initRoot(HOLDER)._setPointerField(ROOT, 0, root);
+        MessageReader copyReader = new MessageReader(copy.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS);
+        check(copyReader.getRoot(HOLDER)._getPointerField(ROOT, 0));
+    }
+
+    private static void readConcurrently(MessageReader reader) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        readRound(reader);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] serialize(MessageBuilder message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.write(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testHeapByteBuffer() throws Exception {
+        byte[] bytes = serialize(build());
+        readConcurrently(new MessageReader(new AllocatedArenaBuilder().build(ByteBufferDataView.wrap(bytes))));
+    }
+
+    @Test
+    public void testDirectByteBuffer() throws Exception {
+        byte[] bytes = serialize(build());
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        readConcurrently(new MessageReader(new AllocatedArenaBuilder().build(new ByteBufferDataView(direct))));
+    }
+
+    @Test
+    public void testByteArray() throws Exception {
+        byte[] bytes = serialize(build());
+        readConcurrently(new MessageReader(AllocatedArenaBuilder.byteArrayBacked().build(ByteArrayDataView.wrap(bytes))));
+    }
+
+    @Test
+    public void testTraversalLimitIsShared() throws Exception {
+        MessageBuilder message = build();
+        ReaderOptions options = new ReaderOptions(Long.MAX_VALUE, ReaderOptions.DEFAULT_NESTING_LIMIT);
+
+        MessageReader single = new MessageReader(message.getArena().getSegmentsForOutput(), options);
+        readRound(single);
+        long perRound = Long.MAX_VALUE - ((ReaderArena) single.getArena()).limit;
+
+        MessageReader reader = new MessageReader(message.getArena().getSegmentsForOutput(), options);
+        readConcurrently(reader);
+        // no update of the limit got lost
+        long used = Long.MAX_VALUE - ((ReaderArena) reader.getArena()).limit;
+        assertThat(used, is(perRound * THREADS * ROUNDS));
+    }
+}
@@ -0,0 +1,124 @@
+package org.capnproto;
+
+import static org.capnproto.RawSegments.segment;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class MessageValidatorTest {
+
+    private static final BareStructFactory NODE = new BareStructFactory(new StructSize((short) 0, (short) 1));
+    private static final BareStructFactory LEAF = new BareStructFactory(new StructSize((short) 1, (short) 0));
+
+    // a chain of structs, each with a pointer to the next word
+    private static DataView chain(int length) {
+        long[] words = new long[length + 1];
+        for (int i = 0; i < length; i++) {
+            words[i] = 1L << 48;
+        }
+        return segment(words);
+    }
+
+    // a list of far pointers, that all land on the same struct of the given size
+    private static DataView[] shared(int references, int dataWords) {
+        long[] list = new long[references + 1];
+        list[0] = ((long) (references << 3 | ElementSize.POINTER) << 32) | WirePointer.LIST;
+        for (int i = 1; i <= references; i++) {
+            list[i] = (1L << 32) | WirePointer.FAR;
+        }
+        long[] struct = new long[dataWords + 1];
+        struct[0] = (long) dataWords << 32;
+        return new DataView[]{segment(list), segment(struct)};
+    }
+
+    @Test
+    public void testValidatedMessageSkipsReadLimit() {
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(NODE)._getPointerField(NODE, 0)._setTextField(0, "leaf");
+        ReaderArena arena = new ReaderArena(message.getArena().getSegmentsForOutput(), 20);
+        AllocatedArena validated = MessageValidator.validate(arena, new ReaderOptions(20, 64));
+        assertThat(validated.tryGetSegment(0).isValidated(), is(true));
+        // the limit was charged once for the whole message
+        MessageReader reader = new MessageReader(validated);
+        for (int i = 0; i < 100; i++) {
+            StructReader child = reader.getRoot(NODE)._getPointerField(NODE, 0);
+            assertThat(child._getPointerField(Text.factory, 0).toString(), is("leaf"));
+        }
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testReadLimitWithoutValidation() {
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(NODE)._getPointerField(NODE, 0)._setTextField(0, "leaf");
+        MessageReader reader = new MessageReader(message.getArena().getSegmentsForOutput(), new ReaderOptions(20, 64));
+        for (int i = 0; i < 100; i++) {
+            reader.getRoot(NODE)._getPointerField(NODE, 0)._getPointerField(Text.factory, 0);
+        }
+    }
+
+    @Test
+    public void testSharedObjects() {
+        AllocatedArena arena = MessageValidator.validate(new SimpleReaderArena(shared(1000, 100)), ReaderOptions.DEFAULT_READER_OPTIONS);
+        assertThat(arena.getSegments().size(), is(2));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testAmplification() {
+        // about 1100 words in the message, but 100000 words to traverse
+        MessageValidator.validate(new SimpleReaderArena(shared(1000, 100)), new ReaderOptions(10_000, 64));
+    }
+
+    @Test
+    public void testDeepMessageWithoutRecursion() {
+        AllocatedArena arena = MessageValidator.validate(new SimpleReaderArena(new DataView[]{chain(100_000)}), new ReaderOptions(Long.MAX_VALUE, 200_000));
+        assertThat(arena.tryGetSegment(0).isValidated(), is(true));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testNestingLimit() {
+        MessageValidator.validate(new SimpleReaderArena(new DataView[]{chain(100)}), new ReaderOptions(Long.MAX_VALUE, 50));
+    }
+
+    @Test
+    public void testNestingLimitReached() {
+        MessageValidator.validate(new SimpleReaderArena(new DataView[]{chain(50)}), new ReaderOptions(Long.MAX_VALUE, 50));
+    }
+
+    @Test
+    public void testEmptyStruct() {
+        // the root points to an empty struct, encoded with the offset -1
+        AllocatedArena arena = MessageValidator.validate(new SimpleReaderArena(new DataView[]{segment(1L << 48, 0xffff_fffcL)}), ReaderOptions.DEFAULT_READER_OPTIONS);
+        assertThat(arena.tryGetSegment(0).isValidated(), is(true));
+        assertThat(new MessageReader(arena).getRoot(NODE)._pointerFieldIsNull(0), is(false));
+    }
+
+    @Test
+    public void testZeroLengthList() {
+        // the list ends right at the end of the segment
+        long list = ((long) ElementSize.EIGHT_BYTES << 32) | WirePointer.LIST;
+        AllocatedArena arena = MessageValidator.validate(new SimpleReaderArena(new DataView[]{segment(1L << 48, list)}), ReaderOptions.DEFAULT_READER_OPTIONS);
+        assertThat(arena.tryGetSegment(0).isValidated(), is(true));
+        assertThat(new MessageReader(arena).getRoot(NODE)._getPointerField(PrimitiveList.Long.factory, 0).size(), is(0));
+    }
+
+    @Test
+    public void testBackwardOffset() {
+        // the root struct at word 2 points back to the struct at word 1
+        DataView segment = segment((1L << 48) | (1 << 2), 42L, (1L << 32) | 0xffff_fff8L);
+        AllocatedArena arena = MessageValidator.validate(new SimpleReaderArena(new DataView[]{segment}), ReaderOptions.DEFAULT_READER_OPTIONS);
+        assertThat(arena.tryGetSegment(0).isValidated(), is(true));
+        StructReader child = new MessageReader(arena).getRoot(NODE)._getPointerField(LEAF, 0);
+        assertThat(child._getLongField(0), is(42L));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testBackwardOffsetBeforeSegment() {
+        // the pointer at word 1 points to word -1
+        MessageValidator.validate(new SimpleReaderArena(new DataView[]{segment(1L << 48, (1L << 32) | 0xffff_fff4L)}), ReaderOptions.DEFAULT_READER_OPTIONS);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullOptions() {
+        MessageValidator.validate(new SimpleReaderArena(new DataView[]{chain(1)}), null);
+    }
+}
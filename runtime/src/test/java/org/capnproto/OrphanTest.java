@@ -0,0 +1,133 @@
+package org.capnproto;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class OrphanTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 3));
+    private static final BareStructFactory CHILD = new BareStructFactory(new StructSize((short) 1, (short) 1));
+    private static final ReaderOptions TRUSTED = new ReaderOptions(ReaderOptions.DEFAULT_TRAVERSAL_LIMIT_IN_WORDS, ReaderOptions.DEFAULT_NESTING_LIMIT, true);
+
+    private static int words(MessageBuilder message) {
+        int words = 0;
+        for (GenericSegmentBuilder segment : message.getArena().getSegments()) {
+            words += segment.currentSize();
+        }
+        return words;
+    }
+
+    private static StructReader read(MessageBuilder message) {
+        // the validation checks all pointers, including the far pointers
+        return new MessageReader(message.getArena().getSegmentsForOutput(), TRUSTED).getRoot(ROOT);
+    }
+
+    @Test
+    public void testMoveWithinMessage() {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        StructBuilder child = root._getPointerField(CHILD, 0);
+        child._setLongField(0, 42L);
+        child._setTextField(0, "child");
+        int words = words(message);
+
+        root._adoptPointerField(1, root._disownPointerField(0));
+        // only the pointer of the orphan was allocated, the child was not copied
+        assertThat(words(message), is(words + 1));
+        assertThat(root._pointerFieldIsNull(0), is(true));
+
+        StructReader moved = read(message)._getPointerField(CHILD, 1);
+        assertThat(moved._getLongField(0), is(42L));
+        assertThat(moved._getPointerField(Text.factory, 0).toString(), is("child"));
+    }
+
+    @Test
+    public void testNewOrphanBeforeItsParent() {
+        MessageBuilder message = new MessageBuilder();
+        Orphan orphan = message.getOrphanage().newOrphan(CHILD);
+        orphan.getAs(CHILD)._setLongField(0, 7L);
+        // the child precedes the pointer, so the pointer has a negative offset
+        message.initRoot(ROOT)._adoptPointerField(2, orphan);
+        assertThat(orphan.isNull(), is(true));
+        assertThat(read(message)._getPointerField(CHILD, 2)._getLongField(0), is(7L));
+    }
+
+    @Test
+    public void testReorderList() {
+        MessageBuilder message = new MessageBuilder();
+        TextList.Builder list = message.initRoot(ROOT)._initPointerField(TextList.factory, 0, 3);
+        list.set(0, "a");
+        list.set(1, "b");
+        list.set(2, "c");
+        Orphan[] orphans = new Orphan[3];
+        for (int i = 0; i < 3; i++) {
+            orphans[i] = list.disown(i);
+        }
+        for (int i = 0; i < 3; i++) {
+            list.adopt(i, orphans[2 - i]);
+        }
+        TextList.Reader reversed = read(message)._getPointerField(TextList.factory, 0);
+        assertThat(reversed.get(0).toString(), is("c"));
+        assertThat(reversed.get(1).toString(), is("b"));
+        assertThat(reversed.get(2).toString(), is("a"));
+    }
+
+    @Test
+    public void testMoveAcrossSegments() {
+        // every object gets its own segment, so the moved pointers are far pointers
+        MessageBuilder message = new MessageBuilder(5, BuilderArena.AllocationStrategy.FIXED_SIZE);
+        StructBuilder root = message.initRoot(ROOT);
+        root._getPointerField(CHILD, 0)._setTextField(0, "far away");
+        Orphan orphan = message.getOrphanage().newOrphan(Text.factory, 3);
+        Text.Builder text = orphan.getAs(Text.factory);
+        text.buffer.put(text.offset, new byte[]{'x', 'y', 'z'}, 0, 3);
+
+        root._adoptPointerField(1, root._disownPointerField(0));
+        root._getPointerField(CHILD, 1)._adoptPointerField(0, orphan);
+        assertThat(message.getArena().getSegments().size() > 1, is(true));
+
+        StructReader struct = read(message);
+        assertThat(struct._pointerFieldIsNull(0), is(true));
+        assertThat(struct._getPointerField(CHILD, 1)._getPointerField(Text.factory, 0).toString(), is("xyz"));
+    }
+
+    @Test
+    public void testAdoptIntoOtherMessage() {
+        MessageBuilder source = new MessageBuilder();
+        StructBuilder child = source.initRoot(ROOT)._getPointerField(CHILD, 0);
+        child._setLongField(0, 42L);
+        child._setTextField(0, "copied");
+        Orphan orphan = source.getRoot(ROOT)._disownPointerField(0);
+
+        MessageBuilder target = new MessageBuilder();
+        target.initRoot(ROOT)._adoptPointerField(0, orphan);
+        assertThat(orphan.isNull(), is(true));
+
+        StructReader copy = read(target)._getPointerField(CHILD, 0);
+        assertThat(copy._getLongField(0), is(42L));
+        assertThat(copy._getPointerField(Text.factory, 0).toString(), is("copied"));
+        // the original is cleared in the source message
+        assertThat(child._getLongField(0), is(0L));
+    }
+
+    @Test
+    public void testNewOrphanCopy() {
+        MessageBuilder message = new MessageBuilder();
+        Orphan orphan = message.getOrphanage().newOrphanCopy(Text.factory, new Text.Reader("copy"));
+        assertThat(orphan.getAsReader(Text.factory).toString(), is("copy"));
+        message.getRoot(AnyPointer.factory).adopt(orphan);
+        assertThat(new MessageReader(message.getArena().getSegmentsForOutput(), TRUSTED).getRoot(Text.factory).toString(), is("copy"));
+    }
+
+    @Test
+    public void testAdoptNullOrphan() {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        Orphan orphan = root._disownPointerField(0);
+        assertThat(orphan.isNull(), is(true));
+        root._setTextField(1, "cleared");
+        root._adoptPointerField(1, orphan);
+        assertThat(root._pointerFieldIsNull(1), is(true));
+    }
+}
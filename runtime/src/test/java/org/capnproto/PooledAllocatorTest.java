@@ -0,0 +1,65 @@
+package org.capnproto;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class PooledAllocatorTest {
+
+    private static final BareStructFactory FACTORY = new BareStructFactory(new StructSize((short) 2, (short) 0));
+
+    @Test
+    public void testReleasedSegmentsAreReusedAndZeroed() {
+        PooledAllocator allocator = new PooledAllocator();
+        MessageBuilder message = new MessageBuilder(allocator);
+        StructBuilder root = message.initRoot(FACTORY);
+        root._setLongField(0, 42);
+        root._setLongField(1, 43);
+        DataView segment = message.getArena().getSegments().get(0).getBuffer();
+        assertThat(allocator.getMisses(), is(1L));
+        message.release();
+        assertThat(message.getArena().getSegments().size(), is(0));
+
+        try (MessageBuilder reused = new MessageBuilder(allocator)) {
+            reused.getRoot(AnyPointer.factory);
+            assertThat(reused.getArena().getSegments().get(0).getBuffer(), sameInstance(segment));
+            assertThat(allocator.getHits(), is(1L));
+            for (int i = 0; i < 3 * Constants.BYTES_PER_WORD; i += Constants.BYTES_PER_WORD) {
+                assertThat(segment.getLong(i), is(0L));
+            }
+        }
+    }
+
+    @Test
+    public void testSegmentsAreLittleEndian() {
+        for (DefaultAllocator.ByteBufferAllocationStyle style : DefaultAllocator.ByteBufferAllocationStyle.values()) {
+            DataView segment = new PooledAllocator(style).allocateSegment(8);
+            segment.putLong(0, 1L);
+            assertThat(segment.get(0), is((byte) 1));
+        }
+    }
+
+    @Test
+    public void testSizeClasses() {
+        PooledAllocator allocator = new PooledAllocator(DefaultAllocator.ByteBufferAllocationStyle.BYTE_ARRAY, 64, 256, 1, 1);
+        assertThat(allocator.allocateSegment(8).capacity(), is(64));
+        assertThat(allocator.allocateSegment(65).capacity(), is(128));
+        // not pooled
+        assertThat(allocator.allocateSegment(1000).capacity(), is(1000));
+        assertThat(allocator.getMisses(), is(2L));
+
+        DataView first = allocator.allocateSegment(64);
+        DataView second = allocator.allocateSegment(64);
+        DataView third = allocator.allocateSegment(64);
+        allocator.releaseSegment(first, 64);
+        allocator.releaseSegment(second, 64);
+        // thread cache and shared pool are full
+        allocator.releaseSegment(third, 64);
+        assertThat(allocator.allocateSegment(64), sameInstance(first));
+        assertThat(allocator.allocateSegment(64), sameInstance(second));
+        assertThat(allocator.getHits(), is(2L));
+        allocator.allocateSegment(64);
+        assertThat(allocator.getMisses(), is(6L));
+    }
+}
@@ -0,0 +1,224 @@
+package org.capnproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class PrimitiveListBulkTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 7));
+    private static final int COUNT = 1000;
+
+    private static MessageBuilder build() {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        PrimitiveList.Long.Builder longs = root._initPointerField(PrimitiveList.Long.factory, 0, COUNT);
+        PrimitiveList.Int.Builder ints = root._initPointerField(PrimitiveList.Int.factory, 1, COUNT);
+        PrimitiveList.Short.Builder shorts = root._initPointerField(PrimitiveList.Short.factory, 2, COUNT);
+        PrimitiveList.Byte.Builder bytes = root._initPointerField(PrimitiveList.Byte.factory, 3, COUNT);
+        PrimitiveList.Double.Builder doubles = root._initPointerField(PrimitiveList.Double.factory, 4, COUNT);
+        PrimitiveList.Float.Builder floats = root._initPointerField(PrimitiveList.Float.factory, 5, COUNT);
+        PrimitiveList.Boolean.Builder booleans = root._initPointerField(PrimitiveList.Boolean.factory, 6, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            longs.set(i, i * 0x1_0000_0001L - 500);
+            ints.set(i, i * 65_537 - 500);
+            shorts.set(i, (short) (i * 67 - 500));
+            bytes.set(i, (byte) i);
+            doubles.set(i, i / 3.0);
+            floats.set(i, i / 7.0f);
+            booleans.set(i, i % 3 == 0);
+        }
+        return message;
+    }
+
+    private static byte[] serialize(MessageBuilder message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.write(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static StructReader readArray() throws IOException {
+        MessageReader reader = new MessageReader(AllocatedArenaBuilder.byteArrayBacked().build(ByteArrayDataView.wrap(serialize(build()))));
+        return reader.getRoot(ROOT);
+    }
+
+    private static StructReader readBuffer() {
+        MessageBuilder message = build();
+        return new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT);
+    }
+
+    private static void checkArrays(StructReader root) {
+        PrimitiveList.Long.Reader longs = root._getPointerField(PrimitiveList.Long.factory, 0);
+        PrimitiveList.Int.Reader ints = root._getPointerField(PrimitiveList.Int.factory, 1);
+        PrimitiveList.Short.Reader shorts = root._getPointerField(PrimitiveList.Short.factory, 2);
+        PrimitiveList.Byte.Reader bytes = root._getPointerField(PrimitiveList.Byte.factory, 3);
+        PrimitiveList.Double.Reader doubles = root._getPointerField(PrimitiveList.Double.factory, 4);
+        PrimitiveList.Float.Reader floats = root._getPointerField(PrimitiveList.Float.factory, 5);
+        PrimitiveList.Boolean.Reader booleans = root._getPointerField(PrimitiveList.Boolean.factory, 6);
+
+        long[] longArray = longs.toLongArray();
+        int[] intArray = ints.toIntArray();
+        short[] shortArray = shorts.toShortArray();
+        byte[] byteArray = bytes.toByteArray();
+        double[] doubleArray = doubles.toDoubleArray();
+        float[] floatArray = floats.toFloatArray();
+        boolean[] booleanArray = booleans.toBooleanArray();
+        assertThat(longArray.length, is(COUNT));
+        for (int i = 0; i < COUNT; i++) {
+            assertThat(longArray[i], is(longs.get(i)));
+            assertThat(intArray[i], is(ints.get(i)));
+            assertThat(shortArray[i], is(shorts.get(i)));
+            assertThat(byteArray[i], is(bytes.get(i)));
+            assertThat(doubleArray[i], is(doubles.get(i)));
+            assertThat(floatArray[i], is(floats.get(i)));
+            assertThat(booleanArray[i], is(booleans.get(i)));
+        }
+
+        long[] part = new long[10];
+        longs.copyTo(part, 990, 10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(part[i], is(longs.get(990 + i)));
+        }
+    }
+
+    @Test
+    public void testToArrayByteBuffer() {
+        checkArrays(readBuffer());
+    }
+
+    @Test
+    public void testToArrayByteArray() throws IOException {
+        checkArrays(readArray());
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        StructReader root = readArray();
+        PrimitiveList.Long.Reader longs = root._getPointerField(PrimitiveList.Long.factory, 0);
+        long expected = 0;
+        for (int i = 0; i < COUNT; i++) {
+            expected += longs.get(i);
+        }
+        assertThat(longs.longStream().sum(), is(expected));
+        assertThat(longs.longStream().parallel().sum(), is(expected));
+        assertThat(longs.stream().mapToLong(Long::longValue).sum(), is(expected));
+        assertArrayEquals(longs.longStream().parallel().toArray(), longs.toLongArray());
+
+        PrimitiveList.Short.Reader shorts = root._getPointerField(PrimitiveList.Short.factory, 2);
+        int[] widened = shorts.intStream().toArray();
+        for (int i = 0; i < COUNT; i++) {
+            assertThat(widened[i], is((int) shorts.get(i)));
+        }
+        PrimitiveList.Float.Reader floats = root._getPointerField(PrimitiveList.Float.factory, 5);
+        assertThat(floats.doubleStream().parallel().count(), is((long) COUNT));
+        PrimitiveList.Int.Reader ints = root._getPointerField(PrimitiveList.Int.factory, 1);
+        assertArrayEquals(ints.intStream().parallel().toArray(), ints.toIntArray());
+    }
+
+    @Test
+    public void testSpliterator() {
+        PrimitiveList.Double.Reader doubles = readBuffer()._getPointerField(PrimitiveList.Double.factory, 4);
+        Spliterator.OfDouble spliterator = doubles.doubleStream().spliterator();
+        assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED), is(true));
+        assertThat(spliterator.estimateSize(), is((long) COUNT));
+        Spliterator.OfDouble prefix = spliterator.trySplit();
+        assertThat(prefix, notNullValue());
+        assertThat(prefix.estimateSize() + spliterator.estimateSize(), is((long) COUNT));
+        double[] first = new double[1];
+        prefix.tryAdvance((double d) -> first[0] = d);
+        assertThat(first[0], is(doubles.get(0)));
+    }
+
+    @Test
+    public void testEmptyList() {
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(ROOT);
+        StructReader root = new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT);
+        PrimitiveList.Long.Reader longs = root._getPointerField(PrimitiveList.Long.factory, 0);
+        assertThat(longs.toLongArray().length, is(0));
+        assertThat(longs.longStream().sum(), is(0L));
+        assertThat(LongStream.of(longs.toLongArray()).count(), is(0L));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCopyOutOfRange() throws IOException {
+        PrimitiveList.Long.Reader longs = readArray()._getPointerField(PrimitiveList.Long.factory, 0);
+        longs.copyTo(new long[20], COUNT - 10, 20);
+    }
+
+    @Test
+    public void testSetAll() throws IOException {
+        long[] longs = new long[COUNT];
+        int[] ints = new int[COUNT];
+        short[] shorts = new short[COUNT];
+        byte[] bytes = new byte[COUNT];
+        double[] doubles = new double[COUNT];
+        float[] floats = new float[COUNT];
+        boolean[] booleans = new boolean[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            longs[i] = i * 0x1_0000_0001L - 500;
+            ints[i] = i * 65_537 - 500;
+            shorts[i] = (short) (i * 67 - 500);
+            bytes[i] = (byte) i;
+            doubles[i] = i / 3.0;
+            floats[i] = i / 7.0f;
+            booleans[i] = i % 3 == 0;
+        }
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        root._initPointerField(PrimitiveList.Long.factory, 0, COUNT).setAll(longs);
+        root._initPointerField(PrimitiveList.Int.factory, 1, COUNT).setAll(ints);
+        root._initPointerField(PrimitiveList.Short.factory, 2, COUNT).setAll(shorts);
+        root._initPointerField(PrimitiveList.Byte.factory, 3, COUNT).setAll(bytes);
+        root._initPointerField(PrimitiveList.Double.factory, 4, COUNT).setAll(doubles);
+        root._initPointerField(PrimitiveList.Float.factory, 5, COUNT).setAll(floats);
+        root._initPointerField(PrimitiveList.Boolean.factory, 6, COUNT).setAll(booleans);
+
+        assertArrayEquals(serialize(message), serialize(build()));
+    }
+
+    @Test
+    public void testSetAllPartially() {
+        MessageBuilder message = new MessageBuilder();
+        PrimitiveList.Int.Builder ints = message.initRoot(ROOT)._initPointerField(PrimitiveList.Int.factory, 1, 4);
+        ints.setAll(new int[]{9, 1, 2, 9}, 1, 2);
+        assertArrayEquals(ints.asReader().toIntArray(), new int[]{1, 2, 0, 0});
+    }
+
+    @Test
+    public void testSetAllEncoded() {
+        ByteBuffer encoded = ByteBuffer.allocate(8 * 3 + 4).order(ByteOrder.LITTLE_ENDIAN);
+        encoded.putInt(-1).putLong(1).putLong(-2).putLong(3).flip();
+        encoded.getInt();
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        PrimitiveList.Long.Builder longs = root._initPointerField(PrimitiveList.Long.factory, 0, 3);
+        longs.setAll(encoded);
+        assertThat(encoded.hasRemaining(), is(false));
+        assertArrayEquals(longs.asReader().toLongArray(), new long[]{1, -2, 3});
+
+        PrimitiveList.Short.Builder shorts = root._initPointerField(PrimitiveList.Short.factory, 2, 2);
+        DataView src = ByteArrayDataView.allocateLittleEndian(6);
+        src.putShort(2, (short) -7);
+        src.putShort(4, (short) 300);
+        shorts.setAll(src, 2, 2);
+        assertThat(shorts.get(0), is((short) -7));
+        assertThat(shorts.get(1), is((short) 300));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSetAllOutOfRange() {
+        MessageBuilder message = new MessageBuilder();
+        PrimitiveList.Long.Builder longs = message.initRoot(ROOT)._initPointerField(PrimitiveList.Long.factory, 0, 3);
+        longs.setAll(new long[4]);
+    }
+}
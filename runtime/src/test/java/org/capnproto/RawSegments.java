@@ -0,0 +1,22 @@
+package org.capnproto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Builds segments word by word, for messages that the builders can't write.
+ */
+final class RawSegments {
+
+    private RawSegments() {
+    }
+
+    static DataView segment(long... words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        buffer.flip();
+        return new ByteBufferDataView(buffer);
+    }
+}
@@ -0,0 +1,188 @@
+package org.capnproto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.After;
+import org.junit.Test;
+
+public class RecyclerTest {
+
+    private static final class Item implements Recyclable<Item> {
+
+        private Recycler<Item> recycler;
+
+        @Override
+        public void init(Recycler<Item> recycler) {
+            this.recycler = recycler;
+        }
+
+        @Override
+        public void recycle() {
+            recycler.recycle(this);
+        }
+    }
+
+    private final RecyclerProvider<Recycler<Item>> provider = new RecyclerProvider<>(
+            (capacity, shared) -> new Recycler<>(Item::new, capacity, shared));
+
+    private static SegmentDataContainer segment() {
+        return new ReaderArena(new DataView[]{ByteBufferDataView.allocate(8)}, Long.MAX_VALUE).tryGetSegment(0);
+    }
+
+    @After
+    public void restoreDefaults() {
+        Recycling.setStrategy(RecyclingStrategy.THREAD_LOCAL);
+        Recycling.setCapacity(Recycling.DEFAULT_CAPACITY);
+    }
+
+    @Test
+    public void testCapacityAndCounters() {
+        Recycler<Item> recycler = new Recycler<>(Item::new, 2, false);
+        Item a = recycler.getOrCreate();
+        Item b = recycler.getOrCreate();
+        Item c = recycler.getOrCreate();
+        a.recycle();
+        b.recycle();
+        c.recycle();
+        RecyclerStatistics statistics = recycler.getStatistics();
+        assertThat(statistics.getMisses(), is(3L));
+        assertThat(statistics.getEvictions(), is(1L));
+        assertThat(statistics.size(), is(2));
+        assertThat(statistics.getCapacity(), is(2));
+        assertThat(recycler.getOrCreate(), is(sameInstance(a)));
+        assertThat(statistics.getHits(), is(1L));
+    }
+
+    @Test
+    public void testSharedCountersDoNotLoseUpdates() throws Exception {
+        Recycler<Item> recycler = new Recycler<>(Item::new, 8, true);
+        int threads = 4;
+        int rounds = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < rounds; i++) {
+                        recycler.getOrCreate().recycle();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        RecyclerStatistics statistics = recycler.getStatistics();
+        long operations = (long) threads * rounds;
+        // every take is a hit or a miss, every recycled item is pooled or evicted
+        assertThat(statistics.getHits() + statistics.getMisses(), is(operations));
+        assertThat(statistics.getHits() + statistics.size() + statistics.getEvictions(), is(operations));
+    }
+
+    @Test
+    public void testStructReaderCache() {
+        StructReaderCache<StructReader> cache = new StructReaderCache<>(StructReader::new, 1, true);
+        StructReader first = cache.getOrCreate();
+        StructReader second = cache.getOrCreate();
+        first._init(GenericSegmentReader.EMPTY, 0, 0, 0, (short) 0, 64);
+        second._init(GenericSegmentReader.EMPTY, 0, 0, 0, (short) 0, 64);
+        first.recycle();
+        second.recycle();
+        assertThat(cache.getOrCreate(), is(sameInstance(first)));
+        assertThat(cache.getStatistics().getHits(), is(1L));
+        assertThat(cache.getStatistics().getMisses(), is(2L));
+        assertThat(cache.getStatistics().getEvictions(), is(1L));
+    }
+
+    @Test
+    public void testThreadLocal() throws InterruptedException, ExecutionException {
+        Recycler<Item> pool = provider.get(segment());
+        assertThat(provider.get(), is(sameInstance(pool)));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThat(executor.submit(() -> provider.get()).get(), is(not(sameInstance(pool))));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testOff() {
+        Recycling.setStrategy(RecyclingStrategy.OFF);
+        Recycler<Item> pool = provider.get(segment());
+        Item item = pool.getOrCreate();
+        item.recycle();
+        assertThat(pool.getOrCreate(), is(not(sameInstance(item))));
+        assertThat(pool.getStatistics().getCapacity(), is(0));
+        assertThat(pool.getStatistics().getHits(), is(0L));
+    }
+
+    @Test
+    public void testStriped() throws InterruptedException, ExecutionException {
+        Recycling.setStrategy(RecyclingStrategy.STRIPED);
+        Recycling.setCapacity(4);
+        Recycler<Item> pool = provider.get();
+        assertThat(provider.get(segment()), is(sameInstance(pool)));
+        assertThat(pool.getStatistics().getCapacity(), is(4));
+        Item item = pool.getOrCreate();
+        item.recycle();
+        assertThat(pool.getOrCreate(), is(sameInstance(item)));
+        // items of all threads can be recycled into the shared pools
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 100; i++) {
+                executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        provider.get().getOrCreate().recycle();
+                    }
+                }).get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(pool.getStatistics().size() <= 4, is(true));
+    }
+
+    @Test
+    public void testMessage() {
+        Recycling.setStrategy(RecyclingStrategy.MESSAGE);
+        SegmentDataContainer first = segment();
+        SegmentDataContainer second = segment();
+        Recycler<Item> pool = provider.get(first);
+        assertThat(provider.get(first), is(sameInstance(pool)));
+        assertThat(provider.get(second), is(not(sameInstance(pool))));
+        assertThat(first.getArena().getRecyclerScope().size(), is(1));
+        // without a message there is no pooling
+        assertThat(provider.get().getStatistics().getCapacity(), is(0));
+    }
+
+    @Test
+    public void testMessageStrategyReadsLists() {
+        Recycling.setStrategy(RecyclingStrategy.MESSAGE);
+        BareStructFactory root = new BareStructFactory(new StructSize((short) 0, (short) 1));
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(root)._initPointerField(PrimitiveList.Int.factory, 0, 3).setAll(new int[]{1, 2, 3});
+        StructReader reader = new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(root);
+        PrimitiveList.Int.Reader first = reader._getPointerField(PrimitiveList.Int.factory, 0);
+        assertThat(first.get(2), is(3));
+        first.recycle();
+        PrimitiveList.Int.Reader second = reader._getPointerField(PrimitiveList.Int.factory, 0);
+        assertThat(second, is(sameInstance(first)));
+        assertThat(second.get(0), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCapacity() {
+        Recycling.setCapacity(-1);
+    }
+}
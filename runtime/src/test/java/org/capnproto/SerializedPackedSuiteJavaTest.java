@@ -1,7 +1,13 @@
 package org.capnproto;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import org.junit.Test;
@@ -32,6 +38,18 @@ public class SerializedPackedSuiteJavaTest {
 
             assertThat(bytes, is(unpacked));
         }
+
+        // ------
+        // unpack in memory
+        {
+            DataView src = new ByteBufferDataView(ByteBuffer.wrap(packed));
+            src.order(ByteOrder.LITTLE_ENDIAN);
+            DataView dst = ByteArrayDataView.allocateLittleEndian(unpacked.length);
+            int end = PackedInputStream.unpack(src, 0, packed.length, dst, 0, unpacked.length);
+
+            assertThat(end, is(packed.length));
+            assertThat(Arrays.copyOf(((ByteArrayDataView) dst).array(), unpacked.length), is(unpacked));
+        }
     }
 
     @Test
@@ -76,4 +94,244 @@ public class SerializedPackedSuiteJavaTest {
 
         expectPacksTo(allOnes, expected);
     }
+
+    @Test
+    public void testTag() {
+        for (int i = 0; i < 8; i++) {
+            for (int value = 1; value < 256; value++) {
+                long word = (long) value << (i * 8);
+                assertThat(PackedOutputStream.tag(PackedOutputStream.nonZeroBytes(word)), is(1 << i));
+            }
+        }
+        assertThat(PackedOutputStream.tag(PackedOutputStream.nonZeroBytes(0x0101_0101_0101_0101L)), is(0xff));
+        assertThat(PackedOutputStream.tag(PackedOutputStream.nonZeroBytes(0)), is(0));
+        assertThat(PackedOutputStream.tag(PackedOutputStream.nonZeroBytes(0x8000_0100_0080_0001L)), is(0xa5));
+    }
+
+    /**
+     * Packs byte by byte, as the scalar PackedOutputStream did before whole
+     * words were packed at once.
+     */
+    private static byte[] referencePack(byte[] unpacked) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int words = unpacked.length / 8;
+        int word = 0;
+        while (word < words) {
+            int tag = 0;
+            for (int i = 0; i < 8; i++) {
+                if (unpacked[8 * word + i] != 0) {
+                    tag |= 1 << i;
+                }
+            }
+            out.write(tag);
+            for (int i = 0; i < 8; i++) {
+                if (unpacked[8 * word + i] != 0) {
+                    out.write(unpacked[8 * word + i]);
+                }
+            }
+            word++;
+            if (tag == 0) {
+                // the number of following zero words
+                int count = 0;
+                while (word < words && count < 255 && zeroBytes(unpacked, word) == 8) {
+                    count++;
+                    word++;
+                }
+                out.write(count);
+            } else if (tag == 0xff) {
+                // the number of following words with at most one zero byte, copied as they are
+                int count = 0;
+                while (word + count < words && count < 255 && zeroBytes(unpacked, word + count) < 2) {
+                    count++;
+                }
+                out.write(count);
+                out.write(unpacked, 8 * word, 8 * count);
+                word += count;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static int zeroBytes(byte[] bytes, int word) {
+        int zeros = 0;
+        for (int i = 0; i < 8; i++) {
+            if (bytes[8 * word + i] == 0) {
+                zeros++;
+            }
+        }
+        return zeros;
+    }
+
+    // runs of zero, 0xff, nearly full, sparse and random words, some longer than 255 words
+    private static byte[] randomWords(Random random) {
+        byte[] unpacked = new byte[8 * random.nextInt(1200)];
+        int word = 0;
+        while (word < unpacked.length / 8) {
+            int kind = random.nextInt(5);
+            int run = Math.min(unpacked.length / 8 - word, random.nextInt(10) == 0 ? 200 + random.nextInt(200) : 1 + random.nextInt(8));
+            for (int end = word + run; word < end; word++) {
+                for (int i = 8 * word; i < 8 * word + 8; i++) {
+                    switch (kind) {
+                        case 0:
+                            unpacked[i] = 0;
+                            break;
+                        case 1:
+                            unpacked[i] = (byte) 0xff;
+                            break;
+                        case 2:
+                            unpacked[i] = i % 8 == random.nextInt(16) ? 0 : (byte) (1 + random.nextInt(255));
+                            break;
+                        case 3:
+                            unpacked[i] = random.nextInt(8) == 0 ? (byte) (1 + random.nextInt(255)) : 0;
+                            break;
+                        default:
+                            unpacked[i] = (byte) random.nextInt(256);
+                    }
+                }
+            }
+        }
+        return unpacked;
+    }
+
+    @Test
+    public void testReferencePacking() throws IOException {
+        // the example of the encoding spec
+        byte[] unpacked = {8, 0, 0, 0, 3, 0, 2, 0, 0x19, 0, 0, 0, (byte) 0xaa, 1, 0, 0};
+        assertThat(referencePack(unpacked), is(new byte[]{0x51, 8, 3, 2, 0x31, 0x19, (byte) 0xaa, 1}));
+    }
+
+    @Test
+    public void testPackingMatchesReference() throws IOException {
+        Random random = new Random(7);
+        for (int round = 0; round < 300; round++) {
+            byte[] unpacked = randomWords(random);
+            byte[] expected = referencePack(unpacked);
+
+            byte[] packed = new byte[unpacked.length * 2 + 8];
+            ArrayOutputStream writer = new ArrayOutputStream(ByteBuffer.wrap(packed));
+            new PackedOutputStream(writer).write(ByteBuffer.wrap(unpacked));
+            packed = Arrays.copyOf(packed, writer.getWriteBuffer().position());
+            assertThat(packed, is(expected));
+
+            // small write buffers and big endian input give the same result
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TinyBufferOutputStream tiny = new TinyBufferOutputStream(out, 10 + random.nextInt(20));
+            new PackedOutputStream(tiny).write(ByteBuffer.wrap(unpacked).order(ByteOrder.BIG_ENDIAN));
+            tiny.flush();
+            assertThat(out.toByteArray(), is(expected));
+
+            byte[] bytes = new byte[unpacked.length];
+            new PackedInputStream(new ArrayInputStream(ByteBuffer.wrap(packed))).read(ByteBuffer.wrap(bytes));
+            assertThat(bytes, is(unpacked));
+        }
+    }
+
+    @Test
+    public void testBuildPacked() throws IOException {
+        BareStructFactory factory = new BareStructFactory(new StructSize((short) 1, (short) 1));
+        MessageBuilder message = new MessageBuilder(4, BuilderArena.AllocationStrategy.FIXED_SIZE);
+        StructBuilder root = message.initRoot(factory);
+        root._setLongField(0, 42L);
+        PrimitiveList.Long.Builder list = root._initPointerField(PrimitiveList.Long.factory, 0, 100);
+        for (int i = 0; i < 100; i++) {
+            list.set(i, i % 3 == 0 ? 0 : -i);
+        }
+        assertThat(message.getArena().getSegmentsForOutput().length > 1, is(true));
+
+        ByteBuffer packed = ByteBuffer.allocate(4096);
+        ArrayOutputStream writer = new ArrayOutputStream(packed);
+        message.write(new PackedOutputStream(writer));
+        message.write(new PackedOutputStream(writer));
+        packed.limit(writer.getWriteBuffer().position());
+
+        DataView input = new ByteBufferDataView(packed);
+        AllocatedArenaBuilder builder = new AllocatedArenaBuilder();
+        for (int m = 0; m < 2; m++) {
+            MessageReader reader = new MessageReader(builder.buildPacked(input));
+            StructReader readRoot = reader.getRoot(factory);
+            assertThat(readRoot._getLongField(0), is(42L));
+            PrimitiveList.Long.Reader readList = readRoot._getPointerField(PrimitiveList.Long.factory, 0);
+            assertThat(readList.size(), is(100));
+            for (int i = 0; i < 100; i++) {
+                assertThat(readList.get(i), is(i % 3 == 0 ? 0L : (long) -i));
+            }
+        }
+        assertThat(builder.buildPacked(input), is((AllocatedArena) null));
+    }
+
+    @Test
+    public void testBuildPackedAfterSingleSegmentFrame() throws IOException {
+        BareStructFactory factory = new BareStructFactory(new StructSize((short) 1, (short) 3));
+        MessageBuilder single = new MessageBuilder();
+        single.initRoot(factory)._setLongField(0, 1L);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        single.write(Channels.newChannel(frame));
+
+        MessageBuilder multi = new MessageBuilder(4, BuilderArena.AllocationStrategy.FIXED_SIZE);
+        StructBuilder root = multi.initRoot(factory);
+        root._setLongField(0, 2L);
+        for (int i = 0; i < 3; i++) {
+            root._initPointerField(factory, i, 0)._setLongField(0, i);
+        }
+        assertThat(multi.getArena().getSegmentsForOutput().length > 1, is(true));
+        ByteBuffer packed = ByteBuffer.allocate(1024);
+        ArrayOutputStream writer = new ArrayOutputStream(packed);
+        multi.write(new PackedOutputStream(writer));
+        packed.limit(writer.getWriteBuffer().position());
+
+        // the one-segment frame leaves no room in the segment size header
+        AllocatedArenaBuilder builder = new AllocatedArenaBuilder();
+        MessageReader first = new MessageReader(builder.build(Channels.newChannel(new ByteArrayInputStream(frame.toByteArray()))));
+        assertThat(first.getRoot(factory)._getLongField(0), is(1L));
+        MessageReader second = new MessageReader(builder.buildPacked(new ByteBufferDataView(packed)));
+        StructReader readRoot = second.getRoot(factory);
+        assertThat(readRoot._getLongField(0), is(2L));
+        for (int i = 0; i < 3; i++) {
+            assertThat(readRoot._getPointerField(factory, i)._getLongField(0), is((long) i));
+        }
+    }
+
+    private static final class TinyBufferOutputStream implements BufferedOutputStream {
+
+        private final ByteArrayOutputStream out;
+        private final ByteBuffer buf;
+
+        TinyBufferOutputStream(ByteArrayOutputStream out, int size) {
+            this.out = out;
+            this.buf = ByteBuffer.allocate(size);
+        }
+
+        @Override
+        public ByteBuffer getWriteBuffer() {
+            if (!buf.hasRemaining()) {
+                flush();
+            }
+            return buf;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            flush();
+            int size = src.remaining();
+            while (src.hasRemaining()) {
+                out.write(src.get());
+            }
+            return size;
+        }
+
+        @Override
+        public void flush() {
+            out.write(buf.array(), 0, buf.position());
+            buf.clear();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package org.capnproto;
+
+import java.util.concurrent.atomic.AtomicLong;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class StructListFlyweightTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 1));
+    private static final BareStructFactory ELEMENT = new BareStructFactory(new StructSize((short) 2, (short) 0));
+    private static final StructList.Factory<StructBuilder, StructReader> ELEMENTS = new StructList.Factory<>(ELEMENT);
+    private static final int COUNT = 100;
+
+    private static StructList.Builder<StructBuilder> build(MessageBuilder message) {
+        return message.initRoot(ROOT)._initPointerField(ELEMENTS, 0, COUNT);
+    }
+
+    private static StructList.Reader<StructReader> read(MessageBuilder message) {
+        MessageReader reader = new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS);
+        return reader.getRoot(ROOT)._getPointerField(ELEMENTS, 0);
+    }
+
+    @Test
+    public void testBuilderForEachFlyweight() {
+        MessageBuilder message = new MessageBuilder();
+        StructList.Builder<StructBuilder> list = build(message);
+        AtomicLong index = new AtomicLong();
+        list.forEachFlyweight(element -> {
+            long i = index.getAndIncrement();
+            element._setLongField(0, i);
+            element._setLongField(1, i * i);
+        });
+
+        StructList.Reader<StructReader> elements = read(message);
+        for (int i = 0; i < COUNT; i++) {
+            assertThat(elements.get(i)._getLongField(0), is((long) i));
+            assertThat(elements.get(i)._getLongField(1), is((long) i * i));
+        }
+    }
+
+    @Test
+    public void testReaderForEachFlyweight() {
+        MessageBuilder message = new MessageBuilder();
+        StructList.Builder<StructBuilder> list = build(message);
+        for (int i = 0; i < COUNT; i++) {
+            list.get(i)._setLongField(0, i);
+        }
+
+        AtomicLong index = new AtomicLong();
+        StructReader[] first = new StructReader[1];
+        read(message).forEachFlyweight(element -> {
+            if (first[0] == null) {
+                first[0] = element;
+            }
+            assertThat(element, sameInstance(first[0]));
+            assertThat(element._getLongField(0), is(index.getAndIncrement()));
+        });
+        assertThat(index.get(), is((long) COUNT));
+    }
+
+    @Test
+    public void testCursor() {
+        MessageBuilder message = new MessageBuilder();
+        StructList.Builder<StructBuilder>.Cursor builderCursor = build(message).cursor();
+        StructBuilder element = builderCursor.moveTo(COUNT - 1);
+        for (int i = COUNT - 1; i >= 0; i--) {
+            assertThat(builderCursor.moveTo(i), sameInstance(element));
+            element._setLongField(1, -i);
+        }
+
+        StructList.Reader<StructReader>.Cursor cursor = read(message).cursor();
+        assertThat(cursor.size(), is(COUNT));
+        StructReader reader = cursor.moveTo(0);
+        for (int i = 0; i < COUNT; i += 7) {
+            assertThat(cursor.moveTo(i), sameInstance(reader));
+            assertThat(reader._getLongField(1), is((long) -i));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCursorOutOfBounds() {
+        MessageBuilder message = new MessageBuilder();
+        build(message);
+        read(message).cursor().moveTo(COUNT);
+    }
+
+    @Test
+    public void testEmptyList() {
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(ROOT)._initPointerField(ELEMENTS, 0, 0).forEachFlyweight(e -> {
+            throw new AssertionError("no elements");
+        });
+    }
+}
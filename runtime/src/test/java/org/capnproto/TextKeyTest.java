@@ -0,0 +1,54 @@
+package org.capnproto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class TextKeyTest {
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 1));
+    private static final TextKey KEY = TextKey.of("K\u00f6ln");
+
+    private static Text.Reader read(String value) {
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(ROOT)._setTextField(0, value);
+        StructReader root = new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT);
+        return root._getPointerField(Text.factory, 0);
+    }
+
+    @Test
+    public void testMatches() {
+        assertThat(KEY.matches(read("K\u00f6ln")), is(true));
+        assertThat(KEY.matches(read("Koln")), is(false));
+        assertThat(KEY.matches(read("K\u00f6lner")), is(false));
+        assertThat(KEY.matches(read("")), is(false));
+        assertThat(TextKey.of("").matches(read("")), is(true));
+    }
+
+    @Test
+    public void testIsPrefixOf() {
+        assertThat(KEY.isPrefixOf(read("K\u00f6lner Dom")), is(true));
+        assertThat(KEY.isPrefixOf(read("K\u00f6ln")), is(true));
+        assertThat(KEY.isPrefixOf(read("K\u00f6l")), is(false));
+        assertThat(KEY.isPrefixOf(read("Bonn")), is(false));
+    }
+
+    @Test
+    public void testHash() {
+        assertThat(KEY.hash64(), is(read("K\u00f6ln").hash64()));
+        assertThat(KEY.size(), is("K\u00f6ln".getBytes(StandardCharsets.UTF_8).length));
+        Set<TextKey> keys = new HashSet<>();
+        keys.add(KEY);
+        assertThat(keys.contains(TextKey.of(new StringBuilder("K\u00f6ln"))), is(true));
+        assertThat(keys.contains(TextKey.of("Bonn")), is(false));
+        assertThat(KEY.toString(), is("K\u00f6ln"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNull() {
+        TextKey.of(null);
+    }
+}
@@ -0,0 +1,202 @@
+package org.capnproto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class TextTest {
+
+    private static final String[] VALUES = {
+        "",
+        "a",
+        "seven b",
+        "eight by",
+        "nine byte",
+        "a longer ASCII text with more than sixteen bytes",
+        "\u00e4",
+        "ASCII first, then \u00e4\u00f6\u00fc",
+        "\u20ac at the start",
+        "surrogates \ud83d\ude00 in the middle of the text",
+        "ends with a non ASCII byte \u00df"
+    };
+
+    private static final String[] MALFORMED = {
+        "unpaired high \ud83d surrogate",
+        "unpaired low \ude00 surrogate",
+        "reversed \ude00\ud83d pair",
+        "high at the end \ud83d"
+    };
+
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 0, (short) 2));
+
+    private static DataView[] views(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // the text starts behind one word, like in a segment
+        byte[] padded = new byte[8 + bytes.length + 8];
+        System.arraycopy(bytes, 0, padded, 8, bytes.length);
+        ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+        direct.put(padded).flip();
+        return new DataView[]{ByteBufferDataView.wrap(padded), new ByteBufferDataView(direct), ByteArrayDataView.wrap(padded)};
+    }
+
+    @Test
+    public void testToString() {
+        for (String value : VALUES) {
+            int size = value.getBytes(StandardCharsets.UTF_8).length;
+            for (DataView view : views(value)) {
+                assertThat(new Text.Reader(view, 1, size).toString(), is(value));
+            }
+            assertThat(new Text.Reader(value).toString(), is(value));
+        }
+    }
+
+    @Test
+    public void testIsAscii() {
+        for (String value : VALUES) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            boolean ascii = bytes.length == value.length();
+            assertThat(value, Text.isAscii(ByteBufferDataView.wrap(bytes), 0, bytes.length), is(ascii));
+        }
+    }
+
+    @Test
+    public void testCharSequence() {
+        for (String value : VALUES) {
+            int size = value.getBytes(StandardCharsets.UTF_8).length;
+            for (DataView view : views(value)) {
+                CharSequence chars = new Text.Reader(view, 1, size).asCharSequence();
+                assertThat(chars.length(), is(value.length()));
+                for (int i = 0; i < value.length(); i++) {
+                    assertThat(chars.charAt(i), is(value.charAt(i)));
+                }
+                if (value.length() > 2) {
+                    assertThat(chars.subSequence(1, value.length() - 1).toString(), is(value.substring(1, value.length() - 1)));
+                }
+                assertThat(chars.toString(), is(value));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCharSequenceOutOfRange() {
+        new Text.Reader("abc").asCharSequence().charAt(3);
+    }
+
+    @Test
+    public void testEncode() {
+        List<String> values = new ArrayList<>(Arrays.asList(VALUES));
+        values.addAll(Arrays.asList(MALFORMED));
+        for (String value : values) {
+            byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+            assertThat(value, Text.encodedLength(value), is(expected.length));
+            assertThat(value, Text.encodedLength(new StringBuilder(value)), is(expected.length));
+            ByteBuffer direct = ByteBuffer.allocateDirect(expected.length + 8);
+            for (DataView view : new DataView[]{ByteBufferDataView.allocate(expected.length + 8), new ByteBufferDataView(direct), ByteArrayDataView.allocate(expected.length + 8)}) {
+                for (CharSequence chars : new CharSequence[]{value, new StringBuilder(value)}) {
+                    Text.encode(chars, expected.length, view, 8);
+                    byte[] actual = new byte[expected.length];
+                    view.get(8, actual, 0, actual.length);
+                    assertThat(value, actual, is(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSetText() {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        TextList.Builder list = root._initPointerField(TextList.factory, 1, VALUES.length);
+        for (int i = 0; i < VALUES.length; i++) {
+            root._setTextField(0, VALUES[i]);
+            assertThat(root._getPointerField(Text.factory, 0).toString(), is(VALUES[i]));
+            list.set(i, new StringBuilder(VALUES[i]));
+        }
+        StructReader reader = new MessageReader(message.getArena().getSegmentsForOutput(), ReaderOptions.DEFAULT_READER_OPTIONS).getRoot(ROOT);
+        assertThat(reader._getPointerField(Text.factory, 0).toString(), is(VALUES[VALUES.length - 1]));
+        TextList.Reader texts = reader._getPointerField(TextList.factory, 1);
+        for (int i = 0; i < VALUES.length; i++) {
+            assertThat(texts.get(i).toString(), is(VALUES[i]));
+        }
+    }
+
+    @Test
+    public void testContentEquals() {
+        List<String> values = new ArrayList<>(Arrays.asList(VALUES));
+        values.addAll(Arrays.asList(MALFORMED));
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            for (DataView view : views(new String(bytes, StandardCharsets.UTF_8))) {
+                Text.Reader text = new Text.Reader(view, 1, bytes.length);
+                assertThat(value, text.contentEquals(bytes), is(true));
+                assertThat(value, text.contentEquals(new Text.Reader(value)), is(true));
+                assertThat(value, text.contentEquals(value), is(true));
+                assertThat(value, text.contentEquals(new StringBuilder(value)), is(true));
+                assertThat(value, text.contentEquals(value + "x"), is(false));
+                assertThat(value, text.contentEquals(new Text.Reader(value + "x")), is(false));
+                if (!value.isEmpty()) {
+                    assertThat(value, text.contentEquals(value.substring(1)), is(false));
+                    assertThat(value, text.contentEquals(Arrays.copyOf(bytes, bytes.length - 1)), is(false));
+                }
+            }
+        }
+        assertThat(new Text.Reader("\u00e4").contentEquals("\u00e5"), is(false));
+        assertThat(new Text.Reader("\u20ac").contentEquals("\u20ad"), is(false));
+        assertThat(new Text.Reader("\ud83d\ude00").contentEquals("\ud83d\ude01"), is(false));
+        // the encoding is longer than the text
+        assertThat(new Text.Reader("ab").contentEquals("\u00e4"), is(false));
+    }
+
+    @Test
+    public void testStartsWith() {
+        Text.Reader text = new Text.Reader("\u00e4pfel und Birnen");
+        assertThat(text.startsWith(new byte[0]), is(true));
+        assertThat(text.startsWith("\u00e4pfel".getBytes(StandardCharsets.UTF_8)), is(true));
+        assertThat(text.startsWith(new Text.Reader("\u00e4pfel und Birnen")), is(true));
+        assertThat(text.startsWith(new Text.Reader("\u00e4pfel und Birnen!")), is(false));
+        assertThat(text.startsWith(new Text.Reader("Birnen")), is(false));
+    }
+
+    @Test
+    public void testCompareTo() {
+        List<String> values = new ArrayList<>(Arrays.asList(VALUES));
+        values.add("a longer");
+        values.add("\uffff");
+        for (String a : values) {
+            for (String b : values) {
+                int expected = Integer.signum(compareCodePoints(a, b));
+                assertThat(a + " <> " + b, Integer.signum(new Text.Reader(a).compareTo(new Text.Reader(b))), is(expected));
+            }
+        }
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int[] x = a.codePoints().toArray();
+        int[] y = b.codePoints().toArray();
+        for (int i = 0; i < Math.min(x.length, y.length); i++) {
+            if (x[i] != y[i]) {
+                return Integer.compare(x[i], y[i]);
+            }
+        }
+        return Integer.compare(x.length, y.length);
+    }
+
+    @Test
+    public void testHash64() {
+        // FNV-1a reference values
+        assertThat(new Text.Reader("").hash64(), is(0xcbf29ce484222325L));
+        assertThat(new Text.Reader("a").hash64(), is(0xaf63dc4c8601ec8cL));
+        assertThat(new Text.Reader("foobar").hash64(), is(0x85944171f73967e8L));
+        for (String value : VALUES) {
+            int size = value.getBytes(StandardCharsets.UTF_8).length;
+            for (DataView view : views(value)) {
+                assertThat(new Text.Reader(view, 1, size).hash64(), is(new Text.Reader(value).hash64()));
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.capnproto;
+
+import static org.capnproto.RawSegments.segment;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class TrustedReaderTest {
+
+    private static final ReaderOptions TRUSTED = new ReaderOptions(ReaderOptions.DEFAULT_TRAVERSAL_LIMIT_IN_WORDS, ReaderOptions.DEFAULT_NESTING_LIMIT, true);
+    private static final BareStructFactory ROOT = new BareStructFactory(new StructSize((short) 1, (short) 2));
+    private static final BareStructFactory ITEM = new BareStructFactory(new StructSize((short) 1, (short) 0));
+    private static final StructList.Factory<StructBuilder, StructReader> ITEMS = new StructList.Factory<>(ITEM);
+    private static final BareStructFactory EMPTY = new BareStructFactory(new StructSize((short) 0, (short) 0));
+    private static final BareStructFactory NODE = new BareStructFactory(new StructSize((short) 0, (short) 1));
+
+    @Test
+    public void testReadTrusted() {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        root._setLongField(0, 42L);
+        root._setTextField(0, "trusted");
+        StructList.Builder<StructBuilder> items = root._initPointerField(ITEMS, 1, 3);
+        for (int i = 0; i < 3; i++) {
+            items.get(i)._setIntField(0, i + 1);
+        }
+
+        MessageReader reader = new MessageReader(message.getArena().getSegmentsForOutput(), TRUSTED);
+        assertThat(reader.getArena().tryGetSegment(0).isValidated(), is(true));
+        StructReader struct = reader.getRoot(ROOT);
+        assertThat(struct._getLongField(0), is(42L));
+        // outside of the data section the default is returned, as for any reader
+        assertThat(struct._getLongField(1), is(0L));
+        assertThat(struct._getPointerField(Text.factory, 0).toString(), is("trusted"));
+        StructList.Reader<StructReader> list = struct._getPointerField(ITEMS, 1);
+        assertThat(list.get(2)._getIntField(0), is(3));
+        assertThat(struct._pointerFieldIsNull(1), is(false));
+    }
+
+    @Test
+    public void testEmptyStructAndEmptyList() {
+        MessageBuilder message = new MessageBuilder();
+        StructBuilder root = message.initRoot(ROOT);
+        // an empty struct is encoded with the offset -1
+        root._getPointerField(EMPTY, 0);
+        root._initPointerField(ITEMS, 1, 0);
+        DataView[] segments = message.getArena().getSegmentsForOutput();
+        for (ReaderOptions options : new ReaderOptions[]{ReaderOptions.DEFAULT_READER_OPTIONS, TRUSTED}) {
+            StructReader struct = new MessageReader(segments, options).getRoot(ROOT);
+            assertThat(struct._pointerFieldIsNull(0), is(false));
+            assertThat(struct._getPointerField(EMPTY, 0)._getLongField(0), is(0L));
+            assertThat(struct._getPointerField(ITEMS, 1).size(), is(0));
+        }
+    }
+
+    @Test
+    public void testBackwardPointer() {
+        // the root struct at word 2 points back to the struct at word 1
+        DataView[] segments = {segment((1L << 48) | (1 << 2), 42L, (1L << 32) | 0xffff_fff8L)};
+        for (ReaderOptions options : new ReaderOptions[]{ReaderOptions.DEFAULT_READER_OPTIONS, TRUSTED}) {
+            StructReader struct = new MessageReader(segments, options).getRoot(NODE);
+            assertThat(struct._getPointerField(ITEM, 0)._getLongField(0), is(42L));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDeinitializedTrustedReader() {
+        MessageBuilder message = new MessageBuilder();
+        message.initRoot(ROOT)._setLongField(0, 42L);
+        StructReader struct = new MessageReader(message.getArena().getSegmentsForOutput(), TRUSTED).getRoot(ROOT);
+        struct.deinit();
+        struct._getLongField(0);
+    }
+
+    @Test
+    public void testUntrustedIsNotValidated() {
+        // the struct claims two data words, but the segment ends after the pointer
+        DataView[] segments = {segment(2L << 32)};
+        MessageReader reader = new MessageReader(segments, ReaderOptions.DEFAULT_READER_OPTIONS);
+        assertThat(reader.getArena().tryGetSegment(0).isValidated(), is(false));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testOutOfBounds() {
+        new MessageReader(new DataView[]{segment(2L << 32)}, TRUSTED);
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testUnknownSegment() {
+        new MessageReader(new DataView[]{segment((3L << 32) | WirePointer.FAR)}, TRUSTED);
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testCycle() {
+        // a far pointer to a struct, whose only pointer is the same far pointer
+        long far = (1 << 3) | WirePointer.FAR;
+        new MessageReader(new DataView[]{segment(far, 1L << 48, far)}, TRUSTED);
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testTraversalLimit() {
+        // a list of one million voids occupies no space in the message
+        long voids = ((long) (1_000_000 << 3) << 32) | WirePointer.LIST;
+        new MessageReader(new DataView[]{segment(voids)}, new ReaderOptions(1000, 64, true));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testEmptyMessage() {
+        new MessageReader(new DataView[]{segment()}, TRUSTED);
+    }
+}